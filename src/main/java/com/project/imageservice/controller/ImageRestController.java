@@ -2,13 +2,29 @@ package com.project.imageservice.controller;
 
 import com.project.imageservice.dto.image.CreateImageDto;
 import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.dto.image.TilePyramidDto;
 import com.project.imageservice.dto.image.UpdateImageDto;
+import com.project.imageservice.dto.image.UploadImageDto;
+import com.project.imageservice.dto.image.UploadResultDto;
 import com.project.imageservice.service.ImageService;
+import com.project.imageservice.service.RenditionService;
+import com.project.imageservice.storage.ImageContent;
+import com.project.imageservice.storage.RangeContentWriter;
+import com.project.imageservice.storage.RenditionKey;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
@@ -16,6 +32,8 @@ import java.util.List;
 public class ImageRestController {
 
     private final ImageService imageService;
+    private final RangeContentWriter rangeContentWriter;
+    private final RenditionService renditionService;
 
     @GetMapping
     public List<ImageDto> getImages(
@@ -32,6 +50,58 @@ public class ImageRestController {
         return imageService.findById(accountId, imageId);
     }
 
+    @GetMapping("/{imageId}/content")
+    public void getImageContent(
+            @PathVariable Integer accountId,
+            @PathVariable Integer imageId,
+            @RequestParam(required = false) Integer w,
+            @RequestParam(required = false) Integer h,
+            @RequestParam(required = false) String fit,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        ImageContent content = imageService.findContent(accountId, imageId);
+        if (w == null && h == null && fit == null && format == null) {
+            rangeContentWriter.write(request, response, content);
+            return;
+        }
+
+        RenditionKey key = renditionService.resolveKey(content.getContentHash(), w, h, fit, format);
+        rangeContentWriter.write(request, response, key.getEtag(), () -> renditionService.render(content, key));
+    }
+
+    @GetMapping("/{imageId}/thumbnail")
+    public void getImageThumbnail(
+            @PathVariable Integer accountId,
+            @PathVariable Integer imageId,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        rangeContentWriter.write(request, response, imageService.findThumbnail(accountId, imageId));
+    }
+
+    @GetMapping("/{imageId}/tiles")
+    public TilePyramidDto getImageTilePyramid(
+            @PathVariable Integer accountId,
+            @PathVariable Integer imageId
+    ) {
+        return imageService.findTilePyramid(accountId, imageId);
+    }
+
+    @GetMapping("/{imageId}/tiles/{level}/{x}/{y}")
+    public void getImageTile(
+            @PathVariable Integer accountId,
+            @PathVariable Integer imageId,
+            @PathVariable int level,
+            @PathVariable int x,
+            @PathVariable int y,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        rangeContentWriter.write(request, response, imageService.findTile(accountId, imageId, level, x, y));
+    }
+
     @PostMapping
     public ImageDto createImage(
             @RequestBody @Valid CreateImageDto createImageDto,
@@ -40,6 +110,31 @@ public class ImageRestController {
         return imageService.create(createImageDto, accountId);
     }
 
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ImageDto uploadImage(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) List<Integer> tagsIds,
+            @PathVariable Integer accountId
+    ) throws IOException {
+
+        try (InputStream content = file.getInputStream()) {
+            return imageService.upload(toUploadImageDto(file, tagsIds), content, accountId);
+        }
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public List<UploadResultDto> uploadImages(
+            @RequestPart("files") List<MultipartFile> files,
+            @RequestParam(required = false) List<Integer> tagsIds,
+            @PathVariable Integer accountId
+    ) {
+        List<UploadImageDto> uploadImageDtos = files.stream()
+                .map(file -> toUploadImageDto(file, tagsIds))
+                .collect(Collectors.toList());
+
+        return imageService.uploadBatch(uploadImageDtos, files, accountId);
+    }
+
     @PutMapping("/{imageId}")
     public ImageDto updateImage(
             @PathVariable Integer accountId,
@@ -58,4 +153,14 @@ public class ImageRestController {
         imageService.delete(accountId, imageId);
     }
 
+    private UploadImageDto toUploadImageDto(MultipartFile file, List<Integer> tagsIds) {
+        UploadImageDto uploadImageDto = new UploadImageDto();
+        uploadImageDto.setOriginalName(StringUtils.getFilename(
+                StringUtils.cleanPath(Objects.toString(file.getOriginalFilename(), file.getName()))));
+        uploadImageDto.setContentType(file.getContentType() != null
+                ? file.getContentType()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        uploadImageDto.setTagsIds(tagsIds != null ? tagsIds : List.of());
+        return uploadImageDto;
+    }
 }
@@ -1,9 +1,19 @@
 package com.project.imageservice.controller;
 
 import com.project.imageservice.domain.Image;
+import com.project.imageservice.dto.image.ImageCursorPageDto;
 import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.dto.image.ImageFacetedPageDto;
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.dto.image.ImageSliceDto;
+import com.project.imageservice.dto.image.SimilarImageDto;
+import com.project.imageservice.dto.image.VisuallySimilarImageDto;
+import com.project.imageservice.service.ImageExportService;
+import com.project.imageservice.service.ImageFacetService;
 import com.project.imageservice.service.ImageService;
 import com.project.imageservice.service.ImageSpecificationCreator;
+import com.project.imageservice.service.SimilarImageService;
+import com.project.imageservice.service.VisualSearchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,6 +22,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -20,34 +32,80 @@ public class ImageSearchRestController {
 
     private final ImageService imageService;
     private final ImageSpecificationCreator imageSpecificationCreator;
+    private final ImageFacetService imageFacetService;
+    private final ImageExportService imageExportService;
+    private final SimilarImageService similarImageService;
+    private final VisualSearchService visualSearchService;
 
     @GetMapping("/search")
     public Page<ImageDto> getImages(
-            @RequestParam(required = false) Integer accountId,
-            @RequestParam(required = false) String originalName,
-            @RequestParam(required = false) String contentType,
-            @RequestParam(required = false) Integer size,
-            @RequestParam(required = false) List<Integer> tagsIds,
+            ImageSearchFilter filter,
             Pageable pageable
     ) {
-        Specification<Image> spec = Specification.where(null);
-
-        if (accountId != null) {
-            spec = spec.and(imageSpecificationCreator.getImagesByAccountId(accountId));
-        }
-        if (originalName != null) {
-            spec = spec.and(imageSpecificationCreator.getImagesByOriginalNameIn(originalName));
-        }
-        if (contentType != null) {
-            spec = spec.and(imageSpecificationCreator.getImagesByContentTypeIn(contentType));
-        }
-        if (size != null) {
-            spec = spec.and(imageSpecificationCreator.getImagesBySizeInBetween(size));
-        }
-        if (tagsIds != null) {
-            spec = spec.and(imageSpecificationCreator.getImagesByTagsIdsIn(tagsIds));
-        }
-
-        return imageService.findBySpecification(spec, pageable);
+        return imageService.findByFilter(filter, pageable);
+    }
+
+    @GetMapping(value = "/search", params = {"facets", "!after", "!slice"})
+    public ImageFacetedPageDto getImagesWithFacets(
+            ImageSearchFilter filter,
+            Pageable pageable,
+            @RequestParam List<String> facets
+    ) {
+        Page<ImageDto> page = imageService.findByFilter(filter, pageable);
+        return new ImageFacetedPageDto(
+                page.getContent(),
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages(),
+                imageFacetService.countFacets(filter, facets));
+    }
+
+    @GetMapping(value = "/search", params = "after")
+    public ImageCursorPageDto getImagesAfter(
+            ImageSearchFilter filter,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return imageService.findBySpecification(imageSpecificationCreator.getImageWindows(filter), after, limit);
+    }
+
+    @GetMapping(value = "/search", params = {"slice=true", "!after"})
+    public ImageSliceDto getImageSlice(
+            ImageSearchFilter filter,
+            Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean approximateTotal
+    ) {
+        return imageService.findSlice(filter, pageable, approximateTotal);
+    }
+
+    @GetMapping("/search/export")
+    public void exportImages(
+            ImageSearchFilter filter,
+            HttpServletResponse response
+    ) throws IOException {
+        // an invalid filter has to fail before the content type is set, or its error body cannot be rendered
+        List<Specification<Image>> specifications = imageSpecificationCreator.getImageWindows(filter);
+        response.setContentType(ImageExportService.CONTENT_TYPE);
+        imageExportService.export(specifications, response.getOutputStream());
+    }
+
+    @GetMapping("/search/similar")
+    public List<SimilarImageDto> getSimilarImages(
+            @RequestParam Integer imageId,
+            @RequestParam(required = false) Integer accountId,
+            @RequestParam(defaultValue = "10") int maxDistance,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return similarImageService.findSimilar(imageId, accountId, maxDistance, limit);
+    }
+
+    @GetMapping("/search/visual")
+    public List<VisuallySimilarImageDto> getVisuallySimilarImages(
+            @RequestParam Integer imageId,
+            @RequestParam(required = false) Integer accountId,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return visualSearchService.findSimilar(imageId, accountId, limit);
     }
 }
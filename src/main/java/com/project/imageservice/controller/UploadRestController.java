@@ -0,0 +1,84 @@
+package com.project.imageservice.controller;
+
+import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.dto.upload.CreateUploadSessionDto;
+import com.project.imageservice.dto.upload.UploadSessionDto;
+import com.project.imageservice.service.UploadSessionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import java.io.IOException;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/accounts/{accountId}/uploads")
+public class UploadRestController {
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    public UploadSessionDto createUpload(
+            @RequestBody @Valid CreateUploadSessionDto createUploadSessionDto,
+            @PathVariable Integer accountId
+    ) {
+        return uploadSessionService.create(createUploadSessionDto, accountId);
+    }
+
+    @GetMapping("/{uploadId}")
+    public UploadSessionDto getUpload(
+            @PathVariable Integer accountId,
+            @PathVariable String uploadId
+    ) {
+        return uploadSessionService.findById(accountId, uploadId);
+    }
+
+    @RequestMapping(value = "/{uploadId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getUploadOffset(
+            @PathVariable Integer accountId,
+            @PathVariable String uploadId
+    ) {
+        UploadSessionDto uploadSessionDto = uploadSessionService.findById(accountId, uploadId);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(UPLOAD_OFFSET, String.valueOf(uploadSessionDto.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(uploadSessionDto.getSize()))
+                .build();
+    }
+
+    @PatchMapping("/{uploadId}")
+    public ResponseEntity<Void> appendChunk(
+            @PathVariable Integer accountId,
+            @PathVariable String uploadId,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            HttpServletRequest request
+    ) throws IOException {
+        UploadSessionDto uploadSessionDto = uploadSessionService.appendChunk(
+                accountId, uploadId, offset, request.getInputStream());
+        return ResponseEntity.noContent()
+                .header(UPLOAD_OFFSET, String.valueOf(uploadSessionDto.getOffset()))
+                .build();
+    }
+
+    @PostMapping("/{uploadId}/finalize")
+    public ImageDto finalizeUpload(
+            @PathVariable Integer accountId,
+            @PathVariable String uploadId
+    ) {
+        return uploadSessionService.complete(accountId, uploadId);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public void deleteUpload(
+            @PathVariable Integer accountId,
+            @PathVariable String uploadId
+    ) {
+        uploadSessionService.delete(accountId, uploadId);
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.imageservice.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class ContentBlobJdbcRepository {
+
+    private static final String INSERT_CONTENT_BLOB = "insert into content_blobs"
+            + "(content_hash, size, ref_count, created_on, updated_on) values (?, ?, ?, ?, ?)";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // the savepoint keeps the surrounding transaction usable when a concurrent upload inserted the row first
+    public boolean insertIfAbsent(String contentHash, long size, int refCount, LocalDateTime now) {
+        Boolean inserted = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            Savepoint savepoint = con.setSavepoint();
+            try (PreparedStatement ps = con.prepareStatement(INSERT_CONTENT_BLOB)) {
+                ps.setString(1, contentHash);
+                ps.setLong(2, size);
+                ps.setInt(3, refCount);
+                ps.setTimestamp(4, Timestamp.valueOf(now));
+                ps.setTimestamp(5, Timestamp.valueOf(now));
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+                con.rollback(savepoint);
+                return false;
+            }
+            con.releaseSavepoint(savepoint);
+            return true;
+        });
+        return Boolean.TRUE.equals(inserted);
+    }
+}
@@ -0,0 +1,37 @@
+package com.project.imageservice.dao;
+
+import com.project.imageservice.domain.ContentBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+
+    @Query("update ContentBlob b set b.refCount = b.refCount + :count, b.updatedOn = :now " +
+            "where b.contentHash = :contentHash")
+    @Modifying
+    int incrementRefCount(String contentHash, int count, LocalDateTime now);
+
+    @Query("update ContentBlob b set b.refCount = b.refCount - :count, b.updatedOn = :now " +
+            "where b.contentHash = :contentHash")
+    @Modifying
+    int decrementRefCount(String contentHash, int count, LocalDateTime now);
+
+    @Query("from ContentBlob b where b.refCount <= 0 and b.updatedOn < :before order by b.updatedOn")
+    List<ContentBlob> findUnreferenced(LocalDateTime before, Pageable pageable);
+
+    @Query("delete from ContentBlob b where b.contentHash = :contentHash " +
+            "and b.refCount <= 0 and b.updatedOn < :before")
+    @Modifying
+    int deleteUnreferenced(String contentHash, LocalDateTime before);
+
+    @Query("select coalesce(sum(b.size * b.refCount), 0) from ContentBlob b where b.refCount > 0")
+    long sumLogicalSize();
+
+    @Query("select coalesce(sum(b.size), 0) from ContentBlob b where b.refCount > 0")
+    long sumPhysicalSize();
+}
@@ -0,0 +1,8 @@
+package com.project.imageservice.dao;
+
+public interface ContentHashCount {
+
+    String getContentHash();
+
+    Long getReferenceCount();
+}
@@ -0,0 +1,11 @@
+package com.project.imageservice.dao;
+
+public interface ImageFeatures {
+
+    Long getPerceptualHash();
+
+    byte[] getVisualFeatures();
+
+    String getPlaceholder();
+
+}
@@ -0,0 +1,78 @@
+package com.project.imageservice.dao;
+
+import com.project.imageservice.domain.Image;
+import com.project.imageservice.domain.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ImageJdbcRepository {
+
+    private static final String INSERT_IMAGE = "insert into images"
+            + "(original_name, content_type, size, content_hash, thumbnail_available, perceptual_hash, "
+            + "visual_features, placeholder, width, height, orientation, captured_on, camera_model, latitude, "
+            + "longitude, account_id, created_on, updated_on) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_IMAGE_TAG = "insert into images_tags(image_id, tag_id) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<Image> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute(con -> con.prepareStatement(INSERT_IMAGE, new String[]{"id"}), (PreparedStatement ps) -> {
+            for (Image image : images) {
+                ps.setString(1, image.getOriginalName());
+                ps.setString(2, image.getContentType());
+                ps.setInt(3, image.getSize());
+                ps.setString(4, image.getContentHash());
+                ps.setBoolean(5, image.getThumbnailAvailable());
+                ps.setObject(6, image.getPerceptualHash(), Types.BIGINT);
+                ps.setBytes(7, image.getVisualFeatures());
+                ps.setString(8, image.getPlaceholder());
+                ps.setObject(9, image.getWidth(), Types.INTEGER);
+                ps.setObject(10, image.getHeight(), Types.INTEGER);
+                ps.setObject(11, image.getOrientation(), Types.SMALLINT);
+                ps.setTimestamp(12, image.getCapturedOn() != null ? Timestamp.valueOf(image.getCapturedOn()) : null);
+                ps.setString(13, image.getCameraModel());
+                ps.setObject(14, image.getLatitude(), Types.DOUBLE);
+                ps.setObject(15, image.getLongitude(), Types.DOUBLE);
+                ps.setInt(16, image.getAccount().getId());
+                ps.setTimestamp(17, Timestamp.valueOf(image.getCreatedOn()));
+                ps.setTimestamp(18, Timestamp.valueOf(image.getUpdatedOn()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                int i = 0;
+                while (keys.next()) {
+                    images.get(i++).setId(keys.getInt(1));
+                }
+            }
+            return null;
+        });
+
+        List<Object[]> imageTags = new ArrayList<>();
+        for (Image image : images) {
+            for (Tag tag : image.getTags()) {
+                imageTags.add(new Object[]{image.getId(), tag.getId()});
+            }
+        }
+        if (!imageTags.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IMAGE_TAG, imageTags);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.project.imageservice.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class ImageKey {
+
+    private final Integer id;
+    private final LocalDateTime createdOn;
+
+}
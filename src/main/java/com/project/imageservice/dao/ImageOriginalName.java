@@ -0,0 +1,9 @@
+package com.project.imageservice.dao;
+
+public interface ImageOriginalName {
+
+    Integer getId();
+
+    String getOriginalName();
+
+}
@@ -0,0 +1,9 @@
+package com.project.imageservice.dao;
+
+public interface ImagePerceptualHash {
+
+    Integer getId();
+
+    Long getPerceptualHash();
+
+}
@@ -1,12 +1,11 @@
 package com.project.imageservice.dao;
 
 import com.project.imageservice.domain.Image;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.lang.Nullable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,8 +23,83 @@ public interface ImageRepository extends JpaRepository<Image, Integer>, JpaSpeci
     @Modifying
     void deleteByIdAndAccountId(Integer accountId, Integer imageId);
 
-    @EntityGraph(attributePaths = {"tags"})
-    Page<Image> findAll(Specification<Image> spec, Pageable pageable);
+    @Query("select i.contentHash from Image i where i.account.id = :accountId and i.id = :imageId")
+    Optional<String> findContentHashByIdAndAccountId(Integer accountId, Integer imageId);
+
+    @Query("select i.contentHash as contentHash, count(i) as referenceCount from Image i " +
+            "where i.account.id = :accountId and i.contentHash is not null group by i.contentHash")
+    List<ContentHashCount> countContentHashesByAccountId(Integer accountId);
+
+    @Query("delete from Image i where i.account.id = :accountId")
+    @Modifying
+    void deleteAllByAccountId(Integer accountId);
+
+    @Query("select distinct i.contentHash from Image i " +
+            "where (i.thumbnailAvailable = false or i.perceptualHash is null or i.visualFeatures is null " +
+            "or i.placeholder is null) " +
+            "and i.contentHash > :after order by i.contentHash")
+    List<String> findContentHashesWithoutThumbnail(String after, Pageable pageable);
+
+    @Query("update Image i set i.thumbnailAvailable = true, i.perceptualHash = :perceptualHash, " +
+            "i.visualFeatures = :visualFeatures, i.placeholder = :placeholder where i.contentHash = :contentHash")
+    @Modifying
+    int updateThumbnailAndFeatures(String contentHash, Long perceptualHash, byte[] visualFeatures, String placeholder);
+
+    Optional<ImageFeatures> findFirstByContentHashAndPerceptualHashNotNull(String contentHash);
+
+    @Query("select i.id as id, i.perceptualHash as perceptualHash from Image i where i.perceptualHash is not null")
+    List<ImagePerceptualHash> findAllPerceptualHashes();
+
+    @Query("select i.id as id, i.perceptualHash as perceptualHash from Image i " +
+            "where i.id in :imageIds and i.perceptualHash is not null")
+    List<ImagePerceptualHash> findPerceptualHashesByIdIn(List<Integer> imageIds);
+
+    @Query("select i.id as id, i.visualFeatures as visualFeatures from Image i " +
+            "where i.visualFeatures is not null and i.id > :after order by i.id")
+    List<ImageVisualFeatures> findVisualFeaturesAfter(Integer after, Pageable pageable);
+
+    @Query("select i.id as id, i.visualFeatures as visualFeatures from Image i " +
+            "where i.id in :imageIds and i.visualFeatures is not null")
+    List<ImageVisualFeatures> findVisualFeaturesByIdIn(List<Integer> imageIds);
+
+    @Query("select i.id from Image i where i.contentHash = :contentHash")
+    List<Integer> findIdsByContentHash(String contentHash);
+
+    @Query("select i.id from Image i where i.account.id = :accountId")
+    List<Integer> findIdsByAccountId(Integer accountId);
+
+    @Query("select distinct t.id from Image i join i.tags t where i.account.id = :accountId")
+    List<Integer> findTagIdsByAccountId(Integer accountId);
+
+    @Query("select distinct i from Image i left join fetch i.tags where i.id in :imageIds")
+    List<Image> findAllWithTagsByIdIn(List<Integer> imageIds);
+
+    @Query("select i.id as imageId, t.id as tagId from Image i join i.tags t " +
+            "where i.id >= :afterImageId and (i.id > :afterImageId or t.id > :afterTagId) order by i.id, t.id")
+    List<ImageTagId> findTagIdsAfter(Integer afterImageId, Integer afterTagId, Pageable pageable);
+
+    @Query("select i.id as imageId, t.id as tagId from Image i join i.tags t where i.id in :imageIds")
+    List<ImageTagId> findTagIdsByImageIdIn(List<Integer> imageIds);
+
+    @Query("select i.id as id, i.originalName as originalName from Image i where i.id > :after order by i.id")
+    List<ImageOriginalName> findOriginalNamesAfter(Integer after, Pageable pageable);
+
+    @Query("select i.id as id, i.originalName as originalName from Image i where i.id in :imageIds")
+    List<ImageOriginalName> findOriginalNamesByIdIn(List<Integer> imageIds);
+
+    @Query("select i.id as id, i.originalName as originalName, i.cameraModel as cameraModel from Image i " +
+            "where i.id > :after order by i.id")
+    List<ImageText> findTextsAfter(Integer after, Pageable pageable);
+
+    @Query("select i.id as id, i.originalName as originalName, i.cameraModel as cameraModel from Image i " +
+            "where i.id in :imageIds")
+    List<ImageText> findTextsByIdIn(List<Integer> imageIds);
+
+    @Query("select i.id from Image i where i.id > :after order by i.id")
+    List<Integer> findIdsAfter(Integer after, Pageable pageable);
+
+    @Query("select i.id from Image i where i.updatedOn >= :since")
+    List<Integer> findIdsUpdatedSince(LocalDateTime since);
 
 
 }
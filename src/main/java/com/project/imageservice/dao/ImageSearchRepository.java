@@ -0,0 +1,240 @@
+package com.project.imageservice.dao;
+
+import com.project.imageservice.domain.Image;
+import com.project.imageservice.domain.Tag;
+import com.project.imageservice.exception.type.InvalidSearchException;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+public class ImageSearchRepository {
+
+    private final EntityManager entityManager;
+
+    public static final String MATCHED_TAGS = "matchedTags";
+
+    public Page<Integer> findIds(Specification<Image> specification, Pageable pageable, List<Integer> matchedTagsIds) {
+        List<Integer> ids = findIds(specification, pageable, matchedTagsIds,
+                pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE);
+        return PageableExecutionUtils.getPage(ids, pageable, () -> count(specification));
+    }
+
+    public Slice<Integer> findIdSlice(Specification<Image> specification, Pageable pageable, List<Integer> matchedTagsIds) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(findIds(specification, pageable, matchedTagsIds, Integer.MAX_VALUE), pageable, false);
+        }
+        List<Integer> ids = findIds(specification, pageable, matchedTagsIds, pageable.getPageSize() + 1);
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hasNext);
+    }
+
+    public long count(Specification<Image> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Image> root = query.from(Image.class);
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(criteriaBuilder.countDistinct(root));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    public Map<Integer, Long> countByTag(Specification<Image> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Image> root = query.from(Image.class);
+        Join<Image, Tag> tags = root.join("tags");
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(tags.get("id"), criteriaBuilder.count(root))
+                .groupBy(tags.get("id"));
+
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            counts.put(tuple.get(0, Integer.class), tuple.get(1, Long.class));
+        }
+        return counts;
+    }
+
+    // one row per content type: its image count followed by the number of images below each size bound
+    public Map<String, long[]> countByContentTypeAndSize(Specification<Image> specification, int[] sizeBounds) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Image> root = query.from(Image.class);
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        Expression<Integer> size = root.get("size");
+        List<Selection<?>> selections = new ArrayList<>(sizeBounds.length + 3);
+        selections.add(root.get("contentType"));
+        selections.add(criteriaBuilder.count(root));
+        selections.add(criteriaBuilder.count(size));
+        for (int sizeBound : sizeBounds) {
+            selections.add(criteriaBuilder.sum(criteriaBuilder.<Long>selectCase()
+                    .when(criteriaBuilder.lessThan(size, sizeBound), 1L)
+                    .otherwise(0L)));
+        }
+        query.multiselect(selections)
+                .groupBy(root.get("contentType"));
+
+        Map<String, long[]> counts = new HashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            long[] row = new long[sizeBounds.length + 2];
+            for (int i = 0; i < row.length; i++) {
+                Number value = (Number) tuple.get(i + 1);
+                row[i] = value != null ? value.longValue() : 0;
+            }
+            counts.put(tuple.get(0, String.class), row);
+        }
+        return counts;
+    }
+
+    public Stream<Image> stream(Specification<Image> specification, int fetchSize) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Image> query = criteriaBuilder.createQuery(Image.class);
+        Root<Image> root = query.from(Image.class);
+        root.fetch("account");
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root)
+                .orderBy(criteriaBuilder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    public List<ImageKey> findKeysAfter(Specification<Image> specification, ImageKey after, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ImageKey> query = criteriaBuilder.createQuery(ImageKey.class);
+        Root<Image> root = query.from(Image.class);
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (after != null) {
+            // newest first, so the next page continues below the last (created_on, id) pair of the previous one
+            Predicate keyset = criteriaBuilder.or(
+                    criteriaBuilder.lessThan(root.get("createdOn"), after.getCreatedOn()),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(root.get("createdOn"), after.getCreatedOn()),
+                            criteriaBuilder.lessThan(root.get("id"), after.getId())));
+            predicate = predicate != null ? criteriaBuilder.and(predicate, keyset) : keyset;
+        }
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.select(criteriaBuilder.construct(ImageKey.class, root.get("id"), root.get("createdOn")))
+                .distinct(true)
+                .orderBy(criteriaBuilder.desc(root.get("createdOn")), criteriaBuilder.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private List<Integer> findIds(
+            Specification<Image> specification,
+            Pageable pageable,
+            List<Integer> matchedTagsIds,
+            int limit
+    ) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Image> root = query.from(Image.class);
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        // the id breaks ties so that rows with equal sort values keep their page across requests
+        Sort sort = pageable.getSort().getOrderFor("id") != null
+                ? pageable.getSort()
+                : pageable.getSort().and(Sort.by("id"));
+
+        Expression<Long> matchedTags = null;
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!MATCHED_TAGS.equals(order.getProperty())) {
+                orders.addAll(QueryUtils.toOrders(Sort.by(order), root, criteriaBuilder));
+                continue;
+            }
+            if (matchedTagsIds == null || matchedTagsIds.isEmpty()) {
+                throw new InvalidSearchException("Sorting by matchedTags requires tagsIds");
+            }
+            if (matchedTags == null) {
+                Join<Image, Tag> tags = root.join("tags", JoinType.LEFT);
+                tags.on(tags.get("id").in(matchedTagsIds));
+                matchedTags = criteriaBuilder.countDistinct(tags.get("id"));
+            }
+            orders.add(order.isAscending() ? criteriaBuilder.asc(matchedTags) : criteriaBuilder.desc(matchedTags));
+        }
+
+        // distinct needs every ordered expression in the select list
+        List<Selection<?>> selections = new ArrayList<>(orders.size() + 1);
+        List<Expression<?>> grouping = new ArrayList<>(orders.size() + 1);
+        selections.add(root.get("id"));
+        grouping.add(root.get("id"));
+        for (Order order : orders) {
+            selections.add(order.getExpression());
+            if (order.getExpression() != matchedTags) {
+                grouping.add(order.getExpression());
+            }
+        }
+        query.multiselect(selections)
+                .distinct(true)
+                .orderBy(orders);
+        if (matchedTags != null) {
+            query.groupBy(grouping);
+        }
+
+        return entityManager.createQuery(query)
+                .setFirstResult(pageable.isPaged() ? Math.toIntExact(pageable.getOffset()) : 0)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> tuple.get(0, Integer.class))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,11 @@
+package com.project.imageservice.dao;
+
+public interface ImageText {
+
+    Integer getId();
+
+    String getOriginalName();
+
+    String getCameraModel();
+
+}
@@ -0,0 +1,32 @@
+package com.project.imageservice.dao;
+
+import com.project.imageservice.domain.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    @Query("from UploadSession s where s.account.id = :accountId and s.id = :uploadId")
+    Optional<UploadSession> findByIdAndAccountId(Integer accountId, String uploadId);
+
+    @Query("update UploadSession s set s.committedOffset = :newOffset, s.contentType = :contentType, " +
+            "s.updatedOn = :now where s.id = :uploadId and s.committedOffset = :expectedOffset")
+    @Modifying
+    int advanceOffset(String uploadId, long expectedOffset, long newOffset, String contentType, LocalDateTime now);
+
+    @Query("delete from UploadSession s where s.id = :uploadId and s.committedOffset = s.totalSize")
+    @Modifying
+    int deleteCompleted(String uploadId);
+
+    @Query("delete from UploadSession s where s.id = :uploadId")
+    @Modifying
+    int deleteByUploadId(String uploadId);
+
+    @Query("select s.id from UploadSession s where s.updatedOn < :before")
+    List<String> findIdsUpdatedBefore(LocalDateTime before);
+}
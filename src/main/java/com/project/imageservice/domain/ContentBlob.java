@@ -0,0 +1,33 @@
+package com.project.imageservice.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "content_blobs")
+public class ContentBlob {
+
+    @Id
+    @Column(name = "content_hash")
+    private String contentHash;
+
+    @Column(name = "size")
+    private Long size;
+
+    @Column(name = "ref_count")
+    private Integer refCount;
+
+    @Column(name = "created_on")
+    private LocalDateTime createdOn;
+
+    @Column(name = "updated_on")
+    private LocalDateTime updatedOn;
+
+}
@@ -32,6 +32,42 @@ public class Image {
     @Column(name = "size")
     private Integer size;
 
+    @Column(name = "content_hash")
+    private String contentHash;
+
+    @Column(name = "thumbnail_available")
+    private Boolean thumbnailAvailable;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "orientation")
+    private Integer orientation;
+
+    @Column(name = "captured_on")
+    private LocalDateTime capturedOn;
+
+    @Column(name = "camera_model")
+    private String cameraModel;
+
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    @Column(name = "perceptual_hash")
+    private Long perceptualHash;
+
+    @Column(name = "visual_features")
+    private byte[] visualFeatures;
+
+    @Column(name = "placeholder")
+    private String placeholder;
+
     @Column(name = "created_on")
     private LocalDateTime createdOn;
 
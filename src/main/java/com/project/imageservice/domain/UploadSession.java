@@ -0,0 +1,46 @@
+package com.project.imageservice.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "upload_sessions")
+public class UploadSession {
+
+    @Id
+    @Column(name = "id")
+    private String id;
+
+    @Column(name = "original_name")
+    private String originalName;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "tags_ids")
+    private String tagsIds;
+
+    @Column(name = "total_size")
+    private Long totalSize;
+
+    @Column(name = "committed_offset")
+    private Long committedOffset;
+
+    @Column(name = "created_on")
+    private LocalDateTime createdOn;
+
+    @Column(name = "updated_on")
+    private LocalDateTime updatedOn;
+
+    @ManyToOne
+    @JoinColumn(name = "account_id")
+    private Account account;
+
+}
@@ -0,0 +1,17 @@
+package com.project.imageservice.dto.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageCursorPageDto {
+
+    private List<ImageDto> content;
+    private String nextCursor;
+
+}
@@ -17,6 +17,16 @@ public class ImageDto {
     private String originalName;
     private String contentType;
     private Integer size;
+    private String contentHash;
+    private Boolean thumbnailAvailable;
+    private String placeholder;
+    private Integer width;
+    private Integer height;
+    private Integer orientation;
+    private LocalDateTime capturedOn;
+    private String cameraModel;
+    private Double latitude;
+    private Double longitude;
     private LocalDateTime createdOn;
     private LocalDateTime updatedOn;
     private Integer accountId;
@@ -0,0 +1,22 @@
+package com.project.imageservice.dto.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageFacetedPageDto {
+
+    private List<ImageDto> content;
+    private int number;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private Map<String, Map<String, Long>> facets;
+
+}
@@ -0,0 +1,51 @@
+package com.project.imageservice.dto.image;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImageSearchFilter {
+
+    private Integer accountId;
+    private String originalName;
+    private String nameContains;
+    private String namePrefix;
+    private String text;
+    private String contentType;
+    private Integer fileSize;
+    private Integer minSize;
+    private Integer maxSize;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedTo;
+    private List<Integer> tagsIds;
+    private String tagMatch;
+    private List<Integer> allTags;
+    private List<Integer> anyTags;
+    private List<Integer> notTags;
+    private Integer minWidth;
+    private Integer maxWidth;
+    private Integer minHeight;
+    private Integer maxHeight;
+    private Integer orientation;
+    private String cameraModel;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime capturedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime capturedTo;
+    private Double minLatitude;
+    private Double maxLatitude;
+    private Double minLongitude;
+    private Double maxLongitude;
+
+}
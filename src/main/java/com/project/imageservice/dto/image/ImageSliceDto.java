@@ -0,0 +1,20 @@
+package com.project.imageservice.dto.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageSliceDto {
+
+    private List<ImageDto> content;
+    private int number;
+    private int size;
+    private boolean hasNext;
+    private Long approximateTotal;
+
+}
@@ -0,0 +1,17 @@
+package com.project.imageservice.dto.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TilePyramidDto {
+
+    private Integer width;
+    private Integer height;
+    private Integer tileSize;
+    private Integer levels;
+
+}
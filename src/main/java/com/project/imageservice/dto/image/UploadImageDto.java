@@ -0,0 +1,20 @@
+package com.project.imageservice.dto.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadImageDto {
+
+    private String originalName;
+
+    private String contentType;
+
+    private List<Integer> tagsIds;
+
+}
@@ -0,0 +1,17 @@
+package com.project.imageservice.dto.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadResultDto {
+
+    private String originalName;
+    private UploadStatus status;
+    private ImageDto image;
+    private String error;
+
+}
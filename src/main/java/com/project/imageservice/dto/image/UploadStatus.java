@@ -0,0 +1,6 @@
+package com.project.imageservice.dto.image;
+
+public enum UploadStatus {
+    CREATED,
+    FAILED
+}
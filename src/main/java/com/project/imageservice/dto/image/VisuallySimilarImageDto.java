@@ -0,0 +1,15 @@
+package com.project.imageservice.dto.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisuallySimilarImageDto {
+
+    private ImageDto image;
+    private Float distance;
+
+}
@@ -0,0 +1,30 @@
+package com.project.imageservice.dto.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateUploadSessionDto {
+
+    @NotBlank
+    private String originalName;
+
+    @NotBlank
+    private String contentType;
+
+    @NotNull
+    @Min(value = 0)
+    private Long size;
+
+    @NotNull
+    private List<Integer> tagsIds;
+
+}
@@ -0,0 +1,25 @@
+package com.project.imageservice.dto.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDto {
+
+    private String id;
+    private String originalName;
+    private String contentType;
+    private Long size;
+    private Long offset;
+    private List<Integer> tagsIds;
+    private LocalDateTime createdOn;
+    private LocalDateTime updatedOn;
+    private Integer accountId;
+
+}
@@ -2,6 +2,9 @@ package com.project.imageservice.exception;
 
 import com.project.imageservice.exception.type.AccountAlreadyExistException;
 import com.project.imageservice.exception.type.EntityNotFoundException;
+import com.project.imageservice.exception.type.StorageException;
+import com.project.imageservice.exception.type.UnsupportedImageFormatException;
+import com.project.imageservice.exception.type.UploadConflictException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -27,6 +30,33 @@ public class MyExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(value = UploadConflictException.class)
+    public ResponseEntity<ErrorResponse> handleException(UploadConflictException exception) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                exception.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(value = UnsupportedImageFormatException.class)
+    public ResponseEntity<ErrorResponse> handleException(UnsupportedImageFormatException exception) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(),
+                exception.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    @ExceptionHandler(value = StorageException.class)
+    public ResponseEntity<ErrorResponse> handleException(StorageException exception) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                exception.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     @ExceptionHandler(value = Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception exception) {
         ErrorResponse errorResponse = new ErrorResponse(
@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class ImageContentNotFoundException extends EntityNotFoundException {
+
+    public ImageContentNotFoundException(Integer imageId, Integer accountId) {
+        super(String.format("Did not find content of the Image id - %s by Account id - %s", imageId, accountId));
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class InvalidRenditionException extends RuntimeException {
+
+    public InvalidRenditionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class InvalidSearchException extends RuntimeException {
+
+    public InvalidSearchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class PerceptualHashNotFoundException extends EntityNotFoundException {
+
+    public PerceptualHashNotFoundException(Integer imageId) {
+        super(String.format("Perceptual hash of the Image id - %s is not computed yet", imageId));
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class ThumbnailNotFoundException extends EntityNotFoundException {
+
+    public ThumbnailNotFoundException(Integer imageId, Integer accountId) {
+        super(String.format("Did not find thumbnail of the Image id - %s by Account id - %s", imageId, accountId));
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class TileNotFoundException extends EntityNotFoundException {
+
+    public TileNotFoundException(Integer imageId, Integer accountId) {
+        super(String.format("Did not find tiles of the Image id - %s by Account id - %s", imageId, accountId));
+    }
+}
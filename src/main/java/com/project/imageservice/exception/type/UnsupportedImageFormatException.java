@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class UnsupportedImageFormatException extends RuntimeException {
+
+    public UnsupportedImageFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class UploadConflictException extends RuntimeException {
+
+    public UploadConflictException(String message) {
+        super(message);
+    }
+}
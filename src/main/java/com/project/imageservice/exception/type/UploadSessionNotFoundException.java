@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class UploadSessionNotFoundException extends EntityNotFoundException {
+
+    public UploadSessionNotFoundException(String uploadId, Integer accountId) {
+        super(String.format("Did not find the Upload id - %s by Account id - %s", uploadId, accountId));
+    }
+}
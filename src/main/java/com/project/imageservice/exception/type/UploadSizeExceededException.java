@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class UploadSizeExceededException extends RuntimeException {
+
+    public UploadSizeExceededException(String uploadId, long size) {
+        super(String.format("Upload %s exceeds the declared size of %s bytes", uploadId, size));
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.imageservice.exception.type;
+
+public class VisualFeaturesNotFoundException extends EntityNotFoundException {
+
+    public VisualFeaturesNotFoundException(Integer imageId) {
+        super(String.format("Visual features of the Image id - %s are not computed yet", imageId));
+    }
+}
@@ -1,6 +1,7 @@
 package com.project.imageservice.mapper;
 
 import com.project.imageservice.domain.Image;
+import com.project.imageservice.domain.Tag;
 import com.project.imageservice.dto.image.ImageDto;
 import com.project.imageservice.dto.tag.TagDto;
 import org.springframework.stereotype.Component;
@@ -12,15 +13,29 @@ import java.util.stream.Collectors;
 public class ImageMapper {
 
     public ImageDto mapToDo(Image image) {
+        return mapToDo(image, image.getTags());
+    }
+
+    public ImageDto mapToDo(Image image, List<Tag> imageTags) {
         ImageDto imageDto = new ImageDto();
         imageDto.setId(image.getId());
         imageDto.setOriginalName(image.getOriginalName());
         imageDto.setContentType(image.getContentType());
         imageDto.setSize(image.getSize());
+        imageDto.setContentHash(image.getContentHash());
+        imageDto.setThumbnailAvailable(Boolean.TRUE.equals(image.getThumbnailAvailable()));
+        imageDto.setPlaceholder(image.getPlaceholder());
+        imageDto.setWidth(image.getWidth());
+        imageDto.setHeight(image.getHeight());
+        imageDto.setOrientation(image.getOrientation());
+        imageDto.setCapturedOn(image.getCapturedOn());
+        imageDto.setCameraModel(image.getCameraModel());
+        imageDto.setLatitude(image.getLatitude());
+        imageDto.setLongitude(image.getLongitude());
         imageDto.setCreatedOn(image.getCreatedOn());
         imageDto.setUpdatedOn(image.getUpdatedOn());
         imageDto.setAccountId(image.getAccount().getId());
-        List<TagDto> tags = image.getTags()
+        List<TagDto> tags = imageTags
                 .stream()
                 .map(t -> {
                     TagDto tagDto = new TagDto();
@@ -0,0 +1,42 @@
+package com.project.imageservice.mapper;
+
+import com.project.imageservice.domain.UploadSession;
+import com.project.imageservice.dto.upload.UploadSessionDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class UploadSessionMapper {
+
+    public UploadSessionDto mapToDto(UploadSession uploadSession) {
+        UploadSessionDto uploadSessionDto = new UploadSessionDto();
+        uploadSessionDto.setId(uploadSession.getId());
+        uploadSessionDto.setOriginalName(uploadSession.getOriginalName());
+        uploadSessionDto.setContentType(uploadSession.getContentType());
+        uploadSessionDto.setSize(uploadSession.getTotalSize());
+        uploadSessionDto.setOffset(uploadSession.getCommittedOffset());
+        uploadSessionDto.setTagsIds(toTagsIds(uploadSession.getTagsIds()));
+        uploadSessionDto.setCreatedOn(uploadSession.getCreatedOn());
+        uploadSessionDto.setUpdatedOn(uploadSession.getUpdatedOn());
+        uploadSessionDto.setAccountId(uploadSession.getAccount().getId());
+        return uploadSessionDto;
+    }
+
+    public String toColumn(List<Integer> tagsIds) {
+        return tagsIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    public List<Integer> toTagsIds(String column) {
+        if (column == null || column.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(column.split(","))
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+    }
+}
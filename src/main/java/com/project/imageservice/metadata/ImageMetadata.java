@@ -0,0 +1,18 @@
+package com.project.imageservice.metadata;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ImageMetadata {
+
+    private Integer width;
+    private Integer height;
+    private Integer orientation;
+    private LocalDateTime capturedOn;
+    private String cameraModel;
+    private Double latitude;
+    private Double longitude;
+
+}
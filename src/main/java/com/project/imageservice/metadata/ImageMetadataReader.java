@@ -0,0 +1,358 @@
+package com.project.imageservice.metadata;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+@Slf4j
+@Component
+public class ImageMetadataReader {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final long MAX_HEADER_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_EXIF_BYTES = 64 * 1024;
+
+    private static final int JPEG_SOF0 = 0xC0;
+    private static final int JPEG_SOF15 = 0xCF;
+    private static final int JPEG_DHT = 0xC4;
+    private static final int JPEG_JPG = 0xC8;
+    private static final int JPEG_DAC = 0xCC;
+    private static final int JPEG_SOI = 0xD8;
+    private static final int JPEG_EOI = 0xD9;
+    private static final int JPEG_SOS = 0xDA;
+    private static final int JPEG_APP1 = 0xE1;
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final int TAG_MODEL = 0x0110;
+    private static final int TAG_ORIENTATION = 0x0112;
+    private static final int TAG_DATE_TIME = 0x0132;
+    private static final int TAG_EXIF_IFD = 0x8769;
+    private static final int TAG_GPS_IFD = 0x8825;
+    private static final int TAG_DATE_TIME_ORIGINAL = 0x9003;
+    private static final int TAG_GPS_LATITUDE_REF = 0x0001;
+    private static final int TAG_GPS_LATITUDE = 0x0002;
+    private static final int TAG_GPS_LONGITUDE_REF = 0x0003;
+    private static final int TAG_GPS_LONGITUDE = 0x0004;
+
+    private static final int TYPE_SHORT = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int[] TYPE_SIZES = {0, 1, 1, 2, 4, 8, 1, 1, 2, 4, 8, 4, 8};
+
+    private static final DateTimeFormatter EXIF_DATE_TIME = DateTimeFormatter.ofPattern("yyyy:MM:dd HH:mm:ss");
+
+    public ImageMetadata read(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        } catch (IOException e) {
+            log.debug("Could not open {} to read metadata", path, e);
+            return new ImageMetadata();
+        }
+    }
+
+    public ImageMetadata read(InputStream in) {
+        ImageMetadata metadata = new ImageMetadata();
+        HeaderInput input = new HeaderInput(new BufferedInputStream(in, BUFFER_SIZE));
+        try {
+            int first = input.readUnsignedByte();
+            int second = input.readUnsignedByte();
+            if (first == 0xFF && second == JPEG_SOI) {
+                readJpeg(input, metadata);
+            } else if (first == (PNG_SIGNATURE[0] & 0xFF) && second == PNG_SIGNATURE[1]) {
+                readPng(input, metadata);
+            } else if (first == 'G' && second == 'I') {
+                readGif(input, metadata);
+            }
+        } catch (IOException | RuntimeException e) {
+            // whatever was parsed before the malformed part is still worth keeping
+            log.debug("Stopped reading malformed image metadata", e);
+        }
+        return metadata;
+    }
+
+    private void readJpeg(HeaderInput input, ImageMetadata metadata) throws IOException {
+        while (true) {
+            if (input.readUnsignedByte() != 0xFF) {
+                throw new IOException("Expected a JPEG marker");
+            }
+            int marker = input.readUnsignedByte();
+            while (marker == 0xFF) {
+                marker = input.readUnsignedByte();
+            }
+            if (marker == JPEG_SOS || marker == JPEG_EOI) {
+                // entropy-coded pixel data follows, every metadata segment has been seen
+                return;
+            }
+            if (marker == JPEG_SOI || marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                continue;
+            }
+
+            int length = input.readUnsignedShort() - 2;
+            if (length < 0) {
+                throw new IOException("Invalid JPEG segment length");
+            }
+            if (marker == JPEG_APP1 && length > EXIF_HEADER.length) {
+                byte[] segment = input.readFully(length);
+                if (startsWith(segment, EXIF_HEADER)) {
+                    readTiff(ByteBuffer.wrap(segment, EXIF_HEADER.length, length - EXIF_HEADER.length).slice(), metadata);
+                }
+            } else if (isStartOfFrame(marker) && length >= 5) {
+                input.skip(1);
+                metadata.setHeight(input.readUnsignedShort());
+                metadata.setWidth(input.readUnsignedShort());
+                input.skip(length - 5);
+            } else {
+                input.skip(length);
+            }
+        }
+    }
+
+    private void readPng(HeaderInput input, ImageMetadata metadata) throws IOException {
+        byte[] signature = input.readFully(PNG_SIGNATURE.length - 2);
+        for (int i = 0; i < signature.length; i++) {
+            if (signature[i] != PNG_SIGNATURE[i + 2]) {
+                return;
+            }
+        }
+
+        while (true) {
+            long length = input.readInt() & 0xFFFFFFFFL;
+            String type = new String(input.readFully(4), StandardCharsets.US_ASCII);
+            if ("IDAT".equals(type) || "IEND".equals(type)) {
+                return;
+            }
+            if ("IHDR".equals(type) && length >= 8) {
+                metadata.setWidth(input.readInt());
+                metadata.setHeight(input.readInt());
+                input.skip(length - 8 + 4);
+            } else if ("eXIf".equals(type) && length <= MAX_EXIF_BYTES) {
+                byte[] chunk = input.readFully((int) length);
+                readTiff(ByteBuffer.wrap(chunk), metadata);
+                input.skip(4);
+            } else {
+                input.skip(length + 4);
+            }
+        }
+    }
+
+    private void readGif(HeaderInput input, ImageMetadata metadata) throws IOException {
+        byte[] header = input.readFully(8);
+        if (header[0] != 'F' || header[1] != '8') {
+            return;
+        }
+        metadata.setWidth((header[4] & 0xFF) | (header[5] & 0xFF) << 8);
+        metadata.setHeight((header[6] & 0xFF) | (header[7] & 0xFF) << 8);
+    }
+
+    private void readTiff(ByteBuffer tiff, ImageMetadata metadata) {
+        if (tiff.remaining() < 8) {
+            return;
+        }
+        byte order = tiff.get(0);
+        tiff.order(order == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        if (order != tiff.get(1) || unsignedShort(tiff, 2) != 42) {
+            return;
+        }
+
+        try {
+            int ifd0 = tiff.getInt(4);
+            long exifIfd = -1;
+            long gpsIfd = -1;
+            String dateTime = null;
+            int entries = unsignedShort(tiff, ifd0);
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd0 + 2 + i * 12;
+                switch (unsignedShort(tiff, entry)) {
+                    case TAG_MODEL -> metadata.setCameraModel(ascii(tiff, entry));
+                    case TAG_ORIENTATION -> metadata.setOrientation((int) unsigned(tiff, entry));
+                    case TAG_DATE_TIME -> dateTime = ascii(tiff, entry);
+                    case TAG_EXIF_IFD -> exifIfd = unsigned(tiff, entry);
+                    case TAG_GPS_IFD -> gpsIfd = unsigned(tiff, entry);
+                    default -> {
+                    }
+                }
+            }
+
+            String dateTimeOriginal = exifIfd > 0 ? readDateTimeOriginal(tiff, (int) exifIfd) : null;
+            metadata.setCapturedOn(parseDateTime(dateTimeOriginal != null ? dateTimeOriginal : dateTime));
+            if (gpsIfd > 0) {
+                readGps(tiff, (int) gpsIfd, metadata);
+            }
+        } catch (IndexOutOfBoundsException e) {
+            log.debug("Truncated EXIF directory", e);
+        }
+    }
+
+    private String readDateTimeOriginal(ByteBuffer tiff, int ifd) {
+        int entries = unsignedShort(tiff, ifd);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (unsignedShort(tiff, entry) == TAG_DATE_TIME_ORIGINAL) {
+                return ascii(tiff, entry);
+            }
+        }
+        return null;
+    }
+
+    private void readGps(ByteBuffer tiff, int ifd, ImageMetadata metadata) {
+        String latitudeRef = null;
+        String longitudeRef = null;
+        Double latitude = null;
+        Double longitude = null;
+        int entries = unsignedShort(tiff, ifd);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            switch (unsignedShort(tiff, entry)) {
+                case TAG_GPS_LATITUDE_REF -> latitudeRef = ascii(tiff, entry);
+                case TAG_GPS_LATITUDE -> latitude = degrees(tiff, entry);
+                case TAG_GPS_LONGITUDE_REF -> longitudeRef = ascii(tiff, entry);
+                case TAG_GPS_LONGITUDE -> longitude = degrees(tiff, entry);
+                default -> {
+                }
+            }
+        }
+
+        if (latitude == null || longitude == null || latitude > 90 || longitude > 180) {
+            return;
+        }
+        metadata.setLatitude("S".equals(latitudeRef) ? -latitude : latitude);
+        metadata.setLongitude("W".equals(longitudeRef) ? -longitude : longitude);
+    }
+
+    private Double degrees(ByteBuffer tiff, int entry) {
+        if (tiff.getInt(entry + 4) != 3) {
+            return null;
+        }
+        int offset = tiff.getInt(entry + 8);
+        double degrees = 0;
+        double unit = 1;
+        for (int i = 0; i < 3; i++) {
+            long numerator = tiff.getInt(offset + i * 8) & 0xFFFFFFFFL;
+            long denominator = tiff.getInt(offset + i * 8 + 4) & 0xFFFFFFFFL;
+            if (denominator == 0) {
+                return null;
+            }
+            degrees += (double) numerator / denominator / unit;
+            unit *= 60;
+        }
+        return degrees;
+    }
+
+    private long unsigned(ByteBuffer tiff, int entry) {
+        int type = unsignedShort(tiff, entry + 2);
+        if (type == TYPE_SHORT) {
+            return unsignedShort(tiff, entry + 8);
+        }
+        if (type == TYPE_LONG) {
+            return tiff.getInt(entry + 8) & 0xFFFFFFFFL;
+        }
+        return -1;
+    }
+
+    private String ascii(ByteBuffer tiff, int entry) {
+        int type = unsignedShort(tiff, entry + 2);
+        int count = tiff.getInt(entry + 4);
+        if (type >= TYPE_SIZES.length || TYPE_SIZES[type] != 1 || count <= 0 || count > tiff.limit()) {
+            return null;
+        }
+        int offset = count <= 4 ? entry + 8 : tiff.getInt(entry + 8);
+        byte[] bytes = new byte[count];
+        for (int i = 0; i < count; i++) {
+            bytes[i] = tiff.get(offset + i);
+        }
+        String value = new String(bytes, StandardCharsets.US_ASCII).replace("\0", "").trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private LocalDateTime parseDateTime(String value) {
+        if (value == null || value.length() < 19) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.substring(0, 19), EXIF_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static int unsignedShort(ByteBuffer buffer, int index) {
+        return buffer.getShort(index) & 0xFFFF;
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        return marker >= JPEG_SOF0 && marker <= JPEG_SOF15
+                && marker != JPEG_DHT && marker != JPEG_JPG && marker != JPEG_DAC;
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class HeaderInput {
+
+        private final InputStream in;
+        private long consumed;
+
+        HeaderInput(InputStream in) {
+            this.in = in;
+        }
+
+        int readUnsignedByte() throws IOException {
+            count(1);
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            return b;
+        }
+
+        int readUnsignedShort() throws IOException {
+            return readUnsignedByte() << 8 | readUnsignedByte();
+        }
+
+        int readInt() throws IOException {
+            return readUnsignedShort() << 16 | readUnsignedShort();
+        }
+
+        byte[] readFully(int length) throws IOException {
+            count(length);
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException();
+            }
+            return bytes;
+        }
+
+        void skip(long length) throws IOException {
+            count(length);
+            in.skipNBytes(length);
+        }
+
+        private void count(long length) throws IOException {
+            consumed += length;
+            if (consumed > MAX_HEADER_BYTES) {
+                throw new IOException("Metadata segments exceed " + MAX_HEADER_BYTES + " bytes");
+            }
+        }
+    }
+}
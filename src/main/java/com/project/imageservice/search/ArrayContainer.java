@@ -0,0 +1,158 @@
+package com.project.imageservice.search;
+
+import java.util.Arrays;
+
+final class ArrayContainer extends Container {
+
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer() {
+        this.values = new char[4];
+    }
+
+    ArrayContainer(char[] values, int cardinality) {
+        this.values = values;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    Container add(char value) {
+        int index = Arrays.binarySearch(values, 0, cardinality, value);
+        if (index >= 0) {
+            return this;
+        }
+        if (cardinality == MAX_ARRAY_SIZE) {
+            return toBitmap().add(value);
+        }
+        int insertion = -index - 1;
+        if (cardinality == values.length) {
+            values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, values.length * 2)));
+        }
+        System.arraycopy(values, insertion, values, insertion + 1, cardinality - insertion);
+        values[insertion] = value;
+        cardinality++;
+        return this;
+    }
+
+    @Override
+    Container remove(char value) {
+        int index = Arrays.binarySearch(values, 0, cardinality, value);
+        if (index < 0) {
+            return this;
+        }
+        System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+        cardinality--;
+        return this;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    int runCount() {
+        int runs = cardinality > 0 ? 1 : 0;
+        for (int i = 1; i < cardinality; i++) {
+            if (values[i] != values[i - 1] + 1) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    @Override
+    int fill(int[] out, int offset, int high) {
+        for (int i = 0; i < cardinality; i++) {
+            out[offset++] = high | values[i];
+        }
+        return offset;
+    }
+
+    @Override
+    BitmapContainer toBitmap() {
+        long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < cardinality; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        return new BitmapContainer(words, cardinality);
+    }
+
+    @Override
+    ArrayContainer toArray() {
+        return this;
+    }
+
+    @Override
+    Container copy() {
+        return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 4)), cardinality);
+    }
+
+    @Override
+    Container and(Container other) {
+        char[] result = new char[cardinality];
+        int size = 0;
+        for (int i = 0; i < cardinality; i++) {
+            if (other.contains(values[i])) {
+                result[size++] = values[i];
+            }
+        }
+        return new ArrayContainer(result, size);
+    }
+
+    @Override
+    Container andNot(Container other) {
+        char[] result = new char[cardinality];
+        int size = 0;
+        for (int i = 0; i < cardinality; i++) {
+            if (!other.contains(values[i])) {
+                result[size++] = values[i];
+            }
+        }
+        return new ArrayContainer(result, size);
+    }
+
+    @Override
+    Container or(Container other) {
+        if (!(other instanceof ArrayContainer)) {
+            return super.or(other);
+        }
+        ArrayContainer array = (ArrayContainer) other;
+        if (cardinality + array.cardinality > MAX_ARRAY_SIZE) {
+            return super.or(other);
+        }
+
+        char[] result = new char[cardinality + array.cardinality];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < cardinality && j < array.cardinality) {
+            char a = values[i];
+            char b = array.values[j];
+            if (a == b) {
+                result[size++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                result[size++] = a;
+                i++;
+            } else {
+                result[size++] = b;
+                j++;
+            }
+        }
+        while (i < cardinality) {
+            result[size++] = values[i++];
+        }
+        while (j < array.cardinality) {
+            result[size++] = array.values[j++];
+        }
+        return new ArrayContainer(result, size);
+    }
+}
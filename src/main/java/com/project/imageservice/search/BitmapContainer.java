@@ -0,0 +1,123 @@
+package com.project.imageservice.search;
+
+final class BitmapContainer extends Container {
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer(long[] words, int cardinality) {
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    Container add(char value) {
+        long mask = 1L << value;
+        if ((words[value >>> 6] & mask) == 0) {
+            words[value >>> 6] |= mask;
+            cardinality++;
+        }
+        return this;
+    }
+
+    @Override
+    Container remove(char value) {
+        long mask = 1L << value;
+        if ((words[value >>> 6] & mask) != 0) {
+            words[value >>> 6] &= ~mask;
+            cardinality--;
+        }
+        return cardinality <= MAX_ARRAY_SIZE ? toArray() : this;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    int runCount() {
+        int runs = 0;
+        long previousHighBit = 0;
+        for (long word : words) {
+            // a run starts at every set bit whose lower neighbour is clear
+            runs += Long.bitCount(word & ~((word << 1) | previousHighBit));
+            previousHighBit = word >>> 63;
+        }
+        return runs;
+    }
+
+    @Override
+    int fill(int[] out, int offset, int high) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                out[offset++] = high | (i << 6) | Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return offset;
+    }
+
+    @Override
+    BitmapContainer toBitmap() {
+        return this;
+    }
+
+    @Override
+    ArrayContainer toArray() {
+        char[] values = new char[cardinality];
+        int size = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                values[size++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return new ArrayContainer(values, size);
+    }
+
+    @Override
+    Container copy() {
+        return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    Container orBitmap(BitmapContainer other) {
+        long[] result = new long[BITMAP_WORDS];
+        int size = 0;
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            result[i] = words[i] | other.words[i];
+            size += Long.bitCount(result[i]);
+        }
+        BitmapContainer bitmap = new BitmapContainer(result, size);
+        return size <= MAX_ARRAY_SIZE ? bitmap.toArray() : bitmap;
+    }
+
+    Container andBitmap(BitmapContainer other) {
+        long[] result = new long[BITMAP_WORDS];
+        int size = 0;
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            result[i] = words[i] & other.words[i];
+            size += Long.bitCount(result[i]);
+        }
+        BitmapContainer bitmap = new BitmapContainer(result, size);
+        return size <= MAX_ARRAY_SIZE ? bitmap.toArray() : bitmap;
+    }
+
+    Container andNotBitmap(BitmapContainer other) {
+        long[] result = new long[BITMAP_WORDS];
+        int size = 0;
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            result[i] = words[i] & ~other.words[i];
+            size += Long.bitCount(result[i]);
+        }
+        BitmapContainer bitmap = new BitmapContainer(result, size);
+        return size <= MAX_ARRAY_SIZE ? bitmap.toArray() : bitmap;
+    }
+}
@@ -0,0 +1,52 @@
+package com.project.imageservice.search;
+
+abstract class Container {
+
+    static final int MAX_ARRAY_SIZE = 4096;
+    static final int BITMAP_WORDS = 1 << 10;
+    static final int BITMAP_BYTES = BITMAP_WORDS * Long.BYTES;
+
+    abstract Container add(char value);
+
+    abstract Container remove(char value);
+
+    abstract boolean contains(char value);
+
+    abstract int cardinality();
+
+    abstract int runCount();
+
+    abstract int fill(int[] out, int offset, int high);
+
+    abstract BitmapContainer toBitmap();
+
+    abstract ArrayContainer toArray();
+
+    abstract Container copy();
+
+    Container and(Container other) {
+        if (other instanceof ArrayContainer) {
+            return other.and(this);
+        }
+        return toBitmap().andBitmap(other.toBitmap());
+    }
+
+    Container or(Container other) {
+        return toBitmap().orBitmap(other.toBitmap());
+    }
+
+    Container andNot(Container other) {
+        return toBitmap().andNotBitmap(other.toBitmap());
+    }
+
+    Container optimize() {
+        int cardinality = cardinality();
+        int runCount = runCount();
+        int arrayBytes = cardinality * Character.BYTES;
+        int runBytes = runCount * 2 * Character.BYTES;
+        if (runBytes < arrayBytes && runBytes < BITMAP_BYTES) {
+            return this instanceof RunContainer ? this : RunContainer.of(this, runCount);
+        }
+        return cardinality <= MAX_ARRAY_SIZE ? toArray() : toBitmap();
+    }
+}
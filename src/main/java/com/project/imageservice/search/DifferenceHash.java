@@ -0,0 +1,38 @@
+package com.project.imageservice.search;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+
+public final class DifferenceHash {
+
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+
+    private DifferenceHash() {
+    }
+
+    public static long compute(BufferedImage image) {
+        BufferedImage gray = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = gray.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, WIDTH, HEIGHT, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Raster raster = gray.getRaster();
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                hash <<= 1;
+                if (raster.getSample(x, y, 0) < raster.getSample(x + 1, y, 0)) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+}
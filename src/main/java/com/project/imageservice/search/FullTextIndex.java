@@ -0,0 +1,292 @@
+package com.project.imageservice.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class FullTextIndex {
+
+    public static final int MAX_TERM_LENGTH = 64;
+
+    private static final int MAGIC = 0x424d3235;
+    private static final int FORMAT_VERSION = 1;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_COMPACTION_DELETES = 1024;
+    private static final int DELETED = -1;
+    private static final int[] NO_IDS = new int[0];
+
+    private Map<String, PostingList> postings = new HashMap<>();
+    private Map<Integer, Integer> docs = new HashMap<>();
+    private int[] imageIds = new int[16];
+    private int[] lengths = new int[16];
+    private int maxDoc;
+    private int deleted;
+    private long totalLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // an update appends a new doc and tombstones the old one, so postings only ever grow at the tail
+    public void put(int imageId, String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            delete(imageId);
+            if (!tokens.isEmpty()) {
+                int doc = maxDoc++;
+                if (doc == imageIds.length) {
+                    imageIds = Arrays.copyOf(imageIds, doc * 2);
+                    lengths = Arrays.copyOf(lengths, doc * 2);
+                }
+                imageIds[doc] = imageId;
+                lengths[doc] = tokens.size();
+                docs.put(imageId, doc);
+                totalLength += tokens.size();
+                frequencies.forEach((term, frequency) ->
+                        postings.computeIfAbsent(term, t -> new PostingList()).add(doc, frequency));
+            }
+            if (deleted >= MIN_COMPACTION_DELETES && deleted * 2 >= maxDoc) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int imageId) {
+        put(imageId, null);
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings = new HashMap<>();
+            docs = new HashMap<>();
+            imageIds = new int[16];
+            lengths = new int[16];
+            maxDoc = 0;
+            deleted = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void optimize() {
+        lock.writeLock().lock();
+        try {
+            if (deleted > 0) {
+                compact();
+            } else {
+                postings.values().forEach(PostingList::trim);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] imageIds() {
+        lock.readLock().lock();
+        try {
+            return docs.keySet().stream()
+                    .mapToInt(Integer::intValue)
+                    .sorted()
+                    .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] search(String query) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Query must contain at least one word");
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = docs.size();
+            if (documentCount == 0) {
+                return NO_IDS;
+            }
+            float averageLength = (float) totalLength / documentCount;
+            float[] scores = new float[maxDoc];
+            for (String term : terms) {
+                PostingList postingList = postings.get(term);
+                if (postingList == null) {
+                    continue;
+                }
+                // tombstoned docs still count towards the document frequency until the next compaction
+                int documentFrequency = Math.min(postingList.size(), documentCount);
+                float idf = (float) Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                postingList.forEach((doc, frequency) -> {
+                    if (imageIds[doc] != DELETED) {
+                        float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                        scores[doc] += idf * frequency * (K1 + 1) / (frequency + norm);
+                    }
+                });
+            }
+
+            // positive float bits sort like the floats, so one long sort orders by score and then by image id
+            long[] ranked = new long[maxDoc];
+            int matched = 0;
+            for (int doc = 0; doc < maxDoc; doc++) {
+                if (scores[doc] > 0) {
+                    ranked[matched++] = (long) (Integer.MAX_VALUE - Float.floatToIntBits(scores[doc])) << 32
+                            | imageIds[doc];
+                }
+            }
+            Arrays.sort(ranked, 0, matched);
+            int[] result = new int[matched];
+            for (int i = 0; i < matched; i++) {
+                result[i] = (int) ranked[i];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void write(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(maxDoc);
+            for (int doc = 0; doc < maxDoc; doc++) {
+                out.writeInt(imageIds[doc]);
+                out.writeInt(lengths[doc]);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a full-text index of format version " + FORMAT_VERSION);
+        }
+        int readMaxDoc = in.readInt();
+        int[] readImageIds = new int[Math.max(readMaxDoc, 16)];
+        int[] readLengths = new int[readImageIds.length];
+        Map<Integer, Integer> readDocs = new HashMap<>();
+        int readDeleted = 0;
+        long readTotalLength = 0;
+        for (int doc = 0; doc < readMaxDoc; doc++) {
+            readImageIds[doc] = in.readInt();
+            readLengths[doc] = in.readInt();
+            if (readImageIds[doc] == DELETED) {
+                readDeleted++;
+            } else {
+                readDocs.put(readImageIds[doc], doc);
+                readTotalLength += readLengths[doc];
+            }
+        }
+        int termCount = in.readInt();
+        Map<String, PostingList> readPostings = new HashMap<>(termCount * 4 / 3 + 1);
+        for (int i = 0; i < termCount; i++) {
+            readPostings.put(in.readUTF(), PostingList.read(in));
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = readPostings;
+            docs = readDocs;
+            imageIds = readImageIds;
+            lengths = readLengths;
+            maxDoc = readMaxDoc;
+            deleted = readDeleted;
+            totalLength = readTotalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        int i = 0;
+        while (i <= text.length()) {
+            int codePoint = i < text.length() ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                tokens.add(token.length() > MAX_TERM_LENGTH ? token.substring(0, MAX_TERM_LENGTH) : token);
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return tokens;
+    }
+
+    private void delete(int imageId) {
+        Integer doc = docs.remove(imageId);
+        if (doc != null) {
+            imageIds[doc] = DELETED;
+            totalLength -= lengths[doc];
+            deleted++;
+        }
+    }
+
+    // renumbers the live docs in their original order, which keeps every rewritten posting list sorted
+    private void compact() {
+        int[] remap = new int[maxDoc];
+        int live = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (imageIds[doc] == DELETED) {
+                remap[doc] = DELETED;
+                continue;
+            }
+            remap[doc] = live;
+            imageIds[live] = imageIds[doc];
+            lengths[live] = lengths[doc];
+            docs.put(imageIds[live], live);
+            live++;
+        }
+
+        Map<String, PostingList> compacted = new HashMap<>();
+        postings.forEach((term, postingList) -> {
+            PostingList remapped = postingList.remap(remap);
+            if (remapped.size() > 0) {
+                compacted.put(term, remapped);
+            }
+        });
+        postings = compacted;
+        maxDoc = live;
+        deleted = 0;
+    }
+}
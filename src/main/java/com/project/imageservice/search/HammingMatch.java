@@ -0,0 +1,13 @@
+package com.project.imageservice.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class HammingMatch {
+
+    private final int id;
+    private final int distance;
+
+}
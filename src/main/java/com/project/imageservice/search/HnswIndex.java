@@ -0,0 +1,387 @@
+package com.project.imageservice.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+public class HnswIndex {
+
+    private static final int M = 16;
+    private static final int MAX_BASE_LINKS = 2 * M;
+    private static final int MAX_LEVEL = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_COMPACTION_DELETES = 1024;
+
+    private final int dimensions;
+    private final double levelMultiplier = 1 / Math.log(M);
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final IntIntHashMap nodesById = new IntIntHashMap();
+    private final BitSet deleted = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // node n owns vectors[n * dimensions ..] and baseLinks[n * (MAX_BASE_LINKS + 1) ..], the first slot being the count;
+    // a node above level 0 also owns one block of M + 1 slots per upper level from upperLinks[upperOffsets[n]] on
+    private float[] vectors;
+    private int[] ids;
+    private int[] baseLinks;
+    private int[] upperOffsets;
+    private int[] upperLinks;
+    private int upperLinksSize;
+    private int count;
+    private int tombstones;
+    private int entryPoint;
+    private int maxLevel;
+
+    public HnswIndex(int dimensions) {
+        this.dimensions = dimensions;
+        reset(INITIAL_CAPACITY);
+    }
+
+    public void put(int id, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Vector must have " + dimensions + " dimensions");
+        }
+
+        lock.writeLock().lock();
+        try {
+            int previous = nodesById.get(id);
+            if (previous != IntIntHashMap.MISSING) {
+                int offset = previous * dimensions;
+                if (Arrays.equals(vectors, offset, offset + dimensions, vector, 0, dimensions)) {
+                    return;
+                }
+                deleted.set(previous);
+                tombstones++;
+            }
+            int node = insert(vector, 0);
+            ids[node] = id;
+            nodesById.put(id, node);
+            compactIfMostlyDeleted();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            int node = nodesById.remove(id);
+            if (node != IntIntHashMap.MISSING) {
+                deleted.set(node);
+                tombstones++;
+                compactIfMostlyDeleted();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            reset(INITIAL_CAPACITY);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int deletedSize() {
+        lock.readLock().lock();
+        try {
+            return tombstones;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<NearestNeighbor> search(float[] query, int k, int ef, IntPredicate accept) {
+        if (query.length != dimensions) {
+            throw new IllegalArgumentException("Vector must have " + dimensions + " dimensions");
+        }
+
+        lock.readLock().lock();
+        try {
+            if (count == 0) {
+                return List.of();
+            }
+
+            int node = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                node = greedySearch(query, 0, node, level);
+            }
+            NodeHeap found = searchLevel(query, 0, node, Math.max(ef, k), 0);
+
+            int[] nodes = new int[found.size()];
+            float[] distances = new float[found.size()];
+            for (int i = nodes.length - 1; i >= 0; i--) {
+                distances[i] = found.peekDistance();
+                nodes[i] = found.pop();
+            }
+
+            // deleted nodes keep routing searches until the next compaction, they are only dropped from results
+            List<NearestNeighbor> neighbors = new ArrayList<>(k);
+            for (int i = 0; i < nodes.length && neighbors.size() < k; i++) {
+                if (!deleted.get(nodes[i]) && accept.test(ids[nodes[i]])) {
+                    neighbors.add(new NearestNeighbor(ids[nodes[i]], (float) Math.sqrt(distances[i])));
+                }
+            }
+            return neighbors;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int insert(float[] vector, int vectorOffset) {
+        ensureCapacity(count + 1);
+        int node = count++;
+        int queryOffset = node * dimensions;
+        System.arraycopy(vector, vectorOffset, vectors, queryOffset, dimensions);
+
+        int level = randomLevel();
+        allocateUpperLinks(node, level);
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        int nearest = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            nearest = greedySearch(vectors, queryOffset, nearest, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            NodeHeap found = searchLevel(vectors, queryOffset, nearest, EF_CONSTRUCTION, l);
+            int[] candidates = new int[found.size()];
+            float[] distances = new float[found.size()];
+            for (int i = candidates.length - 1; i >= 0; i--) {
+                distances[i] = found.peekDistance();
+                candidates[i] = found.pop();
+            }
+            nearest = candidates[0];
+
+            int selected = selectNeighbors(candidates, distances, candidates.length, maxLinks(l));
+            int[] links = links(node, l);
+            int offset = linksOffset(node, l);
+            links[offset] = selected;
+            System.arraycopy(candidates, 0, links, offset + 1, selected);
+            for (int i = 0; i < selected; i++) {
+                link(candidates[i], node, l);
+            }
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    private void link(int node, int neighbor, int level) {
+        int[] links = links(node, level);
+        int offset = linksOffset(node, level);
+        int size = links[offset];
+        int maxLinks = maxLinks(level);
+        if (size < maxLinks) {
+            links[offset + 1 + size] = neighbor;
+            links[offset] = size + 1;
+            return;
+        }
+
+        // the list is full, so the new neighbor competes with the existing ones under the same heuristic
+        int[] candidates = new int[size + 1];
+        float[] distances = new float[size + 1];
+        int nodeOffset = node * dimensions;
+        for (int i = 0; i <= size; i++) {
+            int candidate = i < size ? links[offset + 1 + i] : neighbor;
+            float distance = distance(vectors, nodeOffset, vectors, candidate * dimensions);
+            int j = i;
+            while (j > 0 && distances[j - 1] > distance) {
+                candidates[j] = candidates[j - 1];
+                distances[j] = distances[j - 1];
+                j--;
+            }
+            candidates[j] = candidate;
+            distances[j] = distance;
+        }
+        int selected = selectNeighbors(candidates, distances, candidates.length, maxLinks);
+        links[offset] = selected;
+        System.arraycopy(candidates, 0, links, offset + 1, selected);
+    }
+
+    private int selectNeighbors(int[] candidates, float[] distances, int size, int maxLinks) {
+        // keep a candidate only if it is closer to the base than to every neighbor kept so far,
+        // which spreads links across directions instead of crowding one cluster
+        int selected = 0;
+        for (int i = 0; i < size && selected < maxLinks; i++) {
+            int candidate = candidates[i];
+            int candidateOffset = candidate * dimensions;
+            boolean keep = true;
+            for (int j = 0; j < selected; j++) {
+                if (distance(vectors, candidateOffset, vectors, candidates[j] * dimensions) < distances[i]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                candidates[selected] = candidate;
+                distances[selected] = distances[i];
+                selected++;
+            }
+        }
+        return selected;
+    }
+
+    private int greedySearch(float[] query, int queryOffset, int node, int level) {
+        float best = distance(query, queryOffset, vectors, node * dimensions);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] links = links(node, level);
+            int offset = linksOffset(node, level);
+            for (int i = 1; i <= links[offset]; i++) {
+                int neighbor = links[offset + i];
+                float distance = distance(query, queryOffset, vectors, neighbor * dimensions);
+                if (distance < best) {
+                    best = distance;
+                    node = neighbor;
+                    changed = true;
+                }
+            }
+        }
+        return node;
+    }
+
+    private NodeHeap searchLevel(float[] query, int queryOffset, int entry, int ef, int level) {
+        BitSet visited = new BitSet();
+        NodeHeap candidates = NodeHeap.min(ef);
+        NodeHeap results = NodeHeap.max(ef + 1);
+
+        float entryDistance = distance(query, queryOffset, vectors, entry * dimensions);
+        visited.set(entry);
+        candidates.push(entry, entryDistance);
+        results.push(entry, entryDistance);
+
+        while (!candidates.isEmpty()) {
+            if (candidates.peekDistance() > results.peekDistance()) {
+                break;
+            }
+            int node = candidates.pop();
+            int[] links = links(node, level);
+            int offset = linksOffset(node, level);
+            for (int i = 1; i <= links[offset]; i++) {
+                int neighbor = links[offset + i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float distance = distance(query, queryOffset, vectors, neighbor * dimensions);
+                if (results.size() < ef || distance < results.peekDistance()) {
+                    candidates.push(neighbor, distance);
+                    results.push(neighbor, distance);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private float distance(float[] a, int aOffset, float[] b, int bOffset) {
+        float sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            float d = a[aOffset + i] - b[bOffset + i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    private int[] links(int node, int level) {
+        return level == 0 ? baseLinks : upperLinks;
+    }
+
+    private int linksOffset(int node, int level) {
+        return level == 0 ? node * (MAX_BASE_LINKS + 1) : upperOffsets[node] + (level - 1) * (M + 1);
+    }
+
+    private void allocateUpperLinks(int node, int level) {
+        upperOffsets[node] = upperLinksSize;
+        int size = level * (M + 1);
+        if (upperLinksSize + size > upperLinks.length) {
+            upperLinks = Arrays.copyOf(upperLinks, Math.max(upperLinksSize + size, upperLinks.length * 2));
+        }
+        upperLinksSize += size;
+    }
+
+    // tombstones keep costing memory and search hops, so once they outnumber the live nodes the graph is rebuilt from
+    // the live vectors alone, which amortizes to a constant number of re-inserts per delete
+    private void compactIfMostlyDeleted() {
+        if (tombstones < MIN_COMPACTION_DELETES || tombstones < nodesById.size()) {
+            return;
+        }
+
+        float[] liveVectors = vectors;
+        int[] liveIds = ids;
+        int oldCount = count;
+        BitSet oldDeleted = (BitSet) deleted.clone();
+        reset(Math.max(INITIAL_CAPACITY, nodesById.size()));
+        for (int node = 0; node < oldCount; node++) {
+            if (!oldDeleted.get(node)) {
+                int compacted = insert(liveVectors, node * dimensions);
+                ids[compacted] = liveIds[node];
+                nodesById.put(liveIds[node], compacted);
+            }
+        }
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? MAX_BASE_LINKS : M;
+    }
+
+    private int randomLevel() {
+        return Math.min((int) (-Math.log(1 - random.nextDouble()) * levelMultiplier), MAX_LEVEL);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        vectors = Arrays.copyOf(vectors, newCapacity * dimensions);
+        ids = Arrays.copyOf(ids, newCapacity);
+        baseLinks = Arrays.copyOf(baseLinks, newCapacity * (MAX_BASE_LINKS + 1));
+        upperOffsets = Arrays.copyOf(upperOffsets, newCapacity);
+    }
+
+    private void reset(int capacity) {
+        vectors = new float[capacity * dimensions];
+        ids = new int[capacity];
+        baseLinks = new int[capacity * (MAX_BASE_LINKS + 1)];
+        upperOffsets = new int[capacity];
+        // levels are geometric with ratio 1 / M, so on average a node needs 1 / (M - 1) blocks of upper links
+        upperLinks = new int[(capacity / (M - 1) + 1) * (M + 1)];
+        upperLinksSize = 0;
+        count = 0;
+        entryPoint = -1;
+        maxLevel = -1;
+        nodesById.clear();
+        deleted.clear();
+        tombstones = 0;
+    }
+}
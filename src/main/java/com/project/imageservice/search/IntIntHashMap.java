@@ -0,0 +1,108 @@
+package com.project.imageservice.search;
+
+final class IntIntHashMap {
+
+    static final int MISSING = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // linear probing over two parallel arrays, a value slot of 0 marks a free slot and the others hold value + 1
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    IntIntHashMap() {
+        clear();
+    }
+
+    int get(int key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (values[slot] == 0) {
+                return MISSING;
+            }
+            if (keys[slot] == key) {
+                return values[slot] - 1;
+            }
+        }
+    }
+
+    // values must not be negative, MISSING is returned when the key was absent
+    int put(int key, int value) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            grow();
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (values[slot] == 0) {
+                keys[slot] = key;
+                values[slot] = value + 1;
+                size++;
+                return MISSING;
+            }
+            if (keys[slot] == key) {
+                int previous = values[slot] - 1;
+                values[slot] = value + 1;
+                return previous;
+            }
+        }
+    }
+
+    int remove(int key) {
+        int slot = slot(key);
+        while (values[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == 0) {
+            return MISSING;
+        }
+        int removed = values[slot] - 1;
+        values[slot] = 0;
+        size--;
+
+        // later entries of the same probe run move back into the gap, so no lookup stops short of them
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != 0; next = (next + 1) & mask) {
+            if (((next - slot(keys[next])) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                values[next] = 0;
+                gap = next;
+            }
+        }
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        keys = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+        size = 0;
+    }
+
+    private int slot(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.project.imageservice.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class MultiIndexHashTable {
+
+    public static final int MAX_DISTANCE = 16;
+
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+    private static final int BUCKETS = 1 << CHUNK_BITS;
+    private static final int[] EMPTY = new int[0];
+
+    private final int[][][] buckets = new int[CHUNKS][BUCKETS][];
+    private final int[][] bucketSizes = new int[CHUNKS][BUCKETS];
+    private final Map<Integer, Long> hashes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(int id, long hash) {
+        lock.writeLock().lock();
+        try {
+            Long previous = hashes.put(id, hash);
+            if (previous != null) {
+                if (previous == hash) {
+                    return;
+                }
+                removeFromBuckets(id, previous);
+            }
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                addToBucket(chunk, chunk(hash, chunk), id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Long previous = hashes.remove(id);
+            if (previous != null) {
+                removeFromBuckets(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            hashes.clear();
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                Arrays.fill(buckets[chunk], null);
+                Arrays.fill(bucketSizes[chunk], 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return hashes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<HammingMatch> search(long hash, int maxDistance) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+            throw new IllegalArgumentException("maxDistance must be between 0 and " + MAX_DISTANCE);
+        }
+
+        // a hash within maxDistance differs in at most maxDistance / CHUNKS bits in at least one chunk
+        int radius = maxDistance / CHUNKS;
+        Set<Integer> seen = new HashSet<>();
+        List<HammingMatch> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                probe(chunk, chunk(hash, chunk), radius, 0, hash, maxDistance, seen, matches);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingInt(HammingMatch::getDistance).thenComparingInt(HammingMatch::getId));
+        return matches;
+    }
+
+    private void probe(
+            int chunk,
+            int value,
+            int flips,
+            int fromBit,
+            long hash,
+            int maxDistance,
+            Set<Integer> seen,
+            List<HammingMatch> matches
+    ) {
+        int[] bucket = bucket(chunk, value);
+        int size = bucketSizes[chunk][value];
+        for (int i = 0; i < size; i++) {
+            int id = bucket[i];
+            if (seen.add(id)) {
+                int distance = Long.bitCount(hashes.get(id) ^ hash);
+                if (distance <= maxDistance) {
+                    matches.add(new HammingMatch(id, distance));
+                }
+            }
+        }
+        if (flips == 0) {
+            return;
+        }
+        for (int bit = fromBit; bit < CHUNK_BITS; bit++) {
+            probe(chunk, value ^ (1 << bit), flips - 1, bit + 1, hash, maxDistance, seen, matches);
+        }
+    }
+
+    private void addToBucket(int chunk, int value, int id) {
+        int[] bucket = buckets[chunk][value];
+        int size = bucketSizes[chunk][value];
+        if (bucket == null) {
+            bucket = new int[2];
+        } else if (size == bucket.length) {
+            bucket = Arrays.copyOf(bucket, size * 2);
+        }
+        bucket[size] = id;
+        buckets[chunk][value] = bucket;
+        bucketSizes[chunk][value] = size + 1;
+    }
+
+    private void removeFromBuckets(int id, long hash) {
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            int value = chunk(hash, chunk);
+            int[] bucket = buckets[chunk][value];
+            int size = bucketSizes[chunk][value];
+            for (int i = 0; i < size; i++) {
+                if (bucket[i] == id) {
+                    bucket[i] = bucket[size - 1];
+                    bucketSizes[chunk][value] = size - 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    private int[] bucket(int chunk, int value) {
+        int[] bucket = buckets[chunk][value];
+        return bucket != null ? bucket : EMPTY;
+    }
+
+    private static int chunk(long hash, int chunk) {
+        return (int) (hash >>> (chunk * CHUNK_BITS)) & (BUCKETS - 1);
+    }
+}
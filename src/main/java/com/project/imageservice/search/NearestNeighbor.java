@@ -0,0 +1,13 @@
+package com.project.imageservice.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class NearestNeighbor {
+
+    private final int id;
+    private final float distance;
+
+}
@@ -0,0 +1,89 @@
+package com.project.imageservice.search;
+
+import java.util.Arrays;
+
+class NodeHeap {
+
+    private final boolean max;
+    private int[] nodes;
+    private float[] distances;
+    private int size;
+
+    NodeHeap(boolean max, int capacity) {
+        this.max = max;
+        this.nodes = new int[Math.max(capacity, 1)];
+        this.distances = new float[nodes.length];
+    }
+
+    static NodeHeap min(int capacity) {
+        return new NodeHeap(false, capacity);
+    }
+
+    static NodeHeap max(int capacity) {
+        return new NodeHeap(true, capacity);
+    }
+
+    void push(int node, float distance) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            distances = Arrays.copyOf(distances, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(distance, distances[parent])) {
+                break;
+            }
+            nodes[i] = nodes[parent];
+            distances[i] = distances[parent];
+            i = parent;
+        }
+        nodes[i] = node;
+        distances[i] = distance;
+    }
+
+    int pop() {
+        int top = nodes[0];
+        int lastNode = nodes[--size];
+        float lastDistance = distances[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(distances[child + 1], distances[child])) {
+                child++;
+            }
+            if (!before(distances[child], lastDistance)) {
+                break;
+            }
+            nodes[i] = nodes[child];
+            distances[i] = distances[child];
+            i = child;
+        }
+        nodes[i] = lastNode;
+        distances[i] = lastDistance;
+        return top;
+    }
+
+    int peekNode() {
+        return nodes[0];
+    }
+
+    float peekDistance() {
+        return distances[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private boolean before(float a, float b) {
+        return max ? a > b : a < b;
+    }
+}
@@ -0,0 +1,115 @@
+package com.project.imageservice.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+final class PostingList {
+
+    private byte[] bytes;
+    private int length;
+    private int size;
+    private int lastDoc = -1;
+
+    PostingList() {
+        this.bytes = new byte[8];
+    }
+
+    private PostingList(byte[] bytes, int size, int lastDoc) {
+        this.bytes = bytes;
+        this.length = bytes.length;
+        this.size = size;
+        this.lastDoc = lastDoc;
+    }
+
+    // docs arrive in increasing order, so each posting is stored as a varint gap followed by a varint frequency
+    void add(int doc, int frequency) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Doc " + doc + " is not after " + lastDoc);
+        }
+        if (bytes.length - length < 10) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 10));
+        }
+        length = writeVarInt(doc - lastDoc, length);
+        length = writeVarInt(frequency, length);
+        lastDoc = doc;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(Visitor visitor) {
+        int position = 0;
+        int doc = -1;
+        while (position < length) {
+            int gap = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                gap |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            int frequency = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                frequency |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            doc += gap;
+            visitor.visit(doc, frequency);
+        }
+    }
+
+    PostingList remap(int[] docs) {
+        PostingList remapped = new PostingList();
+        forEach((doc, frequency) -> {
+            if (docs[doc] >= 0) {
+                remapped.add(docs[doc], frequency);
+            }
+        });
+        remapped.trim();
+        return remapped;
+    }
+
+    void trim() {
+        if (bytes.length > length) {
+            bytes = Arrays.copyOf(bytes, length);
+        }
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(lastDoc);
+        out.writeInt(length);
+        out.write(bytes, 0, length);
+    }
+
+    static PostingList read(DataInput in) throws IOException {
+        int size = in.readInt();
+        int lastDoc = in.readInt();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new PostingList(bytes, size, lastDoc);
+    }
+
+    private int writeVarInt(int value, int position) {
+        while ((value & ~0x7f) != 0) {
+            bytes[position++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+
+    interface Visitor {
+
+        void visit(int doc, int frequency);
+
+    }
+}
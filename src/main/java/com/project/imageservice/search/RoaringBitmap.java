@@ -0,0 +1,182 @@
+package com.project.imageservice.search;
+
+import java.util.Arrays;
+
+public class RoaringBitmap {
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringBitmap() {
+        this(4);
+    }
+
+    private RoaringBitmap(int capacity) {
+        this.keys = new char[capacity];
+        this.containers = new Container[capacity];
+    }
+
+    public static RoaringBitmap of(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public void add(int value) {
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index >= 0) {
+            containers[index] = containers[index].add((char) value);
+            return;
+        }
+        insert(-index - 1, key, new ArrayContainer().add((char) value));
+    }
+
+    public void remove(int value) {
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) value);
+        if (container.cardinality() == 0) {
+            delete(index);
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            offset = containers[i].fill(values, offset, keys[i] << 16);
+        }
+        return values;
+    }
+
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].optimize();
+        }
+    }
+
+    public RoaringBitmap copy() {
+        RoaringBitmap copy = new RoaringBitmap(Math.max(size, 4));
+        for (int i = 0; i < size; i++) {
+            copy.keys[i] = keys[i];
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    public static RoaringBitmap and(RoaringBitmap left, RoaringBitmap right) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(Math.min(left.size, right.size), 4));
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            if (left.keys[i] == right.keys[j]) {
+                result.append(left.keys[i], left.containers[i].and(right.containers[j]));
+                i++;
+                j++;
+            } else if (left.keys[i] < right.keys[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static RoaringBitmap or(RoaringBitmap left, RoaringBitmap right) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(left.size + right.size, 4));
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            if (left.keys[i] == right.keys[j]) {
+                result.append(left.keys[i], left.containers[i].or(right.containers[j]));
+                i++;
+                j++;
+            } else if (left.keys[i] < right.keys[j]) {
+                result.append(left.keys[i], left.containers[i].copy());
+                i++;
+            } else {
+                result.append(right.keys[j], right.containers[j].copy());
+                j++;
+            }
+        }
+        for (; i < left.size; i++) {
+            result.append(left.keys[i], left.containers[i].copy());
+        }
+        for (; j < right.size; j++) {
+            result.append(right.keys[j], right.containers[j].copy());
+        }
+        return result;
+    }
+
+    public static RoaringBitmap andNot(RoaringBitmap left, RoaringBitmap right) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(left.size, 4));
+        int j = 0;
+        for (int i = 0; i < left.size; i++) {
+            while (j < right.size && right.keys[j] < left.keys[i]) {
+                j++;
+            }
+            if (j < right.size && right.keys[j] == left.keys[i]) {
+                result.append(left.keys[i], left.containers[i].andNot(right.containers[j]));
+            } else {
+                result.append(left.keys[i], left.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void append(char key, Container container) {
+        if (container.cardinality() == 0) {
+            return;
+        }
+        insert(size, key, container);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void delete(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+}
@@ -0,0 +1,117 @@
+package com.project.imageservice.search;
+
+final class RunContainer extends Container {
+
+    private final char[] starts;
+    private final char[] lengths;
+    private final int runCount;
+    private final int cardinality;
+
+    private RunContainer(char[] starts, char[] lengths, int runCount, int cardinality) {
+        this.starts = starts;
+        this.lengths = lengths;
+        this.runCount = runCount;
+        this.cardinality = cardinality;
+    }
+
+    static RunContainer of(Container container, int runCount) {
+        int cardinality = container.cardinality();
+        int[] values = new int[cardinality];
+        container.fill(values, 0, 0);
+
+        char[] starts = new char[runCount];
+        char[] lengths = new char[runCount];
+        int run = -1;
+        for (int i = 0; i < cardinality; i++) {
+            if (i == 0 || values[i] != values[i - 1] + 1) {
+                starts[++run] = (char) values[i];
+            } else {
+                lengths[run]++;
+            }
+        }
+        return new RunContainer(starts, lengths, runCount, cardinality);
+    }
+
+    @Override
+    Container add(char value) {
+        return contains(value) ? this : expand().add(value);
+    }
+
+    @Override
+    Container remove(char value) {
+        return contains(value) ? expand().remove(value) : this;
+    }
+
+    @Override
+    boolean contains(char value) {
+        int low = 0;
+        int high = runCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] > value) {
+                high = middle - 1;
+            } else if (starts[middle] + lengths[middle] < value) {
+                low = middle + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    int runCount() {
+        return runCount;
+    }
+
+    @Override
+    int fill(int[] out, int offset, int high) {
+        for (int run = 0; run < runCount; run++) {
+            int end = starts[run] + lengths[run];
+            for (int value = starts[run]; value <= end; value++) {
+                out[offset++] = high | value;
+            }
+        }
+        return offset;
+    }
+
+    @Override
+    BitmapContainer toBitmap() {
+        long[] words = new long[BITMAP_WORDS];
+        for (int run = 0; run < runCount; run++) {
+            int end = starts[run] + lengths[run];
+            for (int value = starts[run]; value <= end; value++) {
+                words[value >>> 6] |= 1L << value;
+            }
+        }
+        return new BitmapContainer(words, cardinality);
+    }
+
+    @Override
+    ArrayContainer toArray() {
+        char[] values = new char[cardinality];
+        int size = 0;
+        for (int run = 0; run < runCount; run++) {
+            int end = starts[run] + lengths[run];
+            for (int value = starts[run]; value <= end; value++) {
+                values[size++] = (char) value;
+            }
+        }
+        return new ArrayContainer(values, size);
+    }
+
+    @Override
+    Container copy() {
+        // run containers are never modified in place
+        return this;
+    }
+
+    private Container expand() {
+        return cardinality < MAX_ARRAY_SIZE ? toArray() : toBitmap();
+    }
+}
@@ -0,0 +1,59 @@
+package com.project.imageservice.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "image-service.search")
+public class SearchProperties {
+
+    private final Count count = new Count();
+
+    private final Result result = new Result();
+
+    private final Export export = new Export();
+
+    private final FullText fullText = new FullText();
+
+    @Getter
+    @Setter
+    public static class Count {
+
+        private Duration cacheTtl = Duration.ofSeconds(30);
+
+        private int cacheSize = 1024;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Result {
+
+        private boolean cacheEnabled = true;
+
+        private int cacheSize = 4096;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+
+        private int batchSize = 500;
+
+    }
+
+    @Getter
+    @Setter
+    public static class FullText {
+
+        private boolean persistenceEnabled = true;
+
+        private long snapshotInterval = 60_000;
+
+    }
+}
@@ -0,0 +1,150 @@
+package com.project.imageservice.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class TagBitmapIndex {
+
+    private static final int[] NO_TAGS = new int[0];
+
+    private final Map<Integer, RoaringBitmap> imagesByTag = new HashMap<>();
+    private final Map<Integer, int[]> tagsByImage = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(int imageId, int[] tagIds) {
+        lock.writeLock().lock();
+        try {
+            int[] previous = tagsByImage.getOrDefault(imageId, NO_TAGS);
+            for (int tagId : previous) {
+                removeFromTag(tagId, imageId);
+            }
+            for (int tagId : tagIds) {
+                imagesByTag.computeIfAbsent(tagId, id -> new RoaringBitmap()).add(imageId);
+            }
+            if (tagIds.length == 0) {
+                tagsByImage.remove(imageId);
+            } else {
+                tagsByImage.put(imageId, tagIds);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(int imageId, int tagId) {
+        lock.writeLock().lock();
+        try {
+            int[] previous = tagsByImage.getOrDefault(imageId, NO_TAGS);
+            for (int previousTagId : previous) {
+                if (previousTagId == tagId) {
+                    return;
+                }
+            }
+            int[] tagIds = Arrays.copyOf(previous, previous.length + 1);
+            tagIds[previous.length] = tagId;
+            tagsByImage.put(imageId, tagIds);
+            imagesByTag.computeIfAbsent(tagId, id -> new RoaringBitmap()).add(imageId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int imageId) {
+        put(imageId, NO_TAGS);
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            imagesByTag.clear();
+            tagsByImage.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void optimize() {
+        lock.writeLock().lock();
+        try {
+            imagesByTag.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tagsByImage.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap all(Collection<Integer> tagIds) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            for (Integer tagId : tagIds) {
+                RoaringBitmap images = imagesByTag.get(tagId);
+                if (images == null) {
+                    return new RoaringBitmap();
+                }
+                result = result == null ? images.copy() : RoaringBitmap.and(result, images);
+            }
+            return result == null ? new RoaringBitmap() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap any(Collection<Integer> tagIds) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = new RoaringBitmap();
+            for (Integer tagId : tagIds) {
+                RoaringBitmap images = imagesByTag.get(tagId);
+                if (images != null) {
+                    result = RoaringBitmap.or(result, images);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Integer, Integer> counts(RoaringBitmap within, RoaringBitmap excluded) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> counts = new HashMap<>();
+            imagesByTag.forEach((tagId, images) -> {
+                RoaringBitmap matching = within != null ? RoaringBitmap.and(images, within) : images;
+                if (excluded != null) {
+                    matching = RoaringBitmap.andNot(matching, excluded);
+                }
+                if (!matching.isEmpty()) {
+                    counts.put(tagId, matching.cardinality());
+                }
+            });
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeFromTag(int tagId, int imageId) {
+        RoaringBitmap images = imagesByTag.get(tagId);
+        if (images == null) {
+            return;
+        }
+        images.remove(imageId);
+        if (images.isEmpty()) {
+            imagesByTag.remove(tagId);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.project.imageservice.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiPredicate;
+
+public class TrigramIndex {
+
+    public static final int MIN_SUBSTRING_LENGTH = 3;
+
+    private static final char START = '\u0002';
+    private static final int[] NO_IDS = new int[0];
+
+    private final Map<Long, RoaringBitmap> postings = new HashMap<>();
+    private final Map<Integer, String> names = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(int id, String name) {
+        String normalized = normalize(name);
+        lock.writeLock().lock();
+        try {
+            String previous = names.remove(id);
+            if (previous != null) {
+                for (long gram : grams(previous)) {
+                    RoaringBitmap ids = postings.get(gram);
+                    if (ids != null) {
+                        ids.remove(id);
+                        if (ids.isEmpty()) {
+                            postings.remove(gram);
+                        }
+                    }
+                }
+            }
+            if (normalized == null) {
+                return;
+            }
+            names.put(id, normalized);
+            for (long gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, g -> new RoaringBitmap()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        put(id, null);
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            names.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void optimize() {
+        lock.writeLock().lock();
+        try {
+            postings.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] findContaining(String substring) {
+        String normalized = normalize(substring);
+        if (normalized == null || normalized.length() < MIN_SUBSTRING_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Substring must have at least " + MIN_SUBSTRING_LENGTH + " characters");
+        }
+        List<Long> grams = new ArrayList<>(normalized.length());
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            grams.add(gram(normalized.charAt(i), normalized.charAt(i + 1), normalized.charAt(i + 2)));
+        }
+        return find(grams, normalized, String::contains);
+    }
+
+    public int[] findStartingWith(String prefix) {
+        String normalized = normalize(prefix);
+        if (normalized == null || normalized.isEmpty()) {
+            throw new IllegalArgumentException("Prefix must not be empty");
+        }
+        String marked = START + normalized;
+        List<Long> grams = new ArrayList<>(marked.length());
+        grams.add(marked.length() == 2 ? gram(START, marked.charAt(1)) : gram(START, marked.charAt(1), marked.charAt(2)));
+        for (int i = 1; i + 3 <= marked.length(); i++) {
+            grams.add(gram(marked.charAt(i), marked.charAt(i + 1), marked.charAt(i + 2)));
+        }
+        return find(grams, normalized, String::startsWith);
+    }
+
+    private int[] find(List<Long> grams, String query, BiPredicate<String, String> verify) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> lists = new ArrayList<>(grams.size());
+            for (Long gram : grams) {
+                RoaringBitmap ids = postings.get(gram);
+                if (ids == null) {
+                    return NO_IDS;
+                }
+                lists.add(ids);
+            }
+            // intersect the rarest grams first so the candidate set shrinks as early as possible
+            lists.sort(Comparator.comparingInt(RoaringBitmap::cardinality));
+            RoaringBitmap candidates = lists.get(0);
+            for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+                candidates = RoaringBitmap.and(candidates, lists.get(i));
+            }
+
+            int[] ids = candidates.toArray();
+            if (grams.size() == 1) {
+                return ids;
+            }
+
+            // grams only prove that every piece occurs, not that they occur next to each other
+            int size = 0;
+            for (int id : ids) {
+                if (verify.test(names.get(id), query)) {
+                    ids[size++] = id;
+                }
+            }
+            return size == ids.length ? ids : Arrays.copyOf(ids, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<Long> grams(String name) {
+        String marked = START + name;
+        List<Long> grams = new ArrayList<>(marked.length() + 1);
+        if (marked.length() >= 2) {
+            grams.add(gram(START, marked.charAt(1)));
+        }
+        for (int i = 0; i + 3 <= marked.length(); i++) {
+            grams.add(gram(marked.charAt(i), marked.charAt(i + 1), marked.charAt(i + 2)));
+        }
+        return grams;
+    }
+
+    private static long gram(char first, char second) {
+        return gram(first, second, START);
+    }
+
+    private static long gram(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
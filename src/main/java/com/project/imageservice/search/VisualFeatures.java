@@ -0,0 +1,95 @@
+package com.project.imageservice.search;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+
+public final class VisualFeatures {
+
+    public static final int COLOR_BINS = 64;
+    public static final int EDGE_BINS = 8;
+    public static final int DIMENSIONS = COLOR_BINS + EDGE_BINS;
+
+    private static final int SAMPLE_SIZE = 64;
+    private static final float HALF_WEIGHT = (float) Math.sqrt(0.5);
+
+    private VisualFeatures() {
+    }
+
+    public static float[] compute(BufferedImage image) {
+        BufferedImage sample = new BufferedImage(SAMPLE_SIZE, SAMPLE_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = sample.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, SAMPLE_SIZE, SAMPLE_SIZE, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        int[] rgb = sample.getRGB(0, 0, SAMPLE_SIZE, SAMPLE_SIZE, null, 0, SAMPLE_SIZE);
+        float[] features = new float[DIMENSIONS];
+        float[] luma = new float[rgb.length];
+        for (int i = 0; i < rgb.length; i++) {
+            int r = (rgb[i] >> 16) & 0xFF;
+            int g = (rgb[i] >> 8) & 0xFF;
+            int b = rgb[i] & 0xFF;
+            features[(r >> 6) << 4 | (g >> 6) << 2 | (b >> 6)]++;
+            luma[i] = 0.299f * r + 0.587f * g + 0.114f * b;
+        }
+
+        // Sobel gradients, binned by unsigned orientation and weighted by magnitude
+        for (int y = 1; y < SAMPLE_SIZE - 1; y++) {
+            for (int x = 1; x < SAMPLE_SIZE - 1; x++) {
+                int i = y * SAMPLE_SIZE + x;
+                float gx = luma[i - SAMPLE_SIZE + 1] + 2 * luma[i + 1] + luma[i + SAMPLE_SIZE + 1]
+                        - luma[i - SAMPLE_SIZE - 1] - 2 * luma[i - 1] - luma[i + SAMPLE_SIZE - 1];
+                float gy = luma[i + SAMPLE_SIZE - 1] + 2 * luma[i + SAMPLE_SIZE] + luma[i + SAMPLE_SIZE + 1]
+                        - luma[i - SAMPLE_SIZE - 1] - 2 * luma[i - SAMPLE_SIZE] - luma[i - SAMPLE_SIZE + 1];
+                float magnitude = (float) Math.sqrt(gx * gx + gy * gy);
+                if (magnitude == 0) {
+                    continue;
+                }
+                double angle = Math.atan2(gy, gx);
+                if (angle < 0) {
+                    angle += Math.PI;
+                }
+                int bin = Math.min((int) (angle / Math.PI * EDGE_BINS), EDGE_BINS - 1);
+                features[COLOR_BINS + bin] += magnitude;
+            }
+        }
+
+        // square roots of the normalized histograms turn Euclidean distance into Hellinger distance
+        normalize(features, 0, COLOR_BINS);
+        normalize(features, COLOR_BINS, EDGE_BINS);
+        return features;
+    }
+
+    public static byte[] toBytes(float[] features) {
+        ByteBuffer buffer = ByteBuffer.allocate(DIMENSIONS * Float.BYTES);
+        buffer.asFloatBuffer().put(features, 0, DIMENSIONS);
+        return buffer.array();
+    }
+
+    public static float[] fromBytes(byte[] bytes) {
+        if (bytes.length != DIMENSIONS * Float.BYTES) {
+            throw new IllegalArgumentException("Visual features must be " + DIMENSIONS * Float.BYTES + " bytes");
+        }
+        float[] features = new float[DIMENSIONS];
+        ByteBuffer.wrap(bytes).asFloatBuffer().get(features);
+        return features;
+    }
+
+    private static void normalize(float[] features, int offset, int length) {
+        float sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += features[i];
+        }
+        if (sum == 0) {
+            return;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            features[i] = HALF_WEIGHT * (float) Math.sqrt(features[i] / sum);
+        }
+    }
+}
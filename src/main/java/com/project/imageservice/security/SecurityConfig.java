@@ -28,9 +28,10 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .authorizeRequests()
                 .antMatchers(
                         "/registration",
-                        "/search**")
+                        "/search**",
+                        "/search/**")
                 .permitAll()
-                .antMatchers("/api/**").hasAuthority(USER.name())
+                .antMatchers("/api/**", "/actuator/**").hasAuthority(USER.name())
                 .and()
                 .csrf().disable()
                 .httpBasic();
@@ -1,6 +1,8 @@
 package com.project.imageservice.service;
 
 import com.project.imageservice.dao.AccountRepository;
+import com.project.imageservice.dao.ContentHashCount;
+import com.project.imageservice.dao.ImageRepository;
 import com.project.imageservice.dao.RoleRepository;
 import com.project.imageservice.domain.Account;
 import com.project.imageservice.domain.Role;
@@ -13,6 +15,7 @@ import com.project.imageservice.exception.type.EntityNotFoundException;
 import com.project.imageservice.exception.type.RoleNotFoundException;
 import com.project.imageservice.mapper.AccountMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,6 +35,9 @@ public class AccountServiceImpl implements AccountService {
     private final AccountMapper accountMapper;
     private final BCryptPasswordEncoder passwordEncoder;
     private final RoleRepository roleRepository;
+    private final ImageRepository imageRepository;
+    private final ContentBlobService contentBlobService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -100,6 +106,18 @@ public class AccountServiceImpl implements AccountService {
     @Override
     @Transactional
     public void deleteById(Integer accountId) {
+        List<ContentHashCount> contentHashCounts = imageRepository.countContentHashesByAccountId(accountId);
+        for (ContentHashCount contentHashCount : contentHashCounts) {
+            contentBlobService.release(
+                    contentHashCount.getContentHash(),
+                    Math.toIntExact(contentHashCount.getReferenceCount()));
+        }
+
+        List<Integer> imageIds = imageRepository.findIdsByAccountId(accountId);
+        List<Integer> tagIds = imageRepository.findTagIdsByAccountId(accountId);
+        imageRepository.deleteAllByAccountId(accountId);
         accountRepository.deleteById(accountId);
+        applicationEventPublisher.publishEvent(new ImagesDeletedEvent(imageIds));
+        applicationEventPublisher.publishEvent(new SearchResultsChangedEvent(accountId, tagIds));
     }
 }
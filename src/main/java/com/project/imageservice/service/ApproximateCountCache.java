@@ -0,0 +1,61 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.search.SearchProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+@Component
+public class ApproximateCountCache {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LinkedHashMap<ImageSearchFilter, Entry> entries;
+
+    public ApproximateCountCache(SearchProperties searchProperties) {
+        this.ttlNanos = searchProperties.getCount().getCacheTtl().toNanos();
+        this.maxEntries = searchProperties.getCount().getCacheSize();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ImageSearchFilter, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public long get(ImageSearchFilter filter, LongSupplier counter) {
+        ImageSearchFilter key = SearchFilters.normalize(filter);
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.countedAt < ttlNanos) {
+                return entry.count;
+            }
+        }
+
+        // counted outside the lock, concurrent misses for the same filter may each run the count once
+        long count = counter.getAsLong();
+        synchronized (this) {
+            entries.put(key, new Entry(count, now));
+        }
+        return count;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+
+        private final long count;
+        private final long countedAt;
+
+        private Entry(long count, long countedAt) {
+            this.count = count;
+            this.countedAt = countedAt;
+        }
+    }
+}
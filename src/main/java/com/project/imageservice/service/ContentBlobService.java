@@ -0,0 +1,41 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ContentBlobJdbcRepository;
+import com.project.imageservice.dao.ContentBlobRepository;
+import com.project.imageservice.storage.StoredBlob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class ContentBlobService {
+
+    private final ContentBlobRepository contentBlobRepository;
+    private final ContentBlobJdbcRepository contentBlobJdbcRepository;
+
+    @Transactional
+    public void acquire(StoredBlob storedBlob, int references) {
+        LocalDateTime now = LocalDateTime.now();
+        String contentHash = storedBlob.getContentHash();
+
+        if (contentBlobRepository.incrementRefCount(contentHash, references, now) == 0
+                && !contentBlobJdbcRepository.insertIfAbsent(contentHash, storedBlob.getSize(), references, now)) {
+            // a concurrent first upload of the same content inserted the row after our increment missed it
+            contentBlobRepository.incrementRefCount(contentHash, references, now);
+        }
+    }
+
+    // a blob no image ended up referencing still gets its row, so the sweeper reclaims it after the grace period
+    @Transactional
+    public void abandon(StoredBlob storedBlob) {
+        acquire(storedBlob, 0);
+    }
+
+    @Transactional
+    public void release(String contentHash, int references) {
+        contentBlobRepository.decrementRefCount(contentHash, references, LocalDateTime.now());
+    }
+}
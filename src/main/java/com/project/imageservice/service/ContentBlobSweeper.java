@@ -0,0 +1,91 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ContentBlobRepository;
+import com.project.imageservice.domain.ContentBlob;
+import com.project.imageservice.storage.BlobStore;
+import com.project.imageservice.storage.StorageProperties;
+import com.project.imageservice.storage.ThumbnailStore;
+import com.project.imageservice.storage.TileStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "image-service.storage.gc", name = "enabled", matchIfMissing = true)
+public class ContentBlobSweeper {
+
+    private final ContentBlobRepository contentBlobRepository;
+    private final BlobStore blobStore;
+    private final ThumbnailStore thumbnailStore;
+    private final TileStore tileStore;
+    private final TransactionTemplate transactionTemplate;
+    private final StorageProperties.Gc gc;
+
+    public ContentBlobSweeper(
+            ContentBlobRepository contentBlobRepository,
+            BlobStore blobStore,
+            ThumbnailStore thumbnailStore,
+            TileStore tileStore,
+            TransactionTemplate transactionTemplate,
+            StorageProperties storageProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.contentBlobRepository = contentBlobRepository;
+        this.blobStore = blobStore;
+        this.thumbnailStore = thumbnailStore;
+        this.tileStore = tileStore;
+        this.transactionTemplate = transactionTemplate;
+        this.gc = storageProperties.getGc();
+
+        Gauge.builder("image.storage.dedup.ratio", this, ContentBlobSweeper::dedupRatio)
+                .description("Referenced bytes divided by bytes stored on disk")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${image-service.storage.gc.interval:60000}")
+    public void sweep() throws InterruptedException {
+        Instant cutoff = Instant.now().minus(gc.getGracePeriod());
+        LocalDateTime before = LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault());
+        long pauseMillis = 1000L / Math.max(1, gc.getMaxDeletesPerSecond());
+
+        List<ContentBlob> unreferenced = contentBlobRepository.findUnreferenced(
+                before, PageRequest.of(0, gc.getBatchSize()));
+
+        int reclaimed = 0;
+        for (ContentBlob contentBlob : unreferenced) {
+            String contentHash = contentBlob.getContentHash();
+            Integer deleted = transactionTemplate.execute(status ->
+                    contentBlobRepository.deleteUnreferenced(contentHash, before));
+
+            if (deleted != null && deleted > 0 && blobStore.deleteIfUnmodifiedSince(contentHash, cutoff)) {
+                thumbnailStore.delete(contentHash);
+                tileStore.delete(contentHash);
+                reclaimed++;
+            }
+            Thread.sleep(pauseMillis);
+        }
+
+        if (reclaimed > 0) {
+            log.info("Reclaimed {} unreferenced blobs", reclaimed);
+        }
+    }
+
+    private double dedupRatio() {
+        long physical = contentBlobRepository.sumPhysicalSize();
+        if (physical == 0) {
+            return 1.0;
+        }
+        return (double) contentBlobRepository.sumLogicalSize() / physical;
+    }
+}
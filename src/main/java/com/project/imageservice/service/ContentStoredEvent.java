@@ -0,0 +1,12 @@
+package com.project.imageservice.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ContentStoredEvent {
+
+    private final String contentHash;
+
+}
@@ -0,0 +1,252 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.dao.ImageTagId;
+import com.project.imageservice.dao.ImageText;
+import com.project.imageservice.dao.TagRepository;
+import com.project.imageservice.domain.Tag;
+import com.project.imageservice.exception.type.InvalidSearchException;
+import com.project.imageservice.search.FullTextIndex;
+import com.project.imageservice.search.SearchProperties;
+import com.project.imageservice.storage.StorageProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class FullTextIndexService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final String SNAPSHOT_FILE = "full-text.idx";
+    // covers writes that were stamped before the snapshot but only reached the index after it
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(5);
+
+    private final ImageRepository imageRepository;
+    private final TagRepository tagRepository;
+    private final FullTextIndex index = new FullTextIndex();
+    private final boolean persistenceEnabled;
+    private final Path snapshotFile;
+
+    private final AtomicLong changes = new AtomicLong();
+    private long snapshotChanges;
+    private volatile boolean started;
+
+    public FullTextIndexService(
+            ImageRepository imageRepository,
+            TagRepository tagRepository,
+            SearchProperties searchProperties,
+            StorageProperties storageProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.imageRepository = imageRepository;
+        this.tagRepository = tagRepository;
+        this.persistenceEnabled = searchProperties.getFullText().isPersistenceEnabled();
+        this.snapshotFile = storageProperties.getRoot().toAbsolutePath().resolve("index").resolve(SNAPSHOT_FILE);
+
+        Gauge.builder("image.search.fulltext.index.size", index, FullTextIndex::size)
+                .description("Images held in the full-text index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void start() {
+        LocalDateTime snapshotTakenOn = persistenceEnabled ? load() : null;
+        if (snapshotTakenOn == null) {
+            rebuild();
+        } else {
+            catchUp(snapshotTakenOn.minus(CATCH_UP_MARGIN));
+            index.optimize();
+        }
+        started = true;
+    }
+
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        index.clear();
+        int after = 0;
+        List<ImageText> batch;
+        do {
+            batch = imageRepository.findTextsAfter(after, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            put(batch);
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        index.optimize();
+        changes.incrementAndGet();
+        log.info("Full-text index rebuilt with {} images", index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesSaved(ImagesSavedEvent event) {
+        if (event.getImageIds().isEmpty()) {
+            return;
+        }
+        Set<Integer> missing = new HashSet<>(event.getImageIds());
+        List<ImageText> texts = imageRepository.findTextsByIdIn(event.getImageIds());
+        put(texts);
+        texts.forEach(text -> missing.remove(text.getId()));
+        missing.forEach(index::remove);
+        changes.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesDeleted(ImagesDeletedEvent event) {
+        event.getImageIds().forEach(index::remove);
+        changes.incrementAndGet();
+    }
+
+    public int[] search(String text) {
+        if (FullTextIndex.tokenize(text).isEmpty()) {
+            throw new InvalidSearchException("Parameter text must contain at least one word");
+        }
+        return index.search(text);
+    }
+
+    @Scheduled(fixedDelayString = "${image-service.search.full-text.snapshot-interval:60000}")
+    @PreDestroy
+    public synchronized void snapshot() {
+        long seen = changes.get();
+        // until start() has loaded or rebuilt the index, a snapshot would overwrite the previous one with less
+        if (!persistenceEnabled || !started || seen == snapshotChanges) {
+            return;
+        }
+
+        LocalDateTime takenOn = LocalDateTime.now();
+        Path tmpFile = null;
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            tmpFile = Files.createTempFile(snapshotFile.getParent(), "full-text-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                out.writeLong(takenOn.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                index.write(out);
+            }
+            Files.move(tmpFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshotChanges = seen;
+        } catch (IOException e) {
+            log.warn("Could not write full-text index snapshot to {}", snapshotFile, e);
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    private LocalDateTime load() {
+        if (!Files.exists(snapshotFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            LocalDateTime takenOn = LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault());
+            index.read(in);
+            return takenOn;
+        } catch (IOException e) {
+            log.warn("Could not read full-text index snapshot from {}, rebuilding it", snapshotFile, e);
+            return null;
+        }
+    }
+
+    // deletes are found by merging the indexed ids with the stored ones, updates by their updated_on stamp
+    private void catchUp(LocalDateTime since) {
+        int[] indexed = index.imageIds();
+        Set<Integer> stale = new HashSet<>(imageRepository.findIdsUpdatedSince(since));
+        List<Integer> removed = new ArrayList<>();
+        int position = 0;
+        int after = 0;
+        List<Integer> batch;
+        do {
+            batch = imageRepository.findIdsAfter(after, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Integer imageId : batch) {
+                while (position < indexed.length && indexed[position] < imageId) {
+                    removed.add(indexed[position++]);
+                }
+                if (position < indexed.length && indexed[position] == imageId) {
+                    position++;
+                } else {
+                    stale.add(imageId);
+                }
+                after = imageId;
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        while (position < indexed.length) {
+            removed.add(indexed[position++]);
+        }
+
+        removed.forEach(index::remove);
+        List<Integer> staleIds = new ArrayList<>(stale);
+        for (int from = 0; from < staleIds.size(); from += REBUILD_BATCH_SIZE) {
+            put(imageRepository.findTextsByIdIn(
+                    staleIds.subList(from, Math.min(from + REBUILD_BATCH_SIZE, staleIds.size()))));
+        }
+        if (!removed.isEmpty() || !stale.isEmpty()) {
+            changes.incrementAndGet();
+        }
+        log.info("Full-text index loaded from {} with {} images, {} reindexed and {} removed",
+                snapshotFile, index.size(), stale.size(), removed.size());
+    }
+
+    private void put(List<ImageText> texts) {
+        if (texts.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Tag> tags = tagRepository.findAll().stream()
+                .collect(Collectors.toMap(Tag::getId, Function.identity()));
+        Map<Integer, StringJoiner> tagNames = new HashMap<>();
+        for (ImageTagId imageTagId : imageRepository.findTagIdsByImageIdIn(texts.stream()
+                .map(ImageText::getId)
+                .collect(Collectors.toList()))) {
+            tagNames.computeIfAbsent(imageTagId.getImageId(), id -> new StringJoiner(" "))
+                    .add(tags.get(imageTagId.getTagId()).getTagName());
+        }
+
+        for (ImageText text : texts) {
+            StringJoiner document = new StringJoiner(" ");
+            document.add(text.getOriginalName() == null ? "" : text.getOriginalName());
+            document.add(text.getCameraModel() == null ? "" : text.getCameraModel());
+            document.add(tagNames.getOrDefault(text.getId(), new StringJoiner(" ")).toString());
+            index.put(text.getId(), document.toString());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+}
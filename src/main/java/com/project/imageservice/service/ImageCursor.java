@@ -0,0 +1,37 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ImageKey;
+import com.project.imageservice.exception.type.InvalidSearchException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public final class ImageCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private ImageCursor() {
+    }
+
+    public static String encode(ImageKey key) {
+        String value = key.getCreatedOn().toString() + SEPARATOR + key.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ImageKey decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            if (separator == -1) {
+                throw new InvalidSearchException("Cursor " + cursor + " is not valid");
+            }
+            return new ImageKey(
+                    Integer.valueOf(value.substring(separator + 1)),
+                    LocalDateTime.parse(value.substring(0, separator)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidSearchException("Cursor " + cursor + " is not valid");
+        }
+    }
+}
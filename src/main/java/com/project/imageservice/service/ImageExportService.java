@@ -0,0 +1,104 @@
+package com.project.imageservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.dao.ImageSearchRepository;
+import com.project.imageservice.dao.ImageTagId;
+import com.project.imageservice.dao.TagRepository;
+import com.project.imageservice.domain.Image;
+import com.project.imageservice.domain.Tag;
+import com.project.imageservice.mapper.ImageMapper;
+import com.project.imageservice.search.SearchProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ImageExportService {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private final ImageSearchRepository imageSearchRepository;
+    private final ImageRepository imageRepository;
+    private final TagRepository tagRepository;
+    private final ImageMapper imageMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final SearchProperties searchProperties;
+
+    // windows of a full-text match ascend by id, so streaming them one after the other keeps the export in id order
+    @Transactional(readOnly = true)
+    public long export(List<Specification<Image>> specifications, OutputStream out) throws IOException {
+        int batchSize = searchProperties.getExport().getBatchSize();
+
+        Map<Integer, Tag> tags = tagRepository.findAll().stream()
+                .collect(Collectors.toMap(Tag::getId, Function.identity()));
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        long exported = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            List<Image> batch = new ArrayList<>(batchSize);
+            for (Specification<Image> specification : specifications) {
+                try (Stream<Image> images = imageSearchRepository.stream(specification, batchSize)) {
+                    Iterator<Image> iterator = images.iterator();
+                    while (iterator.hasNext()) {
+                        batch.add(iterator.next());
+                        if (batch.size() == batchSize) {
+                            exported += write(batch, tags, writer, generator);
+                        }
+                    }
+                }
+            }
+            exported += write(batch, tags, writer, generator);
+        }
+        return exported;
+    }
+
+    // every batch is flushed to the client and detached, so memory does not grow with the result size
+    private int write(List<Image> batch, Map<Integer, Tag> tags, ObjectWriter writer, JsonGenerator generator)
+            throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, List<Tag>> imageTags = new HashMap<>();
+        List<Integer> imageIds = batch.stream()
+                .map(Image::getId)
+                .collect(Collectors.toList());
+        for (ImageTagId imageTagId : imageRepository.findTagIdsByImageIdIn(imageIds)) {
+            imageTags.computeIfAbsent(imageTagId.getImageId(), id -> new ArrayList<>())
+                    .add(tags.get(imageTagId.getTagId()));
+        }
+
+        for (Image image : batch) {
+            writer.writeValue(generator, imageMapper.mapToDo(image, imageTags.getOrDefault(image.getId(), List.of())));
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+
+        int written = batch.size();
+        batch.clear();
+        entityManager.clear();
+        return written;
+    }
+}
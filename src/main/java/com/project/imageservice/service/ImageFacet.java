@@ -0,0 +1,16 @@
+package com.project.imageservice.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum ImageFacet {
+
+    TAGS("tags"),
+    CONTENT_TYPE("contentType"),
+    SIZE_BUCKET("sizeBucket");
+
+    private final String parameterName;
+
+}
@@ -0,0 +1,148 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ImageSearchRepository;
+import com.project.imageservice.domain.Image;
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.exception.type.InvalidSearchException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class ImageFacetService {
+
+    private static final SizeBucket[] SIZE_BUCKETS = SizeBucket.values();
+    private static final int[] SIZE_BOUNDS = Arrays.stream(SIZE_BUCKETS, 0, SIZE_BUCKETS.length - 1)
+            .mapToInt(SizeBucket::getSizeBelow)
+            .toArray();
+
+    private final ImageSearchRepository imageSearchRepository;
+    private final ImageSpecificationCreator imageSpecificationCreator;
+    private final TagIndexService tagIndexService;
+
+    @Transactional(readOnly = true)
+    public Map<String, Map<String, Long>> countFacets(ImageSearchFilter filter, List<String> facetNames) {
+        Set<ImageFacet> facets = parseFacets(facetNames);
+        List<Specification<Image>> specifications = null;
+
+        Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+        if (facets.contains(ImageFacet.TAGS)) {
+            Map<Integer, ? extends Number> tagCounts;
+            if (isTagIndexOnly(filter)) {
+                tagCounts = tagIndexService.countImagesByTag(filter.getAllTags(), filter.getAnyTags(), filter.getNotTags());
+            } else {
+                specifications = imageSpecificationCreator.getImageWindows(filter);
+                tagCounts = countByTag(specifications);
+            }
+            Map<String, Long> values = new LinkedHashMap<>();
+            tagCounts.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Integer, ? extends Number>>comparingLong(e -> -e.getValue().longValue())
+                            .thenComparing(Map.Entry::getKey))
+                    .forEach(e -> values.put(String.valueOf(e.getKey()), e.getValue().longValue()));
+            counts.put(ImageFacet.TAGS.getParameterName(), values);
+        }
+
+        if (facets.contains(ImageFacet.CONTENT_TYPE) || facets.contains(ImageFacet.SIZE_BUCKET)) {
+            if (specifications == null) {
+                specifications = imageSpecificationCreator.getImageWindows(filter);
+            }
+            Map<String, long[]> rows = countByContentTypeAndSize(specifications);
+            if (facets.contains(ImageFacet.CONTENT_TYPE)) {
+                counts.put(ImageFacet.CONTENT_TYPE.getParameterName(), countByContentType(rows));
+            }
+            if (facets.contains(ImageFacet.SIZE_BUCKET)) {
+                counts.put(ImageFacet.SIZE_BUCKET.getParameterName(), countBySizeBucket(rows));
+            }
+        }
+        return counts;
+    }
+
+    // the windows of a full-text match are disjoint, so their counts add up
+    private Map<Integer, Long> countByTag(List<Specification<Image>> specifications) {
+        if (specifications.size() == 1) {
+            return imageSearchRepository.countByTag(specifications.get(0));
+        }
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Specification<Image> specification : specifications) {
+            imageSearchRepository.countByTag(specification).forEach((tagId, count) -> counts.merge(tagId, count, Long::sum));
+        }
+        return counts;
+    }
+
+    private Map<String, long[]> countByContentTypeAndSize(List<Specification<Image>> specifications) {
+        if (specifications.size() == 1) {
+            return imageSearchRepository.countByContentTypeAndSize(specifications.get(0), SIZE_BOUNDS);
+        }
+        Map<String, long[]> counts = new HashMap<>();
+        for (Specification<Image> specification : specifications) {
+            imageSearchRepository.countByContentTypeAndSize(specification, SIZE_BOUNDS).forEach((contentType, row) ->
+                    counts.merge(contentType, row, (sum, next) -> {
+                        for (int i = 0; i < sum.length; i++) {
+                            sum[i] += next[i];
+                        }
+                        return sum;
+                    }));
+        }
+        return counts;
+    }
+
+    private Map<String, Long> countByContentType(Map<String, long[]> rows) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        rows.entrySet().stream()
+                .filter(e -> e.getKey() != null)
+                .sorted(Comparator.<Map.Entry<String, long[]>>comparingLong(e -> -e.getValue()[0])
+                        .thenComparing(Map.Entry::getKey))
+                .forEach(e -> values.put(e.getKey(), e.getValue()[0]));
+        return values;
+    }
+
+    // each row holds the image count, the count of images with a size and the cumulative counts below each bound
+    private Map<String, Long> countBySizeBucket(Map<String, long[]> rows) {
+        long[] below = new long[SIZE_BUCKETS.length];
+        for (long[] row : rows.values()) {
+            for (int i = 0; i < SIZE_BOUNDS.length; i++) {
+                below[i] += row[i + 2];
+            }
+            below[SIZE_BUCKETS.length - 1] += row[1];
+        }
+
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (int i = 0; i < SIZE_BUCKETS.length; i++) {
+            values.put(SIZE_BUCKETS[i].getName(), below[i] - (i == 0 ? 0 : below[i - 1]));
+        }
+        return values;
+    }
+
+    private static boolean isTagIndexOnly(ImageSearchFilter filter) {
+        ImageSearchFilter rest = new ImageSearchFilter();
+        BeanUtils.copyProperties(filter, rest);
+        rest.setAllTags(null);
+        rest.setAnyTags(null);
+        rest.setNotTags(null);
+        rest.setTagMatch(null);
+        return rest.equals(new ImageSearchFilter());
+    }
+
+    private static Set<ImageFacet> parseFacets(List<String> facetNames) {
+        Set<ImageFacet> facets = EnumSet.noneOf(ImageFacet.class);
+        for (String facetName : facetNames) {
+            facets.add(Arrays.stream(ImageFacet.values())
+                    .filter(facet -> facet.getParameterName().equals(facetName))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidSearchException(String.format("Unsupported facet - %s", facetName))));
+        }
+        return facets;
+    }
+}
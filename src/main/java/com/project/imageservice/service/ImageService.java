@@ -2,12 +2,22 @@ package com.project.imageservice.service;
 
 import com.project.imageservice.domain.Image;
 import com.project.imageservice.dto.image.CreateImageDto;
+import com.project.imageservice.dto.image.ImageCursorPageDto;
 import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.dto.image.ImageSliceDto;
+import com.project.imageservice.dto.image.TilePyramidDto;
 import com.project.imageservice.dto.image.UpdateImageDto;
+import com.project.imageservice.dto.image.UploadImageDto;
+import com.project.imageservice.dto.image.UploadResultDto;
+import com.project.imageservice.storage.ImageContent;
+import com.project.imageservice.storage.StoredBlob;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.io.InputStream;
 import java.util.List;
 
 public interface ImageService {
@@ -16,10 +26,34 @@ public interface ImageService {
 
     ImageDto findById(Integer accountId, Integer imageId);
 
-    Page<ImageDto> findBySpecification(Specification<Image> specification, Pageable pageable);
+    ImageContent findContent(Integer accountId, Integer imageId);
+
+    ImageContent findThumbnail(Integer accountId, Integer imageId);
+
+    TilePyramidDto findTilePyramid(Integer accountId, Integer imageId);
+
+    ImageContent findTile(Integer accountId, Integer imageId, int level, int x, int y);
+
+    Page<ImageDto> findByFilter(ImageSearchFilter filter, Pageable pageable);
+
+    Page<ImageDto> findBySpecification(Specification<Image> specification, Pageable pageable, List<Integer> matchedTagsIds);
+
+    ImageCursorPageDto findBySpecification(List<Specification<Image>> specifications, String after, int limit);
+
+    ImageSliceDto findSlice(ImageSearchFilter filter, Pageable pageable, boolean approximateTotal);
 
     ImageDto create(CreateImageDto createImageDto, Integer accountId);
 
+    ImageDto upload(UploadImageDto uploadImageDto, InputStream content, Integer accountId);
+
+    ImageDto createFromBlob(UploadImageDto uploadImageDto, StoredBlob storedBlob, Integer accountId);
+
+    List<UploadResultDto> uploadBatch(
+            List<UploadImageDto> uploadImageDtos,
+            List<? extends InputStreamSource> contents,
+            Integer accountId
+    );
+
     ImageDto update(Integer accountId, Integer imageId, UpdateImageDto updateImageDto);
 
     void delete(Integer accountId, Integer imageId);
@@ -1,40 +1,105 @@
 package com.project.imageservice.service;
 
 import com.project.imageservice.dao.AccountRepository;
+import com.project.imageservice.dao.ImageFeatures;
+import com.project.imageservice.dao.ImageJdbcRepository;
+import com.project.imageservice.dao.ImageKey;
 import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.dao.ImageSearchRepository;
+import com.project.imageservice.dao.ImageTagId;
 import com.project.imageservice.dao.TagRepository;
 import com.project.imageservice.domain.Account;
 import com.project.imageservice.domain.Image;
 import com.project.imageservice.domain.Tag;
 import com.project.imageservice.dto.image.CreateImageDto;
+import com.project.imageservice.dto.image.ImageCursorPageDto;
 import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.dto.image.ImageSliceDto;
+import com.project.imageservice.dto.image.TilePyramidDto;
 import com.project.imageservice.dto.image.UpdateImageDto;
+import com.project.imageservice.dto.image.UploadImageDto;
+import com.project.imageservice.dto.image.UploadResultDto;
+import com.project.imageservice.dto.image.UploadStatus;
 import com.project.imageservice.exception.type.AccountNotFoundException;
 import com.project.imageservice.exception.type.EntityNotFoundException;
+import com.project.imageservice.exception.type.ImageContentNotFoundException;
 import com.project.imageservice.exception.type.ImageNotFoundException;
+import com.project.imageservice.exception.type.InvalidSearchException;
+import com.project.imageservice.exception.type.StorageException;
 import com.project.imageservice.exception.type.TagNotFoundException;
+import com.project.imageservice.exception.type.ThumbnailNotFoundException;
+import com.project.imageservice.exception.type.TileNotFoundException;
 import com.project.imageservice.mapper.ImageMapper;
+import com.project.imageservice.metadata.ImageMetadata;
+import com.project.imageservice.metadata.ImageMetadataReader;
+import com.project.imageservice.storage.BlobStore;
+import com.project.imageservice.storage.ContentInspector;
+import com.project.imageservice.storage.ContentSniffer;
+import com.project.imageservice.storage.ImageContent;
+import com.project.imageservice.storage.StoredBlob;
+import com.project.imageservice.storage.ThumbnailStore;
+import com.project.imageservice.storage.TilePyramid;
+import com.project.imageservice.storage.TileStore;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ImageServiceImpl implements ImageService {
 
+    public static final int MAX_SEARCH_LIMIT = 1000;
+
+    private static final int RELEVANCE_WINDOW = ImageSpecificationCreator.MAX_BOUND_IDS;
+
     private final ImageRepository imageRepository;
+    private final ImageSearchRepository imageSearchRepository;
+    private final ImageSpecificationCreator imageSpecificationCreator;
+    private final ApproximateCountCache approximateCountCache;
+    private final SearchResultCache searchResultCache;
+    private final FullTextIndexService fullTextIndexService;
     private final ImageMapper imageMapper;
     private final AccountRepository accountRepository;
     private final TagRepository tagRepository;
+    private final BlobStore blobStore;
+    private final ImageJdbcRepository imageJdbcRepository;
+    private final ThreadPoolTaskExecutor uploadExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentBlobService contentBlobService;
+    private final ThumbnailStore thumbnailStore;
+    private final TileStore tileStore;
+    private final ImageMetadataReader imageMetadataReader;
+    private final ContentSniffer contentSniffer;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -59,15 +124,190 @@ public class ImageServiceImpl implements ImageService {
                 .orElseThrow(() -> new ImageNotFoundException(imageId, accountId));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ImageContent findContent(Integer accountId, Integer imageId) {
+        accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(accountId));
+
+        Image image = imageRepository.findByIdAndAccountId(accountId, imageId)
+                .orElseThrow(() -> new ImageNotFoundException(imageId, accountId));
+
+        String contentHash = image.getContentHash();
+        if (contentHash == null || !blobStore.exists(contentHash)) {
+            throw new ImageContentNotFoundException(imageId, accountId);
+        }
+
+        return new ImageContent(blobStore.resolve(contentHash), contentHash, image.getContentType());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImageContent findThumbnail(Integer accountId, Integer imageId) {
+        accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(accountId));
+
+        Image image = imageRepository.findByIdAndAccountId(accountId, imageId)
+                .orElseThrow(() -> new ImageNotFoundException(imageId, accountId));
+
+        String contentHash = image.getContentHash();
+        if (contentHash == null || !thumbnailStore.exists(contentHash)) {
+            throw new ThumbnailNotFoundException(imageId, accountId);
+        }
+
+        return new ImageContent(thumbnailStore.resolve(contentHash), contentHash, ThumbnailStore.CONTENT_TYPE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TilePyramidDto findTilePyramid(Integer accountId, Integer imageId) {
+        String contentHash = findContentHash(accountId, imageId);
+
+        TilePyramid tilePyramid = contentHash != null ? tileStore.findPyramid(contentHash) : null;
+        if (tilePyramid == null) {
+            throw new TileNotFoundException(imageId, accountId);
+        }
+
+        return new TilePyramidDto(
+                tilePyramid.getWidth(),
+                tilePyramid.getHeight(),
+                tilePyramid.getTileSize(),
+                tilePyramid.getLevels());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImageContent findTile(Integer accountId, Integer imageId, int level, int x, int y) {
+        String contentHash = findContentHash(accountId, imageId);
+
+        if (contentHash == null || level < 0 || x < 0 || y < 0 || !tileStore.exists(contentHash, level, x, y)) {
+            throw new TileNotFoundException(imageId, accountId);
+        }
+
+        return new ImageContent(
+                tileStore.resolve(contentHash, level, x, y),
+                contentHash + "-" + level + "-" + x + "-" + y,
+                TileStore.CONTENT_TYPE);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<ImageDto> findBySpecification(
             Specification<Image> specification,
-            Pageable pageable
+            Pageable pageable,
+            List<Integer> matchedTagsIds
+    ) {
+
+        Page<Integer> ids = imageSearchRepository.findIds(specification, pageable, matchedTagsIds);
+        return new PageImpl<>(findAllByIdInOrder(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ImageDto> findByFilter(ImageSearchFilter filter, Pageable pageable) {
+        validateRelevanceOrder(filter, pageable);
+        Page<Integer> ids = searchResultCache.get(filter, pageable, () -> filter.getText() != null
+                ? findIdsByRelevance(filter, pageable)
+                : imageSearchRepository.findIds(imageSpecificationCreator.getImages(filter), pageable, filter.getTagsIds()));
+        return new PageImpl<>(findAllByIdInOrder(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    private Page<Integer> findIdsByRelevance(ImageSearchFilter filter, Pageable pageable) {
+        int[] ranked = fullTextIndexService.search(filter.getText());
+        Specification<Image> restSpecification = getRestSpecification(filter);
+
+        long wanted = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() : Long.MAX_VALUE;
+        List<Integer> matched = new ArrayList<>();
+        int scanned = collectRankedMatches(ranked, restSpecification, wanted, matched);
+        long total = matched.size() + countRankedMatches(ranked, scanned, restSpecification);
+
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), matched.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), matched.size()) : matched.size();
+        return new PageImpl<>(new ArrayList<>(matched.subList(from, to)), pageable, total);
+    }
+
+    // the full-text ranking decides the order, the remaining criteria narrow it down one window of ranked ids at a time
+    private int collectRankedMatches(int[] ranked, Specification<Image> restSpecification, long wanted, List<Integer> matched) {
+        if (restSpecification == null) {
+            int scanned = (int) Math.min(wanted, ranked.length);
+            Arrays.stream(ranked, 0, scanned).forEach(matched::add);
+            return scanned;
+        }
+
+        int scanned = 0;
+        while (scanned < ranked.length && matched.size() < wanted) {
+            int[] window = Arrays.copyOfRange(ranked, scanned, Math.min(scanned + RELEVANCE_WINDOW, ranked.length));
+            Set<Integer> matching = new HashSet<>(imageSearchRepository.findIds(
+                    restSpecification.and(imageSpecificationCreator.getImagesByIdIn(window)),
+                    Pageable.unpaged(),
+                    null).getContent());
+            for (int imageId : window) {
+                if (matching.contains(imageId)) {
+                    matched.add(imageId);
+                }
+            }
+            scanned += window.length;
+        }
+        return scanned;
+    }
+
+    private long countRankedMatches(int[] ranked, int from, Specification<Image> restSpecification) {
+        if (restSpecification == null) {
+            return ranked.length - from;
+        }
+
+        long count = 0;
+        for (int scanned = from; scanned < ranked.length; scanned += RELEVANCE_WINDOW) {
+            int[] window = Arrays.copyOfRange(ranked, scanned, Math.min(scanned + RELEVANCE_WINDOW, ranked.length));
+            count += imageSearchRepository.count(restSpecification.and(imageSpecificationCreator.getImagesByIdIn(window)));
+        }
+        return count;
+    }
+
+    private Specification<Image> getRestSpecification(ImageSearchFilter filter) {
+        ImageSearchFilter rest = new ImageSearchFilter();
+        BeanUtils.copyProperties(filter, rest);
+        rest.setText(null);
+        return rest.equals(new ImageSearchFilter()) ? null : imageSpecificationCreator.getImages(rest);
+    }
+
+    private static void validateRelevanceOrder(ImageSearchFilter filter, Pageable pageable) {
+        if (filter.getText() != null && pageable.getSort().isSorted()) {
+            throw new InvalidSearchException("Parameter sort cannot be combined with text, matches are ordered by relevance");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImageCursorPageDto findBySpecification(
+            List<Specification<Image>> specifications,
+            String after,
+            int limit
     ) {
 
-        return imageRepository.findAll(specification, pageable)
-                .map(i -> imageMapper.mapToDo(i));
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new InvalidSearchException(String.format("Parameter limit must be between 1 and %s", MAX_SEARCH_LIMIT));
+        }
+
+        ImageKey afterKey = after == null || after.isEmpty() ? null : ImageCursor.decode(after);
+        List<ImageKey> keys = new ArrayList<>();
+        for (Specification<Image> specification : specifications) {
+            keys.addAll(imageSearchRepository.findKeysAfter(specification, afterKey, limit + 1));
+        }
+        // windows are merged back into the newest-first order of a single query
+        if (specifications.size() > 1) {
+            keys.sort(Comparator.comparing(ImageKey::getCreatedOn).thenComparing(ImageKey::getId).reversed());
+        }
+        boolean hasNext = keys.size() > limit;
+        if (hasNext) {
+            keys = keys.subList(0, limit);
+        }
+
+        List<ImageDto> content = findAllByIdInOrder(keys.stream()
+                .map(ImageKey::getId)
+                .collect(Collectors.toList()));
+
+        return new ImageCursorPageDto(content, hasNext ? ImageCursor.encode(keys.get(keys.size() - 1)) : null);
     }
 
     @Override
@@ -92,14 +332,168 @@ public class ImageServiceImpl implements ImageService {
         image.setOriginalName(createImageDto.getOriginalName());
         image.setContentType(createImageDto.getContentType());
         image.setSize(createImageDto.getSize());
+        image.setThumbnailAvailable(false);
         LocalDateTime now = LocalDateTime.now();
         image.setCreatedOn(now);
         image.setUpdatedOn(now);
         image.setTags(tags);
 
-        imageRepository.save(image);
+        Image saved = imageRepository.save(image);
+        applicationEventPublisher.publishEvent(new ImagesSavedEvent(List.of(saved.getId())));
+        applicationEventPublisher.publishEvent(new SearchResultsChangedEvent(accountId, tagIds(tags)));
+
+        return imageMapper.mapToDo(saved);
+    }
+
+    @Override
+    @Transactional
+    public ImageDto upload(
+            UploadImageDto uploadImageDto,
+            InputStream content,
+            Integer accountId
+    ) {
+
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(accountId));
+
+        List<Integer> requestListTags = uploadImageDto.getTagsIds();
+        List<Tag> tags = tagRepository.findByIdIn(requestListTags);
+
+        validateTags(tags, requestListTags);
+        contentSniffer.checkDeclared(uploadImageDto.getContentType());
+
+        StoredBlob storedBlob = blobStore.store(content, inspector(uploadImageDto));
+
+        return createFromBlob(account, tags, uploadImageDto, storedBlob);
+    }
+
+    @Override
+    @Transactional
+    public ImageDto createFromBlob(
+            UploadImageDto uploadImageDto,
+            StoredBlob storedBlob,
+            Integer accountId
+    ) {
+
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(accountId));
+
+        List<Integer> requestListTags = uploadImageDto.getTagsIds();
+        List<Tag> tags = tagRepository.findByIdIn(requestListTags);
+
+        validateTags(tags, requestListTags);
+
+        return createFromBlob(account, tags, uploadImageDto, storedBlob);
+    }
+
+    @Override
+    public List<UploadResultDto> uploadBatch(
+            List<UploadImageDto> uploadImageDtos,
+            List<? extends InputStreamSource> contents,
+            Integer accountId
+    ) {
+
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(accountId));
+
+        List<Integer> requestListTags = uploadImageDtos.stream()
+                .flatMap(u -> u.getTagsIds().stream())
+                .distinct()
+                .collect(Collectors.toList());
+        List<Tag> tags = tagRepository.findByIdIn(requestListTags);
+
+        validateTags(tags, requestListTags);
+
+        Map<Integer, Tag> tagsById = tags.stream()
+                .collect(Collectors.toMap(Tag::getId, Function.identity()));
+
+        List<CompletableFuture<StoredUpload>> storedUploads = new ArrayList<>(contents.size());
+        for (int i = 0; i < contents.size(); i++) {
+            UploadImageDto uploadImageDto = uploadImageDtos.get(i);
+            InputStreamSource content = contents.get(i);
+            storedUploads.add(CompletableFuture.supplyAsync(() -> storeUpload(uploadImageDto, content), uploadExecutor));
+        }
+
+        List<UploadResultDto> results = new ArrayList<>(uploadImageDtos.size());
+        List<StoredUpload> stored = new ArrayList<>(uploadImageDtos.size());
+        List<UploadResultDto> createdResults = new ArrayList<>(uploadImageDtos.size());
+
+        for (int i = 0; i < uploadImageDtos.size(); i++) {
+            UploadResultDto result = new UploadResultDto();
+            result.setOriginalName(uploadImageDtos.get(i).getOriginalName());
+            results.add(result);
+
+            try {
+                stored.add(storedUploads.get(i).join());
+                createdResults.add(result);
+            } catch (CompletionException e) {
+                result.setStatus(UploadStatus.FAILED);
+                result.setError(e.getCause().getMessage());
+            }
+        }
+
+        List<Image> images = new ArrayList<>(stored.size());
+        Map<String, StoredBlob> referencedBlobs = new HashMap<>();
+        Map<String, Integer> references = new HashMap<>();
+        Map<String, Optional<ImageFeatures>> imageFeatures = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (StoredUpload storedUpload : stored) {
+            referencedBlobs.putIfAbsent(storedUpload.storedBlob.getContentHash(), storedUpload.storedBlob);
+        }
+
+        try {
+            for (StoredUpload storedUpload : stored) {
+                UploadImageDto uploadImageDto = storedUpload.uploadImageDto;
+                StoredBlob storedBlob = storedUpload.storedBlob;
+
+                Image image = new Image();
+
+                image.setAccount(account);
+
+                image.setOriginalName(uploadImageDto.getOriginalName());
+                image.setContentType(uploadImageDto.getContentType());
+                image.setSize(Math.toIntExact(storedBlob.getSize()));
+                image.setContentHash(storedBlob.getContentHash());
+                image.setThumbnailAvailable(thumbnailStore.exists(storedBlob.getContentHash()));
+                imageFeatures.computeIfAbsent(
+                                storedBlob.getContentHash(), imageRepository::findFirstByContentHashAndPerceptualHashNotNull)
+                        .ifPresent(features -> copyFeatures(image, features));
+                copyMetadata(image, storedUpload.imageMetadata);
+                image.setCreatedOn(now);
+                image.setUpdatedOn(now);
+                image.setTags(uploadImageDto.getTagsIds().stream()
+                        .distinct()
+                        .map(tagsById::get)
+                        .collect(Collectors.toList()));
+
+                images.add(image);
+                references.merge(storedBlob.getContentHash(), 1, Integer::sum);
+            }
 
-        return imageMapper.mapToDo(image);
+            transactionTemplate.executeWithoutResult(status -> {
+                imageJdbcRepository.insertAll(images);
+                referencedBlobs.forEach((contentHash, storedBlob) -> {
+                    contentBlobService.acquire(storedBlob, references.get(contentHash));
+                    applicationEventPublisher.publishEvent(new ContentStoredEvent(contentHash));
+                });
+                applicationEventPublisher.publishEvent(new ImagesSavedEvent(images.stream()
+                        .map(Image::getId)
+                        .collect(Collectors.toList())));
+                applicationEventPublisher.publishEvent(new SearchResultsChangedEvent(accountId, tagsById.keySet()));
+            });
+        } catch (RuntimeException e) {
+            referencedBlobs.values().forEach(contentBlobService::abandon);
+            throw e;
+        }
+
+        for (int i = 0; i < images.size(); i++) {
+            UploadResultDto result = createdResults.get(i);
+            result.setStatus(UploadStatus.CREATED);
+            result.setImage(imageMapper.mapToDo(images.get(i)));
+        }
+
+        return results;
     }
 
     @Override
@@ -121,6 +515,9 @@ public class ImageServiceImpl implements ImageService {
 
         validateTags(tags, requestListTags);
 
+        Set<Integer> changedTagIds = new HashSet<>(tagIds(image.getTags()));
+        changedTagIds.addAll(tagIds(tags));
+
         image.setAccount(account);
 
         image.setOriginalName(updateImageDto.getOriginalName());
@@ -129,10 +526,11 @@ public class ImageServiceImpl implements ImageService {
         image.setUpdatedOn(LocalDateTime.now());
         image.setTags(tags);
 
-        imageRepository.save(image);
-
+        Image saved = imageRepository.save(image);
+        applicationEventPublisher.publishEvent(new ImagesSavedEvent(List.of(saved.getId())));
+        applicationEventPublisher.publishEvent(new SearchResultsChangedEvent(accountId, changedTagIds));
 
-        return imageMapper.mapToDo(image);
+        return imageMapper.mapToDo(saved);
     }
 
     @Override
@@ -141,7 +539,177 @@ public class ImageServiceImpl implements ImageService {
             Integer accountId,
             Integer imageId
     ) {
+        imageRepository.findContentHashByIdAndAccountId(accountId, imageId)
+                .ifPresent(contentHash -> contentBlobService.release(contentHash, 1));
+
+        List<Integer> tagIds = imageRepository.findTagIdsByImageIdIn(List.of(imageId)).stream()
+                .map(ImageTagId::getTagId)
+                .collect(Collectors.toList());
+
         imageRepository.deleteByIdAndAccountId(accountId, imageId);
+        applicationEventPublisher.publishEvent(new ImagesDeletedEvent(List.of(imageId)));
+        applicationEventPublisher.publishEvent(new SearchResultsChangedEvent(accountId, tagIds));
+    }
+
+    private ImageDto createFromBlob(
+            Account account,
+            List<Tag> tags,
+            UploadImageDto uploadImageDto,
+            StoredBlob storedBlob
+    ) {
+
+        Image image = new Image();
+
+        image.setAccount(account);
+
+        image.setOriginalName(uploadImageDto.getOriginalName());
+        image.setContentType(uploadImageDto.getContentType());
+        image.setSize(Math.toIntExact(storedBlob.getSize()));
+        image.setContentHash(storedBlob.getContentHash());
+        image.setThumbnailAvailable(thumbnailStore.exists(storedBlob.getContentHash()));
+        imageRepository.findFirstByContentHashAndPerceptualHashNotNull(storedBlob.getContentHash())
+                .ifPresent(features -> copyFeatures(image, features));
+        copyMetadata(image, imageMetadataReader.read(blobStore.resolve(storedBlob.getContentHash())));
+        LocalDateTime now = LocalDateTime.now();
+        image.setCreatedOn(now);
+        image.setUpdatedOn(now);
+        image.setTags(tags);
+
+        Image saved = imageRepository.save(image);
+        contentBlobService.acquire(storedBlob, 1);
+        if (!image.getThumbnailAvailable() || image.getPerceptualHash() == null || image.getVisualFeatures() == null
+                || image.getPlaceholder() == null) {
+            applicationEventPublisher.publishEvent(new ContentStoredEvent(storedBlob.getContentHash()));
+        }
+        applicationEventPublisher.publishEvent(new ImagesSavedEvent(List.of(saved.getId())));
+        applicationEventPublisher.publishEvent(new SearchResultsChangedEvent(account.getId(), tagIds(tags)));
+
+        return imageMapper.mapToDo(saved);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImageSliceDto findSlice(
+            ImageSearchFilter filter,
+            Pageable pageable,
+            boolean approximateTotal
+    ) {
+
+        if (filter.getText() != null) {
+            return findSliceByRelevance(filter, pageable, approximateTotal);
+        }
+
+        Specification<Image> specification = imageSpecificationCreator.getImages(filter);
+        Slice<Integer> ids = imageSearchRepository.findIdSlice(specification, pageable, filter.getTagsIds());
+        Long total = approximateTotal
+                ? approximateCountCache.get(filter, () -> imageSearchRepository.count(specification))
+                : null;
+
+        return new ImageSliceDto(
+                findAllByIdInOrder(ids.getContent()),
+                ids.getNumber(),
+                ids.getSize(),
+                ids.hasNext(),
+                total);
+    }
+
+    private ImageSliceDto findSliceByRelevance(ImageSearchFilter filter, Pageable pageable, boolean approximateTotal) {
+        validateRelevanceOrder(filter, pageable);
+        int[] ranked = fullTextIndexService.search(filter.getText());
+        Specification<Image> restSpecification = getRestSpecification(filter);
+
+        long wanted = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() + 1 : Long.MAX_VALUE;
+        List<Integer> matched = new ArrayList<>();
+        int scanned = collectRankedMatches(ranked, restSpecification, wanted, matched);
+        Long total = approximateTotal
+                ? approximateCountCache.get(filter, () -> matched.size() + countRankedMatches(ranked, scanned, restSpecification))
+                : null;
+
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), matched.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), matched.size()) : matched.size();
+        Slice<Integer> ids = new SliceImpl<>(matched.subList(from, to), pageable, to < matched.size());
+
+        return new ImageSliceDto(
+                findAllByIdInOrder(ids.getContent()),
+                ids.getNumber(),
+                ids.getSize(),
+                ids.hasNext(),
+                total);
+    }
+
+    private List<ImageDto> findAllByIdInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, Image> images = imageRepository.findAllWithTagsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Image::getId, Function.identity()));
+
+        List<ImageDto> imageDtos = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Image image = images.get(id);
+            if (image != null) {
+                imageDtos.add(imageMapper.mapToDo(image));
+            }
+        }
+        return imageDtos;
+    }
+
+    private static List<Integer> tagIds(List<Tag> tags) {
+        return tags.stream()
+                .map(Tag::getId)
+                .collect(Collectors.toList());
+    }
+
+    private void copyFeatures(Image image, ImageFeatures features) {
+        image.setPerceptualHash(features.getPerceptualHash());
+        image.setVisualFeatures(features.getVisualFeatures());
+        image.setPlaceholder(features.getPlaceholder());
+    }
+
+    private void copyMetadata(Image image, ImageMetadata metadata) {
+        image.setWidth(metadata.getWidth());
+        image.setHeight(metadata.getHeight());
+        image.setOrientation(metadata.getOrientation());
+        image.setCapturedOn(metadata.getCapturedOn());
+        image.setCameraModel(metadata.getCameraModel());
+        image.setLatitude(metadata.getLatitude());
+        image.setLongitude(metadata.getLongitude());
+    }
+
+    private String findContentHash(Integer accountId, Integer imageId) {
+        accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(accountId));
+
+        return imageRepository.findByIdAndAccountId(accountId, imageId)
+                .orElseThrow(() -> new ImageNotFoundException(imageId, accountId))
+                .getContentHash();
+    }
+
+    private StoredUpload storeUpload(UploadImageDto uploadImageDto, InputStreamSource content) {
+        contentSniffer.checkDeclared(uploadImageDto.getContentType());
+
+        StoredBlob storedBlob = store(content, inspector(uploadImageDto));
+        try {
+            return new StoredUpload(uploadImageDto, storedBlob,
+                    imageMetadataReader.read(blobStore.resolve(storedBlob.getContentHash())));
+        } catch (RuntimeException e) {
+            contentBlobService.abandon(storedBlob);
+            throw e;
+        }
+    }
+
+    private StoredBlob store(InputStreamSource content, ContentInspector inspector) {
+        try (InputStream in = content.getInputStream()) {
+            return blobStore.store(in, inspector);
+        } catch (IOException e) {
+            throw new StorageException("Could not read image content", e);
+        }
+    }
+
+    private ContentInspector inspector(UploadImageDto uploadImageDto) {
+        return (buffer, length) -> uploadImageDto.setContentType(
+                contentSniffer.sniff(uploadImageDto.getContentType(), buffer, length).getContentType());
     }
 
     private void validateTags(List<Tag> tags, List<Integer> requestIds) {
@@ -168,4 +736,17 @@ public class ImageServiceImpl implements ImageService {
 
         return errorIds;
     }
+
+    private static class StoredUpload {
+
+        private final UploadImageDto uploadImageDto;
+        private final StoredBlob storedBlob;
+        private final ImageMetadata imageMetadata;
+
+        private StoredUpload(UploadImageDto uploadImageDto, StoredBlob storedBlob, ImageMetadata imageMetadata) {
+            this.uploadImageDto = uploadImageDto;
+            this.storedBlob = storedBlob;
+            this.imageMetadata = imageMetadata;
+        }
+    }
 }
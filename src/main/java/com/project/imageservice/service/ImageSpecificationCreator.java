@@ -2,15 +2,136 @@ package com.project.imageservice.service;
 
 import com.project.imageservice.domain.Image;
 import com.project.imageservice.domain.Tag;
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.exception.type.InvalidSearchException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
 
 @Service
+@RequiredArgsConstructor
 public class ImageSpecificationCreator {
 
+    // past this many ids an in-memory match is handed to the database as a subquery instead of a bound IN list
+    public static final int MAX_BOUND_IDS = 1000;
+
+    private final TagIndexService tagIndexService;
+    private final NameIndexService nameIndexService;
+    private final FullTextIndexService fullTextIndexService;
+
+    // a full-text match has no database counterpart, so it is bound one window of ascending ids at a time and every
+    // window carries the remaining criteria
+    public List<Specification<Image>> getImageWindows(ImageSearchFilter filter) {
+        if (filter.getText() == null) {
+            return List.of(getImages(filter));
+        }
+
+        int[] imageIds = fullTextIndexService.search(filter.getText());
+        Arrays.sort(imageIds);
+        ImageSearchFilter rest = new ImageSearchFilter();
+        BeanUtils.copyProperties(filter, rest);
+        rest.setText(null);
+        Specification<Image> restSpec = getImages(rest);
+
+        List<Specification<Image>> windows = new ArrayList<>();
+        int from = 0;
+        do {
+            int[] window = Arrays.copyOfRange(imageIds, from, Math.min(from + MAX_BOUND_IDS, imageIds.length));
+            windows.add(restSpec.and(getImagesByIdIn(window)));
+            from += MAX_BOUND_IDS;
+        } while (from < imageIds.length);
+        return windows;
+    }
+
+    public Specification<Image> getImages(ImageSearchFilter filter) {
+        if (filter.getText() != null) {
+            throw new IllegalArgumentException("Full-text matches are bound through getImageWindows");
+        }
+        Specification<Image> spec = Specification.where(null);
+
+        if (filter.getAccountId() != null) {
+            spec = spec.and(getImagesByAccountId(filter.getAccountId()));
+        }
+        if (filter.getOriginalName() != null) {
+            spec = spec.and(getImagesByOriginalNameIn(filter.getOriginalName()));
+        }
+        if (filter.getNameContains() != null) {
+            int[] imageIds = nameIndexService.findContaining(filter.getNameContains());
+            spec = spec.and(imageIds.length <= MAX_BOUND_IDS
+                    ? getImagesByIdIn(imageIds)
+                    : getImagesByOriginalNameLike("%" + escapeLike(filter.getNameContains()) + "%"));
+        }
+        if (filter.getNamePrefix() != null) {
+            int[] imageIds = nameIndexService.findStartingWith(filter.getNamePrefix());
+            spec = spec.and(imageIds.length <= MAX_BOUND_IDS
+                    ? getImagesByIdIn(imageIds)
+                    : getImagesByOriginalNameLike(escapeLike(filter.getNamePrefix()) + "%"));
+        }
+        if (filter.getContentType() != null) {
+            spec = spec.and(getImagesByContentTypeIn(filter.getContentType()));
+        }
+        if (filter.getFileSize() != null) {
+            spec = spec.and(getImagesBySize(filter.getFileSize()));
+        }
+        if (filter.getMinSize() != null || filter.getMaxSize() != null) {
+            spec = spec.and(getImagesBySizeBetween(filter.getMinSize(), filter.getMaxSize()));
+        }
+        if (filter.getCreatedFrom() != null || filter.getCreatedTo() != null) {
+            spec = spec.and(getImagesByCreatedOnBetween(filter.getCreatedFrom(), filter.getCreatedTo()));
+        }
+        if (filter.getUpdatedFrom() != null || filter.getUpdatedTo() != null) {
+            spec = spec.and(getImagesByUpdatedOnBetween(filter.getUpdatedFrom(), filter.getUpdatedTo()));
+        }
+        if (!isEmpty(filter.getTagsIds())) {
+            spec = spec.and(getImagesByTagsIds(filter.getTagsIds(), parseTagMatch(filter.getTagMatch())));
+        }
+        if (!isEmpty(filter.getAllTags()) || !isEmpty(filter.getAnyTags())) {
+            int[] imageIds = tagIndexService.findImageIds(filter.getAllTags(), filter.getAnyTags(), filter.getNotTags());
+            spec = spec.and(imageIds.length <= MAX_BOUND_IDS
+                    ? getImagesByIdIn(imageIds)
+                    : getImagesByTags(filter.getAllTags(), filter.getAnyTags(), filter.getNotTags()));
+        } else if (!isEmpty(filter.getNotTags())) {
+            int[] imageIds = tagIndexService.findImageIdsWithAnyTag(filter.getNotTags());
+            spec = spec.and(imageIds.length <= MAX_BOUND_IDS
+                    ? getImagesByIdNotIn(imageIds)
+                    : Specification.not(getImagesByTagsIds(filter.getNotTags(), TagMatch.ANY)));
+        }
+        if (filter.getMinWidth() != null || filter.getMaxWidth() != null) {
+            spec = spec.and(getImagesByWidthBetween(filter.getMinWidth(), filter.getMaxWidth()));
+        }
+        if (filter.getMinHeight() != null || filter.getMaxHeight() != null) {
+            spec = spec.and(getImagesByHeightBetween(filter.getMinHeight(), filter.getMaxHeight()));
+        }
+        if (filter.getOrientation() != null) {
+            spec = spec.and(getImagesByOrientation(filter.getOrientation()));
+        }
+        if (filter.getCameraModel() != null) {
+            spec = spec.and(getImagesByCameraModel(filter.getCameraModel()));
+        }
+        if (filter.getCapturedFrom() != null || filter.getCapturedTo() != null) {
+            spec = spec.and(getImagesByCapturedOnBetween(filter.getCapturedFrom(), filter.getCapturedTo()));
+        }
+        if (filter.getMinLatitude() != null || filter.getMaxLatitude() != null
+                || filter.getMinLongitude() != null || filter.getMaxLongitude() != null) {
+            spec = spec.and(getImagesByLocationWithin(
+                    filter.getMinLatitude(), filter.getMaxLatitude(), filter.getMinLongitude(), filter.getMaxLongitude()));
+        }
+
+        return spec;
+    }
+
     public Specification<Image> getImagesByAccountId(Integer accountId) {
         return (root, query, criteriaBuilder) ->
                 criteriaBuilder.equal(root.get("account"), accountId);
@@ -21,20 +142,142 @@ public class ImageSpecificationCreator {
                 criteriaBuilder.equal(root.get("originalName"), originalName);
     }
 
+    // matches the name index, which compares names lower-cased
+    public Specification<Image> getImagesByOriginalNameLike(String pattern) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.like(criteriaBuilder.lower(root.get("originalName")), pattern, '\\');
+    }
+
     public Specification<Image> getImagesByContentTypeIn(String contentType) {
         return (root, query, criteriaBuilder) ->
                 criteriaBuilder.equal(root.get("contentType"), contentType);
     }
 
-    public Specification<Image> getImagesBySizeInBetween(Integer size) {
+    public Specification<Image> getImagesBySize(Integer size) {
         return (root, query, criteriaBuilder) ->
                 criteriaBuilder.equal(root.get("size"), size);
     }
 
-    public Specification<Image> getImagesByTagsIdsIn(List<Integer> tagsIds) {
+    public Specification<Image> getImagesBySizeBetween(Integer minSize, Integer maxSize) {
+        return between("size", minSize, maxSize);
+    }
+
+    public Specification<Image> getImagesByCreatedOnBetween(LocalDateTime createdFrom, LocalDateTime createdTo) {
+        return between("createdOn", createdFrom, createdTo);
+    }
+
+    public Specification<Image> getImagesByUpdatedOnBetween(LocalDateTime updatedFrom, LocalDateTime updatedTo) {
+        return between("updatedOn", updatedFrom, updatedTo);
+    }
+
+    public Specification<Image> getImagesByWidthBetween(Integer minWidth, Integer maxWidth) {
+        return between("width", minWidth, maxWidth);
+    }
+
+    public Specification<Image> getImagesByHeightBetween(Integer minHeight, Integer maxHeight) {
+        return between("height", minHeight, maxHeight);
+    }
+
+    public Specification<Image> getImagesByOrientation(Integer orientation) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("orientation"), orientation);
+    }
+
+    public Specification<Image> getImagesByCameraModel(String cameraModel) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("cameraModel"), cameraModel);
+    }
+
+    public Specification<Image> getImagesByCapturedOnBetween(LocalDateTime capturedFrom, LocalDateTime capturedTo) {
+        return between("capturedOn", capturedFrom, capturedTo);
+    }
+
+    public Specification<Image> getImagesByLocationWithin(
+            Double minLatitude,
+            Double maxLatitude,
+            Double minLongitude,
+            Double maxLongitude
+    ) {
+        return Specification.where(between("latitude", minLatitude, maxLatitude))
+                .and(between("longitude", minLongitude, maxLongitude));
+    }
+
+    public Specification<Image> getImagesByTagsIds(List<Integer> tagsIds, TagMatch tagMatch) {
+        return (root, query, criteriaBuilder) -> {
+            Subquery<Integer> matching = query.subquery(Integer.class);
+            Root<Image> image = matching.from(Image.class);
+            Join<Image, Tag> imageTags = image.join("tags");
+            matching.select(image.get("id"))
+                    .where(imageTags.get("id").in(tagsIds))
+                    .groupBy(image.get("id"));
+            if (tagMatch == TagMatch.ALL) {
+                matching.having(criteriaBuilder.equal(
+                        criteriaBuilder.countDistinct(imageTags.get("id")), (long) new HashSet<>(tagsIds).size()));
+            }
+            return root.get("id").in(matching);
+        };
+    }
+
+    public Specification<Image> getImagesByTags(List<Integer> allTags, List<Integer> anyTags, List<Integer> notTags) {
+        Specification<Image> spec = Specification.where(null);
+        if (!isEmpty(allTags)) {
+            spec = spec.and(getImagesByTagsIds(allTags, TagMatch.ALL));
+        }
+        if (!isEmpty(anyTags)) {
+            spec = spec.and(getImagesByTagsIds(anyTags, TagMatch.ANY));
+        }
+        if (!isEmpty(notTags)) {
+            spec = spec.and(Specification.not(getImagesByTagsIds(notTags, TagMatch.ANY)));
+        }
+        return spec;
+    }
+
+    public Specification<Image> getImagesByIdIn(int[] imageIds) {
+        return (root, query, criteriaBuilder) -> imageIds.length == 0
+                ? criteriaBuilder.disjunction()
+                : root.get("id").in(Arrays.stream(imageIds).boxed().collect(Collectors.toList()));
+    }
+
+    public Specification<Image> getImagesByIdNotIn(int[] imageIds) {
+        return (root, query, criteriaBuilder) -> imageIds.length == 0
+                ? criteriaBuilder.conjunction()
+                : criteriaBuilder.not(root.get("id").in(Arrays.stream(imageIds).boxed().collect(Collectors.toList())));
+    }
+
+    private static TagMatch parseTagMatch(String tagMatch) {
+        if (tagMatch == null) {
+            return TagMatch.ANY;
+        }
+        try {
+            return TagMatch.valueOf(tagMatch.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchException(String.format("Unsupported tagMatch - %s", tagMatch));
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static boolean isEmpty(List<Integer> ids) {
+        return ids == null || ids.isEmpty();
+    }
+
+    private <T extends Comparable<? super T>> Specification<Image> between(String attribute, T from, T to) {
         return (root, query, criteriaBuilder) -> {
-            Join<Image, Tag> imageTags = root.join("tags");
-            return criteriaBuilder.in(imageTags.get("id")).value(tagsIds);
+            if (from != null && to != null) {
+                return criteriaBuilder.between(root.get(attribute), from, to);
+            }
+            if (from != null) {
+                return criteriaBuilder.greaterThanOrEqualTo(root.get(attribute), from);
+            }
+            if (to != null) {
+                return criteriaBuilder.lessThanOrEqualTo(root.get(attribute), to);
+            }
+            return criteriaBuilder.isNotNull(root.get(attribute));
         };
     }
 }
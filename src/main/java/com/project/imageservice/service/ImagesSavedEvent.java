@@ -0,0 +1,14 @@
+package com.project.imageservice.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ImagesSavedEvent {
+
+    private final List<Integer> imageIds;
+
+}
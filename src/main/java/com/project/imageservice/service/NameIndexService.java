@@ -0,0 +1,90 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ImageOriginalName;
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.exception.type.InvalidSearchException;
+import com.project.imageservice.search.TrigramIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class NameIndexService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ImageRepository imageRepository;
+    private final TrigramIndex index = new TrigramIndex();
+
+    public NameIndexService(
+            ImageRepository imageRepository,
+            MeterRegistry meterRegistry
+    ) {
+        this.imageRepository = imageRepository;
+
+        Gauge.builder("image.search.name.index.size", index, TrigramIndex::size)
+                .description("Images held in the original name trigram index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        index.clear();
+        int after = 0;
+        List<ImageOriginalName> batch;
+        do {
+            batch = imageRepository.findOriginalNamesAfter(after, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (ImageOriginalName imageOriginalName : batch) {
+                index.put(imageOriginalName.getId(), imageOriginalName.getOriginalName());
+                after = imageOriginalName.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        index.optimize();
+        log.info("Original name trigram index rebuilt with {} images", index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesSaved(ImagesSavedEvent event) {
+        if (event.getImageIds().isEmpty()) {
+            return;
+        }
+        Set<Integer> missing = new HashSet<>(event.getImageIds());
+        for (ImageOriginalName imageOriginalName : imageRepository.findOriginalNamesByIdIn(event.getImageIds())) {
+            index.put(imageOriginalName.getId(), imageOriginalName.getOriginalName());
+            missing.remove(imageOriginalName.getId());
+        }
+        missing.forEach(index::remove);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesDeleted(ImagesDeletedEvent event) {
+        event.getImageIds().forEach(index::remove);
+    }
+
+    public int[] findContaining(String substring) {
+        if (substring.length() < TrigramIndex.MIN_SUBSTRING_LENGTH) {
+            throw new InvalidSearchException(String.format(
+                    "Parameter nameContains must have at least %s characters", TrigramIndex.MIN_SUBSTRING_LENGTH));
+        }
+        return index.findContaining(substring);
+    }
+
+    public int[] findStartingWith(String prefix) {
+        if (prefix.isEmpty()) {
+            throw new InvalidSearchException("Parameter namePrefix must not be empty");
+        }
+        return index.findStartingWith(prefix);
+    }
+}
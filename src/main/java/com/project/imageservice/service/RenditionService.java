@@ -0,0 +1,207 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.exception.type.InvalidRenditionException;
+import com.project.imageservice.exception.type.StorageException;
+import com.project.imageservice.exception.type.UnsupportedImageFormatException;
+import com.project.imageservice.storage.ImageContent;
+import com.project.imageservice.storage.ImageResizer;
+import com.project.imageservice.storage.Rendition;
+import com.project.imageservice.storage.RenditionDiskCache;
+import com.project.imageservice.storage.RenditionFit;
+import com.project.imageservice.storage.RenditionFormat;
+import com.project.imageservice.storage.RenditionKey;
+import com.project.imageservice.storage.RenditionMemoryCache;
+import com.project.imageservice.storage.StorageProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class RenditionService {
+
+    private final ImageResizer imageResizer;
+    private final RenditionMemoryCache memoryCache;
+    private final RenditionDiskCache diskCache;
+    private final int maxDimension;
+    private final ConcurrentHashMap<RenditionKey, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter missCounter;
+    private final Counter sharedRenders;
+    private final Timer renderTimer;
+
+    public RenditionService(
+            ImageResizer imageResizer,
+            StorageProperties storageProperties,
+            MeterRegistry meterRegistry
+    ) {
+        StorageProperties.Rendition rendition = storageProperties.getRendition();
+        this.imageResizer = imageResizer;
+        this.memoryCache = new RenditionMemoryCache(rendition.getMemoryCacheSize().toBytes());
+        this.diskCache = new RenditionDiskCache(
+                storageProperties.getRoot().toAbsolutePath(), rendition.getDiskCacheSize().toBytes());
+        this.maxDimension = rendition.getMaxDimension();
+
+        this.memoryHits = Counter.builder("image.rendition.cache.hits")
+                .tag("tier", "memory")
+                .register(meterRegistry);
+        this.diskHits = Counter.builder("image.rendition.cache.hits")
+                .tag("tier", "disk")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("image.rendition.cache.misses")
+                .register(meterRegistry);
+        this.sharedRenders = Counter.builder("image.rendition.render.shared")
+                .description("Requests that waited for a render already in progress")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("image.rendition.render")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("image.rendition.cache.evictions", memoryCache, RenditionMemoryCache::getEvictions)
+                .tag("tier", "memory")
+                .register(meterRegistry);
+        FunctionCounter.builder("image.rendition.cache.evictions", diskCache, RenditionDiskCache::getEvictions)
+                .tag("tier", "disk")
+                .register(meterRegistry);
+        Gauge.builder("image.rendition.cache.size", memoryCache, RenditionMemoryCache::getCurrentBytes)
+                .tag("tier", "memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("image.rendition.cache.size", diskCache, RenditionDiskCache::getCurrentBytes)
+                .tag("tier", "disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("image.rendition.cache.hit.ratio", this, RenditionService::hitRatio)
+                .register(meterRegistry);
+    }
+
+    public RenditionKey resolveKey(String contentHash, Integer width, Integer height, String fit, String format) {
+        int resolvedWidth = validateDimension("w", width);
+        int resolvedHeight = validateDimension("h", height);
+        RenditionFit resolvedFit = parse(RenditionFit.class, "fit", fit, RenditionFit.CONTAIN);
+        RenditionFormat resolvedFormat = parse(RenditionFormat.class, "format", format, RenditionFormat.JPEG);
+
+        return new RenditionKey(contentHash, resolvedWidth, resolvedHeight, resolvedFit, resolvedFormat);
+    }
+
+    public Rendition render(ImageContent content, RenditionKey key) {
+        String contentType = key.getFormat().getContentType();
+
+        byte[] cached = memoryCache.get(key);
+        if (cached != null) {
+            hits.increment();
+            memoryHits.increment();
+            return new Rendition(cached, contentType);
+        }
+
+        cached = diskCache.get(key);
+        if (cached != null) {
+            hits.increment();
+            diskHits.increment();
+            memoryCache.put(key, cached);
+            return new Rendition(cached, contentType);
+        }
+
+        misses.increment();
+        missCounter.increment();
+
+        CompletableFuture<byte[]> created = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            sharedRenders.increment();
+            return new Rendition(join(existing), contentType);
+        }
+
+        try {
+            // a render of the same key can finish and leave inFlight between the lookups above and putIfAbsent
+            byte[] rendered = memoryCache.get(key);
+            if (rendered == null) {
+                rendered = diskCache.get(key);
+            }
+            if (rendered == null) {
+                rendered = renderTimer.record(() -> encode(content, key));
+                diskCache.put(key, rendered);
+            }
+            memoryCache.put(key, rendered);
+            created.complete(rendered);
+            return new Rendition(rendered, contentType);
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private byte[] encode(ImageContent content, RenditionKey key) {
+        RenditionFormat format = key.getFormat();
+        BufferedImage image = imageResizer.resize(
+                content.getPath(), key.getWidth(), key.getHeight(), key.getFit(), format.isOpaque());
+        if (image == null) {
+            throw new UnsupportedImageFormatException(String.format(
+                    "Content of type %s can not be resized", content.getContentType()));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, format.getExtension(), out);
+        } catch (IOException e) {
+            throw new StorageException("Could not encode rendition " + key.getFileName(), e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] join(CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private int validateDimension(String name, Integer value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value < 1 || value > maxDimension) {
+            throw new InvalidRenditionException(String.format(
+                    "Parameter %s must be between 1 and %s", name, maxDimension));
+        }
+        return value;
+    }
+
+    private <E extends Enum<E>> E parse(Class<E> type, String name, String value, E defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRenditionException(String.format("Unsupported %s - %s", name, value));
+        }
+    }
+
+    private double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,34 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import org.springframework.beans.BeanUtils;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+final class SearchFilters {
+
+    private SearchFilters() {
+    }
+
+    static ImageSearchFilter normalize(ImageSearchFilter filter) {
+        ImageSearchFilter key = new ImageSearchFilter();
+        BeanUtils.copyProperties(filter, key);
+        key.setTagsIds(normalize(key.getTagsIds()));
+        key.setAllTags(normalize(key.getAllTags()));
+        key.setAnyTags(normalize(key.getAnyTags()));
+        key.setNotTags(normalize(key.getNotTags()));
+        return key;
+    }
+
+    private static List<Integer> normalize(List<Integer> ids) {
+        if (ids == null) {
+            return null;
+        }
+        return ids.stream()
+                .distinct()
+                .sorted(Comparator.nullsLast(Comparator.naturalOrder()))
+                .collect(Collectors.toList());
+    }
+}
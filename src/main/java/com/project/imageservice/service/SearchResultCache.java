@@ -0,0 +1,147 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.search.SearchProperties;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class SearchResultCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final AtomicLong allVersion = new AtomicLong();
+    private final Map<Integer, AtomicLong> accountVersions = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> tagVersions = new ConcurrentHashMap<>();
+
+    public SearchResultCache(SearchProperties searchProperties) {
+        this.enabled = searchProperties.getResult().isCacheEnabled();
+        this.maxEntries = searchProperties.getResult().getCacheSize();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Page<Integer> get(ImageSearchFilter filter, Pageable pageable, Supplier<Page<Integer>> search) {
+        if (!enabled) {
+            return search.get();
+        }
+
+        Key key = new Key(SearchFilters.normalize(filter), pageable);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isCurrent()) {
+                return entry.ids;
+            }
+        }
+
+        // versions are read before searching, a write committed meanwhile leaves the entry already outdated
+        Entry entry = new Entry(dependencies(key.filter));
+        entry.ids = search.get();
+        synchronized (this) {
+            entries.put(key, entry);
+        }
+        return entry.ids;
+    }
+
+    // published after ImagesSavedEvent and ImagesDeletedEvent, so the in-memory indexes are current by now
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSearchResultsChanged(SearchResultsChangedEvent event) {
+        allVersion.incrementAndGet();
+        if (event.getAccountId() != null) {
+            version(accountVersions, event.getAccountId()).incrementAndGet();
+        }
+        for (Integer tagId : event.getTagIds()) {
+            version(tagVersions, tagId).incrementAndGet();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private List<AtomicLong> dependencies(ImageSearchFilter filter) {
+        if (filter.getAccountId() != null) {
+            return List.of(version(accountVersions, filter.getAccountId()));
+        }
+
+        Set<Integer> tagIds = new TreeSet<>();
+        addAll(tagIds, filter.getTagsIds());
+        addAll(tagIds, filter.getAllTags());
+        addAll(tagIds, filter.getAnyTags());
+        if (tagIds.isEmpty()) {
+            return List.of(allVersion);
+        }
+
+        List<AtomicLong> versions = new ArrayList<>(tagIds.size());
+        for (Integer tagId : tagIds) {
+            versions.add(version(tagVersions, tagId));
+        }
+        return versions;
+    }
+
+    private static void addAll(Set<Integer> tagIds, List<Integer> ids) {
+        if (ids != null) {
+            ids.stream()
+                    .filter(Objects::nonNull)
+                    .forEach(tagIds::add);
+        }
+    }
+
+    private static AtomicLong version(Map<Integer, AtomicLong> versions, Integer id) {
+        return versions.computeIfAbsent(id, key -> new AtomicLong());
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+
+        private final ImageSearchFilter filter;
+        private final Pageable pageable;
+
+    }
+
+    private static class Entry {
+
+        private final List<AtomicLong> dependencies;
+        private final long[] versions;
+        private Page<Integer> ids;
+
+        private Entry(List<AtomicLong> dependencies) {
+            this.dependencies = dependencies;
+            this.versions = new long[dependencies.size()];
+            for (int i = 0; i < versions.length; i++) {
+                versions[i] = dependencies.get(i).get();
+            }
+        }
+
+        private boolean isCurrent() {
+            for (int i = 0; i < versions.length; i++) {
+                if (dependencies.get(i).get() != versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
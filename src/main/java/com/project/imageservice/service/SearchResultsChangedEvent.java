@@ -0,0 +1,15 @@
+package com.project.imageservice.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+
+@Getter
+@AllArgsConstructor
+public class SearchResultsChangedEvent {
+
+    private final Integer accountId;
+    private final Collection<Integer> tagIds;
+
+}
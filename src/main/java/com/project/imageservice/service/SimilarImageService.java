@@ -0,0 +1,118 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ImagePerceptualHash;
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.domain.Image;
+import com.project.imageservice.dto.image.SimilarImageDto;
+import com.project.imageservice.exception.type.ImageNotFoundException;
+import com.project.imageservice.exception.type.InvalidSearchException;
+import com.project.imageservice.exception.type.PerceptualHashNotFoundException;
+import com.project.imageservice.mapper.ImageMapper;
+import com.project.imageservice.search.HammingMatch;
+import com.project.imageservice.search.MultiIndexHashTable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class SimilarImageService {
+
+    private final ImageRepository imageRepository;
+    private final ImageMapper imageMapper;
+    private final MultiIndexHashTable index = new MultiIndexHashTable();
+
+    public SimilarImageService(
+            ImageRepository imageRepository,
+            ImageMapper imageMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.imageRepository = imageRepository;
+        this.imageMapper = imageMapper;
+
+        Gauge.builder("image.search.perceptual.index.size", index, MultiIndexHashTable::size)
+                .description("Images held in the perceptual hash index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        index.clear();
+        for (ImagePerceptualHash imagePerceptualHash : imageRepository.findAllPerceptualHashes()) {
+            index.put(imagePerceptualHash.getId(), imagePerceptualHash.getPerceptualHash());
+        }
+        log.info("Perceptual hash index rebuilt with {} images", index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesSaved(ImagesSavedEvent event) {
+        if (event.getImageIds().isEmpty()) {
+            return;
+        }
+        for (ImagePerceptualHash imagePerceptualHash : imageRepository.findPerceptualHashesByIdIn(event.getImageIds())) {
+            index.put(imagePerceptualHash.getId(), imagePerceptualHash.getPerceptualHash());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesDeleted(ImagesDeletedEvent event) {
+        event.getImageIds().forEach(index::remove);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SimilarImageDto> findSimilar(Integer imageId, Integer accountId, int maxDistance, int limit) {
+        if (maxDistance < 0 || maxDistance > MultiIndexHashTable.MAX_DISTANCE) {
+            throw new InvalidSearchException(String.format(
+                    "Parameter maxDistance must be between 0 and %s", MultiIndexHashTable.MAX_DISTANCE));
+        }
+        if (limit < 1) {
+            throw new InvalidSearchException("Parameter limit must be positive");
+        }
+
+        Image reference = imageRepository.findById(imageId)
+                .orElseThrow(() -> new ImageNotFoundException(imageId));
+        if (reference.getPerceptualHash() == null) {
+            throw new PerceptualHashNotFoundException(imageId);
+        }
+
+        List<HammingMatch> matches = index.search(reference.getPerceptualHash(), maxDistance)
+                .stream()
+                .filter(m -> m.getId() != imageId)
+                .collect(Collectors.toList());
+        if (accountId == null && matches.size() > limit) {
+            matches = matches.subList(0, limit);
+        }
+
+        List<Integer> ids = matches.stream()
+                .map(HammingMatch::getId)
+                .collect(Collectors.toList());
+        Map<Integer, Image> images = imageRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Image::getId, Function.identity()));
+
+        List<SimilarImageDto> similarImages = new ArrayList<>();
+        for (HammingMatch match : matches) {
+            Image image = images.get(match.getId());
+            if (image == null || (accountId != null && !accountId.equals(image.getAccount().getId()))) {
+                continue;
+            }
+            similarImages.add(new SimilarImageDto(imageMapper.mapToDo(image), match.getDistance()));
+            if (similarImages.size() == limit) {
+                break;
+            }
+        }
+        return similarImages;
+    }
+}
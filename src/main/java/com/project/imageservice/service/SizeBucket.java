@@ -0,0 +1,18 @@
+package com.project.imageservice.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum SizeBucket {
+
+    SMALL("small", 100 * 1024),
+    MEDIUM("medium", 1024 * 1024),
+    LARGE("large", 10 * 1024 * 1024),
+    HUGE("huge", Integer.MAX_VALUE);
+
+    private final String name;
+    private final int sizeBelow;
+
+}
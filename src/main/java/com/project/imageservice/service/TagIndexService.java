@@ -0,0 +1,116 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.dao.ImageTagId;
+import com.project.imageservice.search.RoaringBitmap;
+import com.project.imageservice.search.TagBitmapIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class TagIndexService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ImageRepository imageRepository;
+    private final TagBitmapIndex index = new TagBitmapIndex();
+
+    public TagIndexService(
+            ImageRepository imageRepository,
+            MeterRegistry meterRegistry
+    ) {
+        this.imageRepository = imageRepository;
+
+        Gauge.builder("image.search.tag.index.size", index, TagBitmapIndex::size)
+                .description("Tagged images held in the tag bitmap index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        index.clear();
+        int afterImageId = 0;
+        int afterTagId = 0;
+        List<ImageTagId> batch;
+        do {
+            batch = imageRepository.findTagIdsAfter(afterImageId, afterTagId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (ImageTagId imageTagId : batch) {
+                index.add(imageTagId.getImageId(), imageTagId.getTagId());
+                afterImageId = imageTagId.getImageId();
+                afterTagId = imageTagId.getTagId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        index.optimize();
+        log.info("Tag bitmap index rebuilt with {} images", index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesSaved(ImagesSavedEvent event) {
+        if (event.getImageIds().isEmpty()) {
+            return;
+        }
+        Map<Integer, List<Integer>> tagIds = new HashMap<>();
+        for (Integer imageId : event.getImageIds()) {
+            tagIds.put(imageId, new ArrayList<>());
+        }
+        for (ImageTagId imageTagId : imageRepository.findTagIdsByImageIdIn(event.getImageIds())) {
+            tagIds.computeIfAbsent(imageTagId.getImageId(), id -> new ArrayList<>()).add(imageTagId.getTagId());
+        }
+        tagIds.forEach((imageId, imageTagIds) -> index.put(imageId, imageTagIds.stream()
+                .mapToInt(Integer::intValue)
+                .toArray()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesDeleted(ImagesDeletedEvent event) {
+        event.getImageIds().forEach(index::remove);
+    }
+
+    public int[] findImageIds(List<Integer> allTags, List<Integer> anyTags, List<Integer> notTags) {
+        RoaringBitmap images = match(allTags, anyTags, notTags);
+        if (images == null) {
+            throw new IllegalArgumentException("allTags or anyTags is required");
+        }
+        return images.toArray();
+    }
+
+    public Map<Integer, Integer> countImagesByTag(List<Integer> allTags, List<Integer> anyTags, List<Integer> notTags) {
+        RoaringBitmap images = match(allTags, anyTags, notTags);
+        // without allTags or anyTags every tagged image matches unless it carries one of notTags
+        RoaringBitmap excluded = images == null && notTags != null && !notTags.isEmpty() ? index.any(notTags) : null;
+        return index.counts(images, excluded);
+    }
+
+    public int[] findImageIdsWithAnyTag(List<Integer> tagIds) {
+        return index.any(tagIds).toArray();
+    }
+
+    private RoaringBitmap match(List<Integer> allTags, List<Integer> anyTags, List<Integer> notTags) {
+        RoaringBitmap images = null;
+        if (allTags != null && !allTags.isEmpty()) {
+            images = index.all(allTags);
+        }
+        if (anyTags != null && !anyTags.isEmpty()) {
+            RoaringBitmap any = index.any(anyTags);
+            images = images == null ? any : RoaringBitmap.and(images, any);
+        }
+        if (images != null && notTags != null && !notTags.isEmpty() && !images.isEmpty()) {
+            images = RoaringBitmap.andNot(images, index.any(notTags));
+        }
+        return images;
+    }
+}
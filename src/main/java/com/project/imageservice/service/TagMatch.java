@@ -0,0 +1,8 @@
+package com.project.imageservice.service;
+
+public enum TagMatch {
+
+    ALL,
+    ANY
+
+}
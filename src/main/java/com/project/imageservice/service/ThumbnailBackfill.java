@@ -0,0 +1,54 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.storage.StorageProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(prefix = "image-service.storage.thumbnail", name = "backfill-enabled", matchIfMissing = true)
+public class ThumbnailBackfill {
+
+    private final ImageRepository imageRepository;
+    private final ThumbnailService thumbnailService;
+    private final int batchSize;
+
+    private String lastContentHash = "";
+
+    public ThumbnailBackfill(
+            ImageRepository imageRepository,
+            ThumbnailService thumbnailService,
+            StorageProperties storageProperties
+    ) {
+        this.imageRepository = imageRepository;
+        this.thumbnailService = thumbnailService;
+        this.batchSize = storageProperties.getThumbnail().getBackfillBatchSize();
+    }
+
+    @Scheduled(fixedDelayString = "${image-service.storage.thumbnail.backfill-interval:300000}")
+    public void backfill() {
+        int limit = Math.min(batchSize, thumbnailService.remainingCapacity());
+        if (limit == 0) {
+            return;
+        }
+
+        List<String> contentHashes = imageRepository.findContentHashesWithoutThumbnail(
+                lastContentHash, PageRequest.of(0, limit));
+
+        for (String contentHash : contentHashes) {
+            if (!thumbnailService.submit(contentHash)) {
+                return;
+            }
+            lastContentHash = contentHash;
+        }
+
+        // start over once the end is reached so content that failed to decode is retried on the next pass
+        if (contentHashes.size() < limit) {
+            lastContentHash = "";
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.search.DifferenceHash;
+import com.project.imageservice.search.VisualFeatures;
+import com.project.imageservice.storage.BlobStore;
+import com.project.imageservice.storage.BlurHash;
+import com.project.imageservice.storage.ImageResizer;
+import com.project.imageservice.storage.RenditionFit;
+import com.project.imageservice.storage.StorageProperties;
+import com.project.imageservice.storage.ThumbnailStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class ThumbnailService {
+
+    private final BlobStore blobStore;
+    private final ImageResizer imageResizer;
+    private final ThumbnailStore thumbnailStore;
+    private final ImageRepository imageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final int thumbnailSize;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Timer latency;
+    private final Counter rejected;
+
+    public ThumbnailService(
+            BlobStore blobStore,
+            ImageResizer imageResizer,
+            ThumbnailStore thumbnailStore,
+            ImageRepository imageRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher applicationEventPublisher,
+            StorageProperties storageProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.blobStore = blobStore;
+        this.imageResizer = imageResizer;
+        this.thumbnailStore = thumbnailStore;
+        this.imageRepository = imageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+
+        StorageProperties.Thumbnail thumbnail = storageProperties.getThumbnail();
+        this.thumbnailSize = thumbnail.getSize();
+        this.executor = new ThreadPoolExecutor(
+                thumbnail.getThreads(),
+                thumbnail.getThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(thumbnail.getQueueCapacity()),
+                new CustomizableThreadFactory("thumbnail-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("image.thumbnail.queue.size", executor, e -> e.getQueue().size())
+                .description("Thumbnails waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("image.thumbnail.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Thumbnails being generated")
+                .register(meterRegistry);
+        this.latency = Timer.builder("image.thumbnail.latency")
+                .description("Time from enqueueing a thumbnail until it is stored")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("image.thumbnail.rejected")
+                .description("Thumbnails not enqueued because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onContentStored(ContentStoredEvent event) {
+        submit(event.getContentHash());
+    }
+
+    public boolean submit(String contentHash) {
+        if (!pending.add(contentHash)) {
+            return true;
+        }
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(contentHash);
+                } catch (RuntimeException e) {
+                    log.warn("Could not generate thumbnail for {}", contentHash, e);
+                } finally {
+                    pending.remove(contentHash);
+                    latency.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(contentHash);
+            rejected.increment();
+            return false;
+        }
+    }
+
+    public int remainingCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+
+    public boolean generate(String contentHash) {
+        BufferedImage thumbnail;
+        if (thumbnailStore.exists(contentHash)) {
+            thumbnail = thumbnailStore.read(contentHash);
+        } else {
+            thumbnail = imageResizer.resize(
+                    blobStore.resolve(contentHash), thumbnailSize, thumbnailSize, RenditionFit.CONTAIN, true);
+            if (thumbnail == null) {
+                log.debug("No image reader for content {}, skipping thumbnail", contentHash);
+                return false;
+            }
+            thumbnailStore.store(contentHash, thumbnail);
+        }
+
+        // the hash, the histograms and the placeholder only need a few pixels, so they are taken from the thumbnail instead of a second decode
+        long perceptualHash = DifferenceHash.compute(thumbnail);
+        byte[] visualFeatures = VisualFeatures.toBytes(VisualFeatures.compute(thumbnail));
+        String placeholder = BlurHash.encode(thumbnail);
+        List<Integer> imageIds = transactionTemplate.execute(status -> {
+            imageRepository.updateThumbnailAndFeatures(contentHash, perceptualHash, visualFeatures, placeholder);
+            return imageRepository.findIdsByContentHash(contentHash);
+        });
+        applicationEventPublisher.publishEvent(new ImagesSavedEvent(imageIds));
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
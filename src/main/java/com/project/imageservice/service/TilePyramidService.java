@@ -0,0 +1,345 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.exception.type.StorageException;
+import com.project.imageservice.storage.BlobStore;
+import com.project.imageservice.storage.StorageProperties;
+import com.project.imageservice.storage.TilePyramid;
+import com.project.imageservice.storage.TileStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class TilePyramidService {
+
+    private final BlobStore blobStore;
+    private final TileStore tileStore;
+    private final boolean enabled;
+    private final int tileSize;
+    private final int minDimension;
+    private final long stripPixels;
+    private final ThreadPoolExecutor coordinator;
+    private final ExecutorService workers;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Timer generationTimer;
+
+    public TilePyramidService(
+            BlobStore blobStore,
+            TileStore tileStore,
+            StorageProperties storageProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.blobStore = blobStore;
+        this.tileStore = tileStore;
+
+        StorageProperties.Tiles tiles = storageProperties.getTiles();
+        this.enabled = tiles.isEnabled();
+        this.tileSize = tiles.getTileSize();
+        this.minDimension = tiles.getMinDimension();
+        this.stripPixels = tiles.getStripPixels();
+        this.coordinator = new ThreadPoolExecutor(
+                1,
+                1,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tiles.getQueueCapacity()),
+                new CustomizableThreadFactory("tile-pyramid-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.workers = Executors.newFixedThreadPool(tiles.getThreads(), new CustomizableThreadFactory("tile-"));
+
+        Gauge.builder("image.tiles.queue.size", coordinator, e -> e.getQueue().size())
+                .description("Tile pyramids waiting to be generated")
+                .register(meterRegistry);
+        this.generationTimer = Timer.builder("image.tiles.generation")
+                .description("Time to generate a complete tile pyramid")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onContentStored(ContentStoredEvent event) {
+        if (enabled) {
+            submit(event.getContentHash());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeIncomplete() {
+        if (enabled) {
+            tileStore.findIncomplete().forEach(this::submit);
+        }
+    }
+
+    public boolean submit(String contentHash) {
+        if (!pending.add(contentHash)) {
+            return true;
+        }
+        try {
+            coordinator.execute(() -> {
+                try {
+                    long start = System.nanoTime();
+                    if (generate(contentHash) != null) {
+                        generationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not generate tile pyramid for {}", contentHash, e);
+                } finally {
+                    pending.remove(contentHash);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(contentHash);
+            log.warn("Tile pyramid queue is full, skipping {}", contentHash);
+            return false;
+        }
+    }
+
+    public TilePyramid generate(String contentHash) {
+        TilePyramid existing = tileStore.findPyramid(contentHash);
+        if (existing != null) {
+            return existing;
+        }
+
+        Path source = blobStore.resolve(contentHash);
+        int[] size = readSize(source);
+        if (size == null || Math.max(size[0], size[1]) < minDimension) {
+            return null;
+        }
+
+        TilePyramid tilePyramid = new TilePyramid(size[0], size[1], tileSize, levels(size[0], size[1]));
+
+        renderBase(source, contentHash, tilePyramid);
+
+        for (int level = 1; level < tilePyramid.getLevels(); level++) {
+            List<Callable<Void>> levelTasks = new ArrayList<>();
+            for (int y = 0; y < rows(tilePyramid, level); y++) {
+                int currentLevel = level;
+                int row = y;
+                levelTasks.add(() -> {
+                    for (int x = 0; x < columns(tilePyramid, currentLevel); x++) {
+                        renderLevelTile(contentHash, currentLevel, x, row);
+                    }
+                    return null;
+                });
+            }
+            invokeAll(levelTasks);
+        }
+
+        tileStore.markComplete(contentHash, tilePyramid);
+        return tilePyramid;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // readers of sequential formats such as PNG decode from the top for every source region, so the base level is cut
+    // from full-width strips read top to bottom through one reader, each strip as tall as the pixel budget allows
+    private void renderBase(Path source, String contentHash, TilePyramid tilePyramid) {
+        int rows = rows(tilePyramid, 0);
+        int stripRows = (int) Math.max(1, Math.min(rows, stripPixels / ((long) tilePyramid.getWidth() * tileSize)));
+
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            ImageReader reader = openReader(in);
+            if (reader == null) {
+                throw new StorageException("No image reader for " + contentHash);
+            }
+            try {
+                for (int firstRow = 0; firstRow < rows; firstRow += stripRows) {
+                    renderBaseStrip(reader, contentHash, tilePyramid, firstRow, Math.min(firstRow + stripRows, rows) - 1);
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new StorageException("Could not read " + contentHash, e);
+        }
+    }
+
+    private void renderBaseStrip(
+            ImageReader reader,
+            String contentHash,
+            TilePyramid tilePyramid,
+            int firstRow,
+            int lastRow
+    ) throws IOException {
+
+        int columns = columns(tilePyramid, 0);
+        boolean complete = true;
+        for (int y = firstRow; y <= lastRow && complete; y++) {
+            for (int x = 0; x < columns && complete; x++) {
+                complete = tileStore.exists(contentHash, 0, x, y);
+            }
+        }
+        if (complete) {
+            return;
+        }
+
+        int top = firstRow * tileSize;
+        int stripHeight = Math.min((lastRow + 1) * tileSize, tilePyramid.getHeight()) - top;
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(0, top, tilePyramid.getWidth(), stripHeight));
+        BufferedImage strip = reader.read(0, param);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int y = firstRow; y <= lastRow; y++) {
+            int row = y;
+            tasks.add(() -> {
+                int offsetY = (row - firstRow) * tileSize;
+                int height = Math.min(tileSize, stripHeight - offsetY);
+                for (int x = 0; x < columns; x++) {
+                    if (tileStore.exists(contentHash, 0, x, row)) {
+                        continue;
+                    }
+                    int offsetX = x * tileSize;
+                    int width = Math.min(tileSize, tilePyramid.getWidth() - offsetX);
+                    tileStore.store(contentHash, 0, x, row, strip.getSubimage(offsetX, offsetY, width, height));
+                }
+                return null;
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    private void renderLevelTile(String contentHash, int level, int x, int y) {
+        if (tileStore.exists(contentHash, level, x, y)) {
+            return;
+        }
+
+        BufferedImage topLeft = tileStore.read(contentHash, level - 1, 2 * x, 2 * y);
+        if (topLeft == null) {
+            throw new StorageException("Missing tile " + (level - 1) + "/" + 2 * x + "/" + 2 * y + " of " + contentHash);
+        }
+        BufferedImage topRight = tileStore.read(contentHash, level - 1, 2 * x + 1, 2 * y);
+        BufferedImage bottomLeft = tileStore.read(contentHash, level - 1, 2 * x, 2 * y + 1);
+        BufferedImage bottomRight = tileStore.read(contentHash, level - 1, 2 * x + 1, 2 * y + 1);
+
+        int width = topLeft.getWidth() + (topRight != null ? topRight.getWidth() : 0);
+        int height = topLeft.getHeight() + (bottomLeft != null ? bottomLeft.getHeight() : 0);
+
+        BufferedImage tile = new BufferedImage(
+                Math.max(1, (width + 1) / 2), Math.max(1, (height + 1) / 2), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = tile.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.scale((double) tile.getWidth() / width, (double) tile.getHeight() / height);
+            graphics.drawImage(topLeft, 0, 0, null);
+            if (topRight != null) {
+                graphics.drawImage(topRight, topLeft.getWidth(), 0, null);
+            }
+            if (bottomLeft != null) {
+                graphics.drawImage(bottomLeft, 0, topLeft.getHeight(), null);
+            }
+            if (bottomRight != null) {
+                graphics.drawImage(bottomRight, topLeft.getWidth(), topLeft.getHeight(), null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+
+        tileStore.store(contentHash, level, x, y, tile);
+    }
+
+    private void invokeAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : workers.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException("Tile generation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new StorageException("Could not generate tiles", e.getCause());
+        }
+    }
+
+    private int[] readSize(Path source) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            ImageReader reader = openReader(in);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new StorageException("Could not read image size of " + source.getFileName(), e);
+        }
+    }
+
+    private ImageReader openReader(ImageInputStream in) {
+        if (in == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(in, true, true);
+        return reader;
+    }
+
+    private int levels(int width, int height) {
+        int levels = 1;
+        while (width > tileSize || height > tileSize) {
+            width = (width + 1) / 2;
+            height = (height + 1) / 2;
+            levels++;
+        }
+        return levels;
+    }
+
+    private static int columns(TilePyramid tilePyramid, int level) {
+        return ceilDiv(levelSize(tilePyramid.getWidth(), level), tilePyramid.getTileSize());
+    }
+
+    private static int rows(TilePyramid tilePyramid, int level) {
+        return ceilDiv(levelSize(tilePyramid.getHeight(), level), tilePyramid.getTileSize());
+    }
+
+    private static int levelSize(int size, int level) {
+        return ceilDiv(size, 1 << level);
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
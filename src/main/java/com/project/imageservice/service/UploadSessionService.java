@@ -0,0 +1,20 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.dto.upload.CreateUploadSessionDto;
+import com.project.imageservice.dto.upload.UploadSessionDto;
+
+import java.io.InputStream;
+
+public interface UploadSessionService {
+
+    UploadSessionDto create(CreateUploadSessionDto createUploadSessionDto, Integer accountId);
+
+    UploadSessionDto findById(Integer accountId, String uploadId);
+
+    UploadSessionDto appendChunk(Integer accountId, String uploadId, long offset, InputStream chunk);
+
+    ImageDto complete(Integer accountId, String uploadId);
+
+    void delete(Integer accountId, String uploadId);
+}
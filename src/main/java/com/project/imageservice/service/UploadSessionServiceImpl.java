@@ -0,0 +1,271 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.AccountRepository;
+import com.project.imageservice.dao.TagRepository;
+import com.project.imageservice.dao.UploadSessionRepository;
+import com.project.imageservice.domain.Account;
+import com.project.imageservice.domain.Tag;
+import com.project.imageservice.domain.UploadSession;
+import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.dto.image.UploadImageDto;
+import com.project.imageservice.dto.upload.CreateUploadSessionDto;
+import com.project.imageservice.dto.upload.UploadSessionDto;
+import com.project.imageservice.exception.type.AccountNotFoundException;
+import com.project.imageservice.exception.type.EntityNotFoundException;
+import com.project.imageservice.exception.type.StorageException;
+import com.project.imageservice.exception.type.TagNotFoundException;
+import com.project.imageservice.exception.type.UnsupportedImageFormatException;
+import com.project.imageservice.exception.type.UploadConflictException;
+import com.project.imageservice.exception.type.UploadSessionNotFoundException;
+import com.project.imageservice.exception.type.UploadSizeExceededException;
+import com.project.imageservice.mapper.UploadSessionMapper;
+import com.project.imageservice.storage.BlobStore;
+import com.project.imageservice.storage.ChunkedUploadStore;
+import com.project.imageservice.storage.ContentInspector;
+import com.project.imageservice.storage.ContentSniffer;
+import com.project.imageservice.storage.ImageFormat;
+import com.project.imageservice.storage.StorageProperties;
+import com.project.imageservice.storage.StoredBlob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadSessionMapper uploadSessionMapper;
+    private final AccountRepository accountRepository;
+    private final TagRepository tagRepository;
+    private final ChunkedUploadStore chunkedUploadStore;
+    private final BlobStore blobStore;
+    private final ImageService imageService;
+    private final TransactionTemplate transactionTemplate;
+    private final StorageProperties storageProperties;
+    private final ContentSniffer contentSniffer;
+
+    private final Set<String> activeUploads = ConcurrentHashMap.newKeySet();
+
+    @Override
+    @Transactional
+    public UploadSessionDto create(
+            CreateUploadSessionDto createUploadSessionDto,
+            Integer accountId
+    ) {
+
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(accountId));
+
+        validateTags(createUploadSessionDto.getTagsIds());
+        ImageFormat declared = contentSniffer.checkDeclared(createUploadSessionDto.getContentType());
+
+        UploadSession uploadSession = new UploadSession();
+
+        uploadSession.setId(UUID.randomUUID().toString());
+        uploadSession.setAccount(account);
+        uploadSession.setOriginalName(createUploadSessionDto.getOriginalName());
+        uploadSession.setContentType(declared != null
+                ? declared.getContentType()
+                : createUploadSessionDto.getContentType());
+        uploadSession.setTagsIds(uploadSessionMapper.toColumn(createUploadSessionDto.getTagsIds()));
+        uploadSession.setTotalSize(createUploadSessionDto.getSize());
+        uploadSession.setCommittedOffset(0L);
+        LocalDateTime now = LocalDateTime.now();
+        uploadSession.setCreatedOn(now);
+        uploadSession.setUpdatedOn(now);
+
+        uploadSessionRepository.save(uploadSession);
+        chunkedUploadStore.create(uploadSession.getId(), uploadSession.getTotalSize());
+
+        return uploadSessionMapper.mapToDto(uploadSession);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UploadSessionDto findById(Integer accountId, String uploadId) {
+        return uploadSessionRepository.findByIdAndAccountId(accountId, uploadId)
+                .map(s -> uploadSessionMapper.mapToDto(s))
+                .orElseThrow(() -> new UploadSessionNotFoundException(uploadId, accountId));
+    }
+
+    @Override
+    public UploadSessionDto appendChunk(
+            Integer accountId,
+            String uploadId,
+            long offset,
+            InputStream chunk
+    ) {
+
+        // the offset is only checked under the lock, a chunk racing for the same offset would overwrite committed bytes
+        lock(uploadId);
+        try {
+            UploadSession uploadSession = uploadSessionRepository.findByIdAndAccountId(accountId, uploadId)
+                    .orElseThrow(() -> new UploadSessionNotFoundException(uploadId, accountId));
+
+            long committedOffset = uploadSession.getCommittedOffset();
+            if (offset != committedOffset) {
+                throw new UploadConflictException(String.format(
+                        "Upload %s is at offset %s, chunk was sent for offset %s", uploadId, committedOffset, offset));
+            }
+
+            long limit = uploadSession.getTotalSize() - offset;
+            long written;
+            try {
+                written = chunkedUploadStore.write(uploadId, offset, limit, chunk, inspector(uploadSession, offset));
+            } catch (UnsupportedImageFormatException e) {
+                transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.deleteByUploadId(uploadId));
+                chunkedUploadStore.delete(uploadId);
+                throw e;
+            }
+            if (written == limit && hasMore(chunk)) {
+                throw new UploadSizeExceededException(uploadId, uploadSession.getTotalSize());
+            }
+
+            long newOffset = offset + written;
+            LocalDateTime now = LocalDateTime.now();
+            Integer advanced = transactionTemplate.execute(status -> uploadSessionRepository.advanceOffset(
+                    uploadId, offset, newOffset, uploadSession.getContentType(), now));
+            if (advanced == null || advanced == 0) {
+                throw new UploadConflictException(String.format(
+                        "Upload %s was modified concurrently", uploadId));
+            }
+
+            uploadSession.setCommittedOffset(newOffset);
+            uploadSession.setUpdatedOn(now);
+            return uploadSessionMapper.mapToDto(uploadSession);
+        } finally {
+            activeUploads.remove(uploadId);
+        }
+    }
+
+    @Override
+    public ImageDto complete(Integer accountId, String uploadId) {
+
+        UploadSession uploadSession = uploadSessionRepository.findByIdAndAccountId(accountId, uploadId)
+                .orElseThrow(() -> new UploadSessionNotFoundException(uploadId, accountId));
+
+        if (!uploadSession.getCommittedOffset().equals(uploadSession.getTotalSize())) {
+            throw new UploadConflictException(String.format(
+                    "Upload %s is incomplete, %s of %s bytes received",
+                    uploadId, uploadSession.getCommittedOffset(), uploadSession.getTotalSize()));
+        }
+
+        lock(uploadId);
+        try {
+            StoredBlob storedBlob = blobStore.importFile(chunkedUploadStore.resolve(uploadId));
+
+            UploadImageDto uploadImageDto = new UploadImageDto();
+            uploadImageDto.setOriginalName(uploadSession.getOriginalName());
+            uploadImageDto.setContentType(uploadSession.getContentType());
+            uploadImageDto.setTagsIds(uploadSessionMapper.toTagsIds(uploadSession.getTagsIds()));
+
+            ImageDto imageDto;
+            try {
+                imageDto = transactionTemplate.execute(status -> {
+                    if (uploadSessionRepository.deleteCompleted(uploadId) == 0) {
+                        throw new UploadConflictException(String.format(
+                                "Upload %s was already completed", uploadId));
+                    }
+                    return imageService.createFromBlob(uploadImageDto, storedBlob, accountId);
+                });
+            } catch (UploadConflictException | EntityNotFoundException e) {
+                transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.deleteByUploadId(uploadId));
+                chunkedUploadStore.delete(uploadId);
+                throw e;
+            }
+            // any other failure keeps the session and its part file, so the client can finalize again
+            try {
+                chunkedUploadStore.delete(uploadId);
+            } catch (StorageException e) {
+                // the image is committed, a leftover part file is removed with the expired sessions
+            }
+            return imageDto;
+        } finally {
+            activeUploads.remove(uploadId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void delete(Integer accountId, String uploadId) {
+        UploadSession uploadSession = uploadSessionRepository.findByIdAndAccountId(accountId, uploadId)
+                .orElseThrow(() -> new UploadSessionNotFoundException(uploadId, accountId));
+
+        uploadSessionRepository.delete(uploadSession);
+        chunkedUploadStore.delete(uploadId);
+    }
+
+    @Scheduled(fixedDelayString = "${image-service.storage.upload-session-cleanup-interval:3600000}")
+    public void deleteExpired() {
+        Instant cutoff = Instant.now().minus(storageProperties.getUploadSessionTtl());
+        LocalDateTime before = LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault());
+
+        List<String> expiredIds = uploadSessionRepository.findIdsUpdatedBefore(before);
+        for (String uploadId : expiredIds) {
+            transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.deleteByUploadId(uploadId));
+        }
+        chunkedUploadStore.deleteModifiedBefore(cutoff);
+    }
+
+    private void lock(String uploadId) {
+        if (!activeUploads.add(uploadId)) {
+            throw new UploadConflictException(String.format(
+                    "Upload %s is already being written", uploadId));
+        }
+    }
+
+    // a signature may straddle chunks, so until it is decided every chunk is sniffed together with the bytes before it
+    private ContentInspector inspector(UploadSession uploadSession, long offset) {
+        if (offset >= ImageFormat.SIGNATURE_LENGTH) {
+            return ContentInspector.NONE;
+        }
+        return (buffer, length) -> {
+            int committed = (int) offset;
+            byte[] head = buffer;
+            int headLength = Math.min(length, ImageFormat.SIGNATURE_LENGTH);
+            if (committed > 0) {
+                head = Arrays.copyOf(chunkedUploadStore.readHead(uploadSession.getId(), committed), committed + headLength);
+                System.arraycopy(buffer, 0, head, committed, headLength);
+                headLength += committed;
+            }
+            boolean complete = offset + length == uploadSession.getTotalSize();
+            ImageFormat format = contentSniffer.sniff(uploadSession.getContentType(), head, headLength, complete);
+            if (format != null) {
+                uploadSession.setContentType(format.getContentType());
+            }
+        };
+    }
+
+    private boolean hasMore(InputStream chunk) {
+        try {
+            return chunk.read() != -1;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void validateTags(List<Integer> requestIds) {
+        Set<Integer> errorIds = new HashSet<>(requestIds);
+        for (Tag tag : tagRepository.findByIdIn(requestIds)) {
+            errorIds.remove(tag.getId());
+        }
+        if (!errorIds.isEmpty()) {
+            throw new TagNotFoundException(errorIds);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.project.imageservice.service;
+
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.dao.ImageVisualFeatures;
+import com.project.imageservice.domain.Image;
+import com.project.imageservice.dto.image.VisuallySimilarImageDto;
+import com.project.imageservice.exception.type.ImageNotFoundException;
+import com.project.imageservice.exception.type.InvalidSearchException;
+import com.project.imageservice.exception.type.VisualFeaturesNotFoundException;
+import com.project.imageservice.mapper.ImageMapper;
+import com.project.imageservice.search.HnswIndex;
+import com.project.imageservice.search.NearestNeighbor;
+import com.project.imageservice.search.VisualFeatures;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class VisualSearchService {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final int EF_SEARCH = 64;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ImageRepository imageRepository;
+    private final ImageMapper imageMapper;
+    private final HnswIndex index = new HnswIndex(VisualFeatures.DIMENSIONS);
+
+    public VisualSearchService(
+            ImageRepository imageRepository,
+            ImageMapper imageMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.imageRepository = imageRepository;
+        this.imageMapper = imageMapper;
+
+        Gauge.builder("image.search.visual.index.size", index, HnswIndex::size)
+                .description("Images held in the visual similarity index")
+                .register(meterRegistry);
+        Gauge.builder("image.search.visual.index.deleted", index, HnswIndex::deletedSize)
+                .description("Deleted or replaced vectors still linked into the visual similarity index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        index.clear();
+        int after = 0;
+        List<ImageVisualFeatures> batch;
+        do {
+            batch = imageRepository.findVisualFeaturesAfter(after, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (ImageVisualFeatures imageVisualFeatures : batch) {
+                put(imageVisualFeatures);
+                after = imageVisualFeatures.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        log.info("Visual similarity index rebuilt with {} images", index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesSaved(ImagesSavedEvent event) {
+        if (event.getImageIds().isEmpty()) {
+            return;
+        }
+        imageRepository.findVisualFeaturesByIdIn(event.getImageIds()).forEach(this::put);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesDeleted(ImagesDeletedEvent event) {
+        event.getImageIds().forEach(index::remove);
+    }
+
+    @Transactional(readOnly = true)
+    public List<VisuallySimilarImageDto> findSimilar(Integer imageId, Integer accountId, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidSearchException(String.format("Parameter limit must be between 1 and %s", MAX_LIMIT));
+        }
+
+        Image reference = imageRepository.findById(imageId)
+                .orElseThrow(() -> new ImageNotFoundException(imageId));
+        if (reference.getVisualFeatures() == null) {
+            throw new VisualFeaturesNotFoundException(imageId);
+        }
+
+        IntPredicate accept = id -> id != imageId;
+        if (accountId != null) {
+            Set<Integer> accountImageIds = new HashSet<>(imageRepository.findIdsByAccountId(accountId));
+            accept = accept.and(accountImageIds::contains);
+        }
+        List<NearestNeighbor> neighbors = index.search(
+                VisualFeatures.fromBytes(reference.getVisualFeatures()), limit, Math.max(EF_SEARCH, 2 * limit), accept);
+
+        Map<Integer, Image> images = imageRepository.findAllById(neighbors.stream()
+                        .map(NearestNeighbor::getId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Image::getId, Function.identity()));
+
+        List<VisuallySimilarImageDto> similarImages = new ArrayList<>(neighbors.size());
+        for (NearestNeighbor neighbor : neighbors) {
+            Image image = images.get(neighbor.getId());
+            if (image != null) {
+                similarImages.add(new VisuallySimilarImageDto(imageMapper.mapToDo(image), neighbor.getDistance()));
+            }
+        }
+        return similarImages;
+    }
+
+    private void put(ImageVisualFeatures imageVisualFeatures) {
+        index.put(imageVisualFeatures.getId(), VisualFeatures.fromBytes(imageVisualFeatures.getVisualFeatures()));
+    }
+}
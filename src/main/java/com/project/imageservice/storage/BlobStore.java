@@ -0,0 +1,22 @@
+package com.project.imageservice.storage;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+
+public interface BlobStore {
+
+    default StoredBlob store(InputStream content) {
+        return store(content, ContentInspector.NONE);
+    }
+
+    StoredBlob store(InputStream content, ContentInspector inspector);
+
+    StoredBlob importFile(Path file);
+
+    Path resolve(String contentHash);
+
+    boolean exists(String contentHash);
+
+    boolean deleteIfUnmodifiedSince(String contentHash, Instant since);
+}
@@ -0,0 +1,113 @@
+package com.project.imageservice.storage;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+public final class BlurHash {
+
+    private static final int SAMPLE_SIZE = 32;
+    private static final int MAX_COMPONENTS = 4;
+    private static final int MIN_COMPONENTS = 3;
+
+    private static final char[] BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~".toCharArray();
+    private static final double[] SRGB_TO_LINEAR = new double[256];
+
+    static {
+        for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+            double value = i / 255.0;
+            SRGB_TO_LINEAR[i] = value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+        }
+    }
+
+    private BlurHash() {
+    }
+
+    public static String encode(BufferedImage image) {
+        int componentsX = image.getWidth() >= image.getHeight() ? MAX_COMPONENTS : MIN_COMPONENTS;
+        int componentsY = image.getWidth() >= image.getHeight() ? MIN_COMPONENTS : MAX_COMPONENTS;
+
+        // a few hundred pixels carry all the detail the lowest frequencies can hold
+        double scale = Math.min(1.0, (double) SAMPLE_SIZE / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage sample = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = sample.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        int[] pixels = sample.getRGB(0, 0, width, height, null, 0, width);
+
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                factors[j * componentsX + i] = basis(pixels, width, height, i, j);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder(6 + 2 * (factors.length - 1));
+        appendBase83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+        double maximum = 0;
+        for (int k = 1; k < factors.length; k++) {
+            for (double value : factors[k]) {
+                maximum = Math.max(maximum, Math.abs(value));
+            }
+        }
+        int quantisedMaximum = Math.max(0, Math.min(82, (int) Math.floor(maximum * 166 - 0.5)));
+        double acScale = factors.length > 1 ? (quantisedMaximum + 1) / 166.0 : 1;
+        appendBase83(hash, factors.length > 1 ? quantisedMaximum : 0, 1);
+
+        double[] dc = factors[0];
+        appendBase83(hash, (linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            double[] ac = factors[k];
+            appendBase83(hash, quantise(ac[0], acScale) * 19 * 19 + quantise(ac[1], acScale) * 19 + quantise(ac[2], acScale), 2);
+        }
+        return hash.toString();
+    }
+
+    private static double[] basis(int[] pixels, int width, int height, int i, int j) {
+        double r = 0;
+        double g = 0;
+        double b = 0;
+        for (int y = 0; y < height; y++) {
+            double cosY = Math.cos(Math.PI * j * y / height);
+            for (int x = 0; x < width; x++) {
+                double weight = Math.cos(Math.PI * i * x / width) * cosY;
+                int rgb = pixels[y * width + x];
+                r += weight * SRGB_TO_LINEAR[(rgb >> 16) & 0xFF];
+                g += weight * SRGB_TO_LINEAR[(rgb >> 8) & 0xFF];
+                b += weight * SRGB_TO_LINEAR[rgb & 0xFF];
+            }
+        }
+        double normalisation = (i == 0 && j == 0 ? 1.0 : 2.0) / (width * height);
+        return new double[]{r * normalisation, g * normalisation, b * normalisation};
+    }
+
+    private static int quantise(double value, double scale) {
+        double normalised = value / scale;
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(normalised)), normalised);
+        return Math.max(0, Math.min(18, (int) Math.floor(signedRoot * 9 + 9.5)));
+    }
+
+    private static int linearToSrgb(double value) {
+        double clamped = Math.max(0, Math.min(1, value));
+        double srgb = clamped <= 0.0031308 ? clamped * 12.92 : 1.055 * Math.pow(clamped, 1 / 2.4) - 0.055;
+        return (int) Math.round(srgb * 255);
+    }
+
+    private static void appendBase83(StringBuilder hash, int value, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            int divisor = 1;
+            for (int k = 0; k < i; k++) {
+                divisor *= 83;
+            }
+            hash.append(BASE83[(value / divisor) % 83]);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.project.imageservice.storage;
+
+import com.project.imageservice.exception.type.StorageException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+@Component
+public class ChunkedUploadStore {
+
+    private final Path uploadsDir;
+    private final int bufferSize;
+
+    public ChunkedUploadStore(StorageProperties storageProperties) {
+        this.uploadsDir = storageProperties.getRoot().toAbsolutePath().resolve("uploads");
+        this.bufferSize = storageProperties.getBufferSize();
+        try {
+            Files.createDirectories(uploadsDir);
+        } catch (IOException e) {
+            throw new StorageException("Could not initialize upload store at " + uploadsDir, e);
+        }
+    }
+
+    public void create(String uploadId, long size) {
+        try (RandomAccessFile file = new RandomAccessFile(resolve(uploadId).toFile(), "rw")) {
+            file.setLength(size);
+        } catch (IOException e) {
+            throw new StorageException("Could not create upload " + uploadId, e);
+        }
+    }
+
+    public long write(String uploadId, long offset, long limit, InputStream chunk, ContentInspector inspector) {
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        byte[] array = buffer.array();
+        int first;
+        try {
+            first = chunk.readNBytes(array, 0, (int) Math.min(array.length, limit));
+        } catch (IOException e) {
+            throw new StorageException("Could not read chunk of upload " + uploadId, e);
+        }
+        inspector.inspect(array, first);
+
+        try (FileChannel channel = FileChannel.open(resolve(uploadId), StandardOpenOption.WRITE)) {
+            long written = 0;
+            int read = first;
+
+            while (read > 0) {
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, offset + written);
+                }
+                read = written < limit ? chunk.read(array, 0, (int) Math.min(array.length, limit - written)) : -1;
+            }
+
+            channel.force(false);
+            return written;
+        } catch (IOException e) {
+            throw new StorageException("Could not write chunk of upload " + uploadId, e);
+        }
+    }
+
+    public byte[] readHead(String uploadId, int length) {
+        try (InputStream in = Files.newInputStream(resolve(uploadId))) {
+            return in.readNBytes(length);
+        } catch (IOException e) {
+            throw new StorageException("Could not read upload " + uploadId, e);
+        }
+    }
+
+    public Path resolve(String uploadId) {
+        return uploadsDir.resolve(uploadId + ".part");
+    }
+
+    public void deleteModifiedBefore(Instant before) {
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(uploadsDir, "*.part")) {
+            for (Path part : parts) {
+                if (Files.getLastModifiedTime(part).toInstant().isBefore(before)) {
+                    Files.deleteIfExists(part);
+                }
+            }
+        } catch (IOException e) {
+            throw new StorageException("Could not clean up uploads in " + uploadsDir, e);
+        }
+    }
+
+    public void delete(String uploadId) {
+        try {
+            Files.deleteIfExists(resolve(uploadId));
+        } catch (IOException e) {
+            throw new StorageException("Could not delete upload " + uploadId, e);
+        }
+    }
+}
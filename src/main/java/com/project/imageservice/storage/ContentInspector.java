@@ -0,0 +1,10 @@
+package com.project.imageservice.storage;
+
+@FunctionalInterface
+public interface ContentInspector {
+
+    ContentInspector NONE = (buffer, length) -> {
+    };
+
+    void inspect(byte[] buffer, int length);
+}
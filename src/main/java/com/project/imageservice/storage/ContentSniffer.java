@@ -0,0 +1,50 @@
+package com.project.imageservice.storage;
+
+import com.project.imageservice.exception.type.UnsupportedImageFormatException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ContentSniffer {
+
+    private final StorageProperties storageProperties;
+
+    public ImageFormat checkDeclared(String contentType) {
+        if (contentType == null || MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(contentType)) {
+            return null;
+        }
+        ImageFormat format = ImageFormat.fromContentType(contentType);
+        if (format == null || !storageProperties.getAllowedFormats().contains(format)) {
+            throw new UnsupportedImageFormatException(String.format(
+                    "Content type %s is not supported", contentType));
+        }
+        return format;
+    }
+
+    public ImageFormat sniff(String contentType, byte[] buffer, int length) {
+        return sniff(contentType, buffer, length, true);
+    }
+
+    // with more content to come, a start that could still grow into a known signature is undecided and gives null
+    public ImageFormat sniff(String contentType, byte[] buffer, int length, boolean complete) {
+        ImageFormat declared = checkDeclared(contentType);
+        ImageFormat detected = ImageFormat.detect(buffer, length);
+        if (detected == null && !complete && ImageFormat.isSignaturePrefix(buffer, length)) {
+            return null;
+        }
+        if (detected == null) {
+            throw new UnsupportedImageFormatException("Content is not a recognized image format");
+        }
+        if (!storageProperties.getAllowedFormats().contains(detected)) {
+            throw new UnsupportedImageFormatException(String.format(
+                    "Content of type %s is not supported", detected.getContentType()));
+        }
+        if (declared != null && declared != detected) {
+            throw new UnsupportedImageFormatException(String.format(
+                    "Content was declared as %s but is %s", contentType, detected.getContentType()));
+        }
+        return detected;
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.imageservice.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+@Getter
+@AllArgsConstructor
+public class ImageContent {
+
+    private final Path path;
+    private final String contentHash;
+    private final String contentType;
+
+}
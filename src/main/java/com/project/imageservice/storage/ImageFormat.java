@@ -0,0 +1,196 @@
+package com.project.imageservice.storage;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Getter
+public enum ImageFormat {
+
+    JPEG("image/jpeg", "image/jpg", "image/pjpeg"),
+    PNG("image/png", "image/x-png"),
+    GIF("image/gif"),
+    WEBP("image/webp"),
+    BMP("image/bmp", "image/x-bmp", "image/x-ms-bmp"),
+    TIFF("image/tiff", "image/tif"),
+    HEIC("image/heic", "image/heif"),
+    AVIF("image/avif");
+
+    // the WEBP fourcc and the ftyp brands end at byte 12, every other signature ends before
+    public static final int SIGNATURE_LENGTH = 12;
+
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] GIF87_SIGNATURE = ascii("GIF87a");
+    private static final byte[] GIF89_SIGNATURE = ascii("GIF89a");
+    private static final byte[] RIFF = ascii("RIFF");
+    private static final byte[] WEBP_FOURCC = ascii("WEBP");
+    private static final byte[] BMP_SIGNATURE = ascii("BM");
+    private static final byte[] BMP_RESERVED = new byte[4];
+    private static final byte[] TIFF_LITTLE_ENDIAN = {'I', 'I', 42, 0};
+    private static final byte[] TIFF_BIG_ENDIAN = {'M', 'M', 0, 42};
+    private static final byte[] FTYP = ascii("ftyp");
+    private static final byte[][] HEIC_BRANDS = {
+            ascii("heic"), ascii("heix"), ascii("hevc"), ascii("hevx"),
+            ascii("heim"), ascii("heis"), ascii("mif1"), ascii("msf1")
+    };
+    private static final byte[][] AVIF_BRANDS = {ascii("avif"), ascii("avis")};
+
+    // values() clones the array on every call, sniffing runs per upload and must not allocate
+    private static final ImageFormat[] VALUES = values();
+
+    private final String contentType;
+    private final List<String> aliases;
+
+    ImageFormat(String contentType, String... aliases) {
+        this.contentType = contentType;
+        this.aliases = List.of(aliases);
+    }
+
+    public boolean matches(String contentType) {
+        return matches(contentType, mediaTypeStart(contentType), mediaTypeEnd(contentType));
+    }
+
+    public static ImageFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int start = mediaTypeStart(contentType);
+        int end = mediaTypeEnd(contentType);
+        for (ImageFormat format : VALUES) {
+            if (format.matches(contentType, start, end)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    public static ImageFormat detect(byte[] buffer, int length) {
+        if (startsWith(buffer, length, 0, JPEG_SIGNATURE)) {
+            return JPEG;
+        }
+        if (startsWith(buffer, length, 0, PNG_SIGNATURE)) {
+            return PNG;
+        }
+        if (startsWith(buffer, length, 0, GIF87_SIGNATURE) || startsWith(buffer, length, 0, GIF89_SIGNATURE)) {
+            return GIF;
+        }
+        if (startsWith(buffer, length, 0, RIFF) && startsWith(buffer, length, 8, WEBP_FOURCC)) {
+            return WEBP;
+        }
+        if (startsWith(buffer, length, 0, TIFF_LITTLE_ENDIAN) || startsWith(buffer, length, 0, TIFF_BIG_ENDIAN)) {
+            return TIFF;
+        }
+        if (startsWith(buffer, length, 4, FTYP)) {
+            if (startsWithAny(buffer, length, 8, AVIF_BRANDS)) {
+                return AVIF;
+            }
+            if (startsWithAny(buffer, length, 8, HEIC_BRANDS)) {
+                return HEIC;
+            }
+            return null;
+        }
+        // the reserved header fields of a bitmap are zero, which keeps "BM" text from matching
+        if (startsWith(buffer, length, 0, BMP_SIGNATURE) && length >= 10
+                && buffer[6] == 0 && buffer[7] == 0 && buffer[8] == 0 && buffer[9] == 0) {
+            return BMP;
+        }
+        return null;
+    }
+
+    // true while the bytes seen so far agree with the start of some signature that needs more of them
+    public static boolean isSignaturePrefix(byte[] buffer, int length) {
+        if (length >= SIGNATURE_LENGTH) {
+            return false;
+        }
+        return agrees(buffer, length, 0, JPEG_SIGNATURE)
+                || agrees(buffer, length, 0, PNG_SIGNATURE)
+                || agrees(buffer, length, 0, GIF87_SIGNATURE)
+                || agrees(buffer, length, 0, GIF89_SIGNATURE)
+                || agrees(buffer, length, 0, RIFF) && agrees(buffer, length, 8, WEBP_FOURCC)
+                || agrees(buffer, length, 0, TIFF_LITTLE_ENDIAN)
+                || agrees(buffer, length, 0, TIFF_BIG_ENDIAN)
+                || agrees(buffer, length, 4, FTYP)
+                && (agreesWithAny(buffer, length, 8, AVIF_BRANDS) || agreesWithAny(buffer, length, 8, HEIC_BRANDS))
+                || agrees(buffer, length, 0, BMP_SIGNATURE) && agrees(buffer, length, 6, BMP_RESERVED);
+    }
+
+    private static boolean agreesWithAny(byte[] buffer, int length, int offset, byte[][] signatures) {
+        for (byte[] signature : signatures) {
+            if (agrees(buffer, length, offset, signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean agrees(byte[] buffer, int length, int offset, byte[] signature) {
+        for (int i = 0; i < signature.length && offset + i < length; i++) {
+            if (buffer[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWithAny(byte[] buffer, int length, int offset, byte[][] signatures) {
+        for (byte[] signature : signatures) {
+            if (startsWith(buffer, length, offset, signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] buffer, int length, int offset, byte[] signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (buffer[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the media type is compared in place between its trimmed bounds instead of being cut out and lowercased
+    private boolean matches(String contentType, int start, int end) {
+        if (isMediaType(contentType, start, end, this.contentType)) {
+            return true;
+        }
+        for (int i = 0; i < aliases.size(); i++) {
+            if (isMediaType(contentType, start, end, aliases.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isMediaType(String contentType, int start, int end, String mediaType) {
+        return end - start == mediaType.length()
+                && contentType.regionMatches(true, start, mediaType, 0, mediaType.length());
+    }
+
+    private static int mediaTypeStart(String contentType) {
+        int start = 0;
+        while (start < contentType.length() && contentType.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int mediaTypeEnd(String contentType) {
+        int parameters = contentType.indexOf(';');
+        int end = parameters == -1 ? contentType.length() : parameters;
+        while (end > 0 && contentType.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
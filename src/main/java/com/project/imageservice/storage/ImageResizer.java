@@ -0,0 +1,96 @@
+package com.project.imageservice.storage;
+
+import com.project.imageservice.exception.type.StorageException;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+@Component
+public class ImageResizer {
+
+    public BufferedImage resize(Path file, int width, int height, RenditionFit fit, boolean opaque) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+
+                Dimension scaled = scaledSize(sourceWidth, sourceHeight, width, height, fit);
+                Dimension target = fit == RenditionFit.COVER && width > 0 && height > 0
+                        ? new Dimension(width, height)
+                        : scaled;
+
+                // decode only every n-th pixel so the raster stays close to the requested size
+                int subsampling = Math.max(1, Math.min(sourceWidth / scaled.width, sourceHeight / scaled.height));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+                return draw(reader.read(0, param), scaled, target, opaque);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new StorageException("Could not decode image content " + file.getFileName(), e);
+        }
+    }
+
+    private Dimension scaledSize(int sourceWidth, int sourceHeight, int width, int height, RenditionFit fit) {
+        if (width > 0 && height > 0 && fit == RenditionFit.FILL) {
+            return new Dimension(width, height);
+        }
+
+        double ratio;
+        if (width > 0 && height > 0 && fit == RenditionFit.COVER) {
+            ratio = Math.max((double) width / sourceWidth, (double) height / sourceHeight);
+        } else {
+            ratio = 1.0;
+            if (width > 0) {
+                ratio = Math.min(ratio, (double) width / sourceWidth);
+            }
+            if (height > 0) {
+                ratio = Math.min(ratio, (double) height / sourceHeight);
+            }
+        }
+        return new Dimension(
+                Math.max(1, (int) Math.round(sourceWidth * ratio)),
+                Math.max(1, (int) Math.round(sourceHeight * ratio)));
+    }
+
+    private BufferedImage draw(BufferedImage source, Dimension scaled, Dimension target, boolean opaque) {
+        BufferedImage image = new BufferedImage(target.width, target.height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            if (opaque) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, target.width, target.height);
+            }
+            int x = (target.width - scaled.width) / 2;
+            int y = (target.height - scaled.height) / 2;
+            graphics.drawImage(source, x, y, scaled.width, scaled.height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+}
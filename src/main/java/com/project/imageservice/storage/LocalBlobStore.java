@@ -0,0 +1,184 @@
+package com.project.imageservice.storage;
+
+import com.project.imageservice.exception.type.StorageException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.UUID;
+
+@Component
+public class LocalBlobStore implements BlobStore {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path blobsDir;
+    private final Path tmpDir;
+    private final int bufferSize;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public LocalBlobStore(StorageProperties storageProperties) {
+        Path root = storageProperties.getRoot().toAbsolutePath();
+        this.blobsDir = root.resolve("blobs");
+        this.tmpDir = root.resolve("tmp");
+        this.bufferSize = storageProperties.getBufferSize();
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        try {
+            Files.createDirectories(blobsDir);
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new StorageException("Could not initialize blob store at " + root, e);
+        }
+    }
+
+    @Override
+    public StoredBlob store(InputStream content, ContentInspector inspector) {
+        Path tmpFile = null;
+        try {
+            byte[] buffer = new byte[bufferSize];
+            int read = content.readNBytes(buffer, 0, buffer.length);
+            inspector.inspect(buffer, read);
+
+            tmpFile = Files.createTempFile(tmpDir, "upload-", ".part");
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            long size = 0;
+
+            try (OutputStream out = Files.newOutputStream(tmpFile)) {
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                size += read;
+                while ((read = content.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+
+            String contentHash = toHex(digest.digest());
+            moveIntoPlace(tmpFile, contentHash);
+            return new StoredBlob(contentHash, size);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new StorageException("Could not store image content", e);
+        } finally {
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    @Override
+    public StoredBlob importFile(Path file) {
+        Path tmpFile = null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            byte[] buffer = new byte[bufferSize];
+            long size = 0;
+
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    size += read;
+                }
+            }
+
+            String contentHash = toHex(digest.digest());
+            // the source is linked rather than moved, so the caller can still retry from it if its commit fails
+            tmpFile = tmpDir.resolve("import-" + UUID.randomUUID() + ".part");
+            try {
+                Files.createLink(tmpFile, file);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.copy(file, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moveIntoPlace(tmpFile, contentHash);
+            return new StoredBlob(contentHash, size);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new StorageException("Could not import image content", e);
+        } finally {
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    @Override
+    public Path resolve(String contentHash) {
+        return blobsDir
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        return Files.exists(resolve(contentHash));
+    }
+
+    @Override
+    public boolean deleteIfUnmodifiedSince(String contentHash, Instant since) {
+        Path file = resolve(contentHash);
+        try {
+            // an upload reusing the file refreshes its mtime under the same lock, so it is either seen here or
+            // finds the file gone and moves its own copy into place
+            synchronized (lock(contentHash)) {
+                if (Files.getLastModifiedTime(file).toInstant().isAfter(since)) {
+                    return false;
+                }
+                return Files.deleteIfExists(file);
+            }
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new StorageException("Could not delete image content " + contentHash, e);
+        }
+    }
+
+    private void moveIntoPlace(Path tmpFile, String contentHash) throws IOException {
+        Path target = resolve(contentHash);
+        synchronized (lock(contentHash)) {
+            if (Files.exists(target)) {
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                return;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tmpFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // the same content was stored concurrently, the existing file is identical
+            }
+        }
+    }
+
+    private Object lock(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), locks.length)];
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
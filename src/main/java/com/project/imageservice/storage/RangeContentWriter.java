@@ -0,0 +1,223 @@
+package com.project.imageservice.storage;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+@Component
+public class RangeContentWriter {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String BYTES = "bytes";
+    private static final String CRLF = "\r\n";
+
+    public void write(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            ImageContent content
+    ) throws IOException {
+
+        String etag = "\"" + content.getContentHash() + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        long length = Files.size(content.getPath());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+
+        List<long[]> ranges;
+        try {
+            ranges = resolveRanges(request, etag, length);
+        } catch (IllegalArgumentException e) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(content.getContentType());
+            response.setContentLengthLong(length);
+            if (!head) {
+                transfer(request, response, content.getPath(), 0, length);
+            }
+        } else if (ranges.size() == 1) {
+            long start = ranges.get(0)[0];
+            long end = ranges.get(0)[1];
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setContentType(content.getContentType());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, length));
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                transfer(request, response, content.getPath(), start, end - start + 1);
+            }
+        } else {
+            writeMultipart(response, content, ranges, length, head);
+        }
+    }
+
+    public void write(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            String etag,
+            Supplier<Rendition> renditionSupplier
+    ) throws IOException {
+
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        Rendition rendition = renditionSupplier.get();
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(rendition.getContentType());
+        response.setContentLength(rendition.getContent().length);
+        if (!HttpMethod.HEAD.matches(request.getMethod())) {
+            OutputStream out = response.getOutputStream();
+            out.write(rendition.getContent());
+            out.flush();
+        }
+    }
+
+    private List<long[]> resolveRanges(HttpServletRequest request, String etag, long length) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || length == 0) {
+            return List.of();
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return List.of();
+        }
+
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // RFC 7233 section 3.1 lets a server ignore a Range header it cannot parse and send the whole content
+            return List.of();
+        }
+        List<long[]> ranges = new ArrayList<>(httpRanges.size());
+        long total = 0;
+        for (HttpRange httpRange : httpRanges) {
+            long start = httpRange.getRangeStart(length);
+            long end = httpRange.getRangeEnd(length);
+            // HttpRange only clamps the end, a start past the content has to be caught here
+            if (start >= length || start > end) {
+                continue;
+            }
+            total += end - start + 1;
+            ranges.add(new long[]{start, end});
+        }
+        if (ranges.isEmpty()) {
+            throw new IllegalArgumentException("None of the ranges overlap the content");
+        }
+        if (ranges.size() > 1 && total > length) {
+            throw new IllegalArgumentException("The sum of all ranges exceeds the content length");
+        }
+        return ranges;
+    }
+
+    private void writeMultipart(
+            HttpServletResponse response,
+            ImageContent content,
+            List<long[]> ranges,
+            long length,
+            boolean head
+    ) throws IOException {
+
+        String boundary = new String(MimeTypeUtils.generateMultipartBoundary(), StandardCharsets.US_ASCII);
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] partHeader = (CRLF + "--" + boundary + CRLF
+                    + HttpHeaders.CONTENT_TYPE + ": " + content.getContentType() + CRLF
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range[0], range[1], length) + CRLF
+                    + CRLF).getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range[1] - range[0] + 1;
+        }
+        byte[] closeDelimiter = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        contentLength += closeDelimiter.length;
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel source = FileChannel.open(content.getPath(), StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                out.write(partHeaders.get(i));
+                transferTo(source, range[0], range[1] - range[0] + 1, target);
+            }
+        }
+        out.write(closeDelimiter);
+        out.flush();
+    }
+
+    private void transfer(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Path path,
+            long position,
+            long count
+    ) throws IOException {
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+            transferTo(source, position, count, Channels.newChannel(out));
+        }
+        out.flush();
+    }
+
+    private void transferTo(FileChannel source, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long written = source.transferTo(position + transferred, count - transferred, target);
+            if (written <= 0) {
+                break;
+            }
+            transferred += written;
+        }
+    }
+
+    private String contentRange(long start, long end, long length) {
+        return BYTES + " " + start + "-" + end + "/" + length;
+    }
+}
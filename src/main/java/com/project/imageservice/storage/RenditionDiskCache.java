@@ -0,0 +1,158 @@
+package com.project.imageservice.storage;
+
+import com.project.imageservice.exception.type.StorageException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class RenditionDiskCache {
+
+    private static final double TRIM_TARGET = 0.9;
+
+    private final Path renditionsDir;
+    private final Path tmpDir;
+    private final long maxBytes;
+    private final AtomicLong currentBytes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RenditionDiskCache(Path root, long maxBytes) {
+        this.renditionsDir = root.resolve("renditions");
+        this.tmpDir = root.resolve("tmp");
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(renditionsDir);
+            Files.createDirectories(tmpDir);
+            currentBytes.set(listFiles().stream().mapToLong(CachedFile::getSize).sum());
+        } catch (IOException e) {
+            throw new StorageException("Could not initialize rendition cache at " + renditionsDir, e);
+        }
+    }
+
+    public byte[] get(RenditionKey key) {
+        Path file = resolve(key);
+        try {
+            byte[] content = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return content;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new StorageException("Could not read rendition " + key.getFileName(), e);
+        }
+    }
+
+    public void put(RenditionKey key, byte[] content) {
+        if (content.length > maxBytes) {
+            return;
+        }
+        Path tmpFile = null;
+        try {
+            tmpFile = Files.createTempFile(tmpDir, "rendition-", ".part");
+            Files.write(tmpFile, content);
+            Path target = resolve(key);
+            Files.createDirectories(target.getParent());
+            Files.move(tmpFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new StorageException("Could not store rendition " + key.getFileName(), e);
+        } finally {
+            deleteQuietly(tmpFile);
+        }
+
+        if (currentBytes.addAndGet(content.length) > maxBytes) {
+            trim();
+        }
+    }
+
+    public long getCurrentBytes() {
+        return currentBytes.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private synchronized void trim() {
+        if (currentBytes.get() <= maxBytes) {
+            return;
+        }
+        try {
+            List<CachedFile> files = listFiles();
+            files.sort(Comparator.comparing(CachedFile::getLastModified));
+
+            long total = files.stream().mapToLong(CachedFile::getSize).sum();
+            long target = (long) (maxBytes * TRIM_TARGET);
+            for (CachedFile file : files) {
+                if (total <= target) {
+                    break;
+                }
+                if (Files.deleteIfExists(file.getPath())) {
+                    total -= file.getSize();
+                    evictions.incrementAndGet();
+                }
+            }
+            currentBytes.set(total);
+        } catch (IOException e) {
+            throw new StorageException("Could not trim rendition cache at " + renditionsDir, e);
+        }
+    }
+
+    private List<CachedFile> listFiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(renditionsDir)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .map(this::toCachedFile)
+                    .filter(f -> f != null)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private CachedFile toCachedFile(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new CachedFile(path, attributes.size(), attributes.lastModifiedTime());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Path resolve(RenditionKey key) {
+        String contentHash = key.getContentHash();
+        return renditionsDir
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(key.getFileName());
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedFile {
+
+        private final Path path;
+        private final long size;
+        private final FileTime lastModified;
+
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.imageservice.storage;
+
+public enum RenditionFit {
+
+    CONTAIN,
+    COVER,
+    FILL
+
+}
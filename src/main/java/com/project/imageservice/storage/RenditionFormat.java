@@ -0,0 +1,17 @@
+package com.project.imageservice.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum RenditionFormat {
+
+    JPEG("jpg", "image/jpeg", true),
+    PNG("png", "image/png", false);
+
+    private final String extension;
+    private final String contentType;
+    private final boolean opaque;
+
+}
@@ -0,0 +1,25 @@
+package com.project.imageservice.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class RenditionKey {
+
+    private final String contentHash;
+    private final int width;
+    private final int height;
+    private final RenditionFit fit;
+    private final RenditionFormat format;
+
+    public String getFileName() {
+        return contentHash + "-" + width + "x" + height + "-" + fit.name().toLowerCase() + "." + format.getExtension();
+    }
+
+    public String getEtag() {
+        return "\"" + getFileName() + "\"";
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.imageservice.storage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RenditionMemoryCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<RenditionKey, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long currentBytes;
+    private long evictions;
+
+    public RenditionMemoryCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized byte[] get(RenditionKey key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(RenditionKey key, byte[] content) {
+        if (content.length > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(key, content);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        currentBytes += content.length;
+
+        Iterator<Map.Entry<RenditionKey, byte[]>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().length;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
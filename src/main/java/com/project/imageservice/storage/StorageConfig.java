@@ -0,0 +1,28 @@
+package com.project.imageservice.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class StorageConfig {
+
+    private final StorageProperties storageProperties;
+
+    @Bean
+    public ThreadPoolTaskExecutor uploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(storageProperties.getUploadThreads());
+        executor.setMaxPoolSize(storageProperties.getUploadThreads());
+        executor.setQueueCapacity(storageProperties.getUploadQueueCapacity());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("upload-");
+        return executor;
+    }
+}
@@ -0,0 +1,102 @@
+package com.project.imageservice.storage;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "image-service.storage")
+public class StorageProperties {
+
+    private Path root = Path.of("data");
+
+    private int bufferSize = 64 * 1024;
+
+    private int uploadThreads = Runtime.getRuntime().availableProcessors();
+
+    private int uploadQueueCapacity = 256;
+
+    private Duration uploadSessionTtl = Duration.ofHours(24);
+
+    private Set<ImageFormat> allowedFormats = EnumSet.allOf(ImageFormat.class);
+
+    private final Gc gc = new Gc();
+
+    private final Thumbnail thumbnail = new Thumbnail();
+
+    private final Rendition rendition = new Rendition();
+
+    private final Tiles tiles = new Tiles();
+
+    @Getter
+    @Setter
+    public static class Gc {
+
+        private boolean enabled = true;
+
+        private long interval = 60_000;
+
+        private Duration gracePeriod = Duration.ofMinutes(10);
+
+        private int batchSize = 100;
+
+        private int maxDeletesPerSecond = 20;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Thumbnail {
+
+        private int size = 256;
+
+        private int threads = 2;
+
+        private int queueCapacity = 512;
+
+        private boolean backfillEnabled = true;
+
+        private long backfillInterval = 300_000;
+
+        private int backfillBatchSize = 100;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Rendition {
+
+        private DataSize memoryCacheSize = DataSize.ofMegabytes(64);
+
+        private DataSize diskCacheSize = DataSize.ofGigabytes(1);
+
+        private int maxDimension = 4096;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Tiles {
+
+        private boolean enabled = true;
+
+        private int tileSize = 256;
+
+        private int minDimension = 4096;
+
+        private long stripPixels = 16L * 1024 * 1024;
+
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        private int queueCapacity = 64;
+
+    }
+
+}
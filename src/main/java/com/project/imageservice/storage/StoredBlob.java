@@ -0,0 +1,13 @@
+package com.project.imageservice.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StoredBlob {
+
+    private final String contentHash;
+    private final long size;
+
+}
@@ -0,0 +1,85 @@
+package com.project.imageservice.storage;
+
+import com.project.imageservice.exception.type.StorageException;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+@Component
+public class ThumbnailStore {
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    private static final String FORMAT = "jpg";
+
+    private final Path thumbnailsDir;
+    private final Path tmpDir;
+
+    public ThumbnailStore(StorageProperties storageProperties) {
+        Path root = storageProperties.getRoot().toAbsolutePath();
+        this.thumbnailsDir = root.resolve("thumbnails");
+        this.tmpDir = root.resolve("tmp");
+        try {
+            Files.createDirectories(thumbnailsDir);
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new StorageException("Could not initialize thumbnail store at " + root, e);
+        }
+    }
+
+    public void store(String contentHash, RenderedImage thumbnail) {
+        Path tmpFile = null;
+        try {
+            tmpFile = Files.createTempFile(tmpDir, "thumbnail-", "." + FORMAT);
+            if (!ImageIO.write(thumbnail, FORMAT, tmpFile.toFile())) {
+                throw new StorageException("No writer available for thumbnail format " + FORMAT);
+            }
+            Path target = resolve(contentHash);
+            Files.createDirectories(target.getParent());
+            Files.move(tmpFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new StorageException("Could not store thumbnail " + contentHash, e);
+        } finally {
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    public BufferedImage read(String contentHash) {
+        try {
+            return ImageIO.read(resolve(contentHash).toFile());
+        } catch (IOException e) {
+            throw new StorageException("Could not read thumbnail " + contentHash, e);
+        }
+    }
+
+    public Path resolve(String contentHash) {
+        return thumbnailsDir
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash + "." + FORMAT);
+    }
+
+    public boolean exists(String contentHash) {
+        return Files.exists(resolve(contentHash));
+    }
+
+    public void delete(String contentHash) {
+        deleteQuietly(resolve(contentHash));
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+}
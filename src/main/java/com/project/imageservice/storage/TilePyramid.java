@@ -0,0 +1,15 @@
+package com.project.imageservice.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TilePyramid {
+
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int levels;
+
+}
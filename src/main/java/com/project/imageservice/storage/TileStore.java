@@ -0,0 +1,174 @@
+package com.project.imageservice.storage;
+
+import com.project.imageservice.exception.type.StorageException;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class TileStore {
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    private static final String FORMAT = "jpg";
+    private static final String MARKER = "pyramid.properties";
+
+    private final Path tilesDir;
+    private final Path tmpDir;
+
+    public TileStore(StorageProperties storageProperties) {
+        Path root = storageProperties.getRoot().toAbsolutePath();
+        this.tilesDir = root.resolve("tiles");
+        this.tmpDir = root.resolve("tmp");
+        try {
+            Files.createDirectories(tilesDir);
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new StorageException("Could not initialize tile store at " + root, e);
+        }
+    }
+
+    public Path resolve(String contentHash, int level, int x, int y) {
+        return pyramidDir(contentHash)
+                .resolve(String.valueOf(level))
+                .resolve(x + "_" + y + "." + FORMAT);
+    }
+
+    public boolean exists(String contentHash, int level, int x, int y) {
+        return Files.exists(resolve(contentHash, level, x, y));
+    }
+
+    public BufferedImage read(String contentHash, int level, int x, int y) {
+        Path tile = resolve(contentHash, level, x, y);
+        if (!Files.exists(tile)) {
+            return null;
+        }
+        try {
+            return ImageIO.read(tile.toFile());
+        } catch (IOException e) {
+            throw new StorageException("Could not read tile " + tile, e);
+        }
+    }
+
+    public void store(String contentHash, int level, int x, int y, BufferedImage tile) {
+        BufferedImage rgb = new BufferedImage(tile.getWidth(), tile.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            graphics.drawImage(tile, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Path tmpFile = null;
+        try {
+            tmpFile = Files.createTempFile(tmpDir, "tile-", "." + FORMAT);
+            if (!ImageIO.write(rgb, FORMAT, tmpFile.toFile())) {
+                throw new StorageException("No writer available for tile format " + FORMAT);
+            }
+            Path target = resolve(contentHash, level, x, y);
+            Files.createDirectories(target.getParent());
+            Files.move(tmpFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new StorageException("Could not store tile " + level + "/" + x + "/" + y + " of " + contentHash, e);
+        } finally {
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    public void markComplete(String contentHash, TilePyramid tilePyramid) {
+        Properties properties = new Properties();
+        properties.setProperty("width", String.valueOf(tilePyramid.getWidth()));
+        properties.setProperty("height", String.valueOf(tilePyramid.getHeight()));
+        properties.setProperty("tileSize", String.valueOf(tilePyramid.getTileSize()));
+        properties.setProperty("levels", String.valueOf(tilePyramid.getLevels()));
+
+        Path tmpFile = null;
+        try {
+            tmpFile = Files.createTempFile(tmpDir, "pyramid-", ".properties");
+            try (OutputStream out = Files.newOutputStream(tmpFile)) {
+                properties.store(out, null);
+            }
+            Files.createDirectories(pyramidDir(contentHash));
+            Files.move(tmpFile, pyramidDir(contentHash).resolve(MARKER),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new StorageException("Could not complete tile pyramid of " + contentHash, e);
+        } finally {
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    public TilePyramid findPyramid(String contentHash) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(pyramidDir(contentHash).resolve(MARKER))) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new StorageException("Could not read tile pyramid of " + contentHash, e);
+        }
+        return new TilePyramid(
+                Integer.parseInt(properties.getProperty("width")),
+                Integer.parseInt(properties.getProperty("height")),
+                Integer.parseInt(properties.getProperty("tileSize")),
+                Integer.parseInt(properties.getProperty("levels")));
+    }
+
+    public List<String> findIncomplete() {
+        try (Stream<Path> dirs = Files.walk(tilesDir, 3)) {
+            return dirs
+                    .filter(dir -> tilesDir.relativize(dir).getNameCount() == 3)
+                    .filter(dir -> !Files.exists(dir.resolve(MARKER)))
+                    .map(dir -> dir.getFileName().toString())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new StorageException("Could not list tile pyramids at " + tilesDir, e);
+        }
+    }
+
+    public void delete(String contentHash) {
+        Path dir = pyramidDir(contentHash);
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            throw new StorageException("Could not delete tile pyramid of " + contentHash, e);
+        }
+    }
+
+    private Path pyramidDir(String contentHash) {
+        return tilesDir
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,2 @@
+alter table images
+    add column content_hash varchar(64);
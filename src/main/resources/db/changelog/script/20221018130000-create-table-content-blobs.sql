@@ -0,0 +1,20 @@
+drop table if exists content_blobs;
+
+create table content_blobs
+(
+    content_hash varchar(64) not null,
+    size         bigint      not null,
+    ref_count    integer     not null,
+    created_on   timestamp   not null,
+    updated_on   timestamp   not null,
+
+    primary key (content_hash)
+);
+
+create index idx_content_blobs_ref_count_updated_on on content_blobs (ref_count, updated_on);
+
+insert into content_blobs (content_hash, size, ref_count, created_on, updated_on)
+select content_hash, max(size), count(*), min(created_on), max(updated_on)
+from images
+where content_hash is not null
+group by content_hash;
@@ -0,0 +1,23 @@
+drop table if exists upload_sessions;
+
+create table upload_sessions
+(
+    id               varchar(36)  not null,
+    account_id       integer      not null,
+    original_name    varchar(255) not null,
+    content_type     varchar(45)  not null,
+    tags_ids         varchar(255) not null,
+    total_size       bigint       not null,
+    committed_offset bigint       not null,
+    created_on       timestamp    not null,
+    updated_on       timestamp    not null,
+
+    primary key (id),
+
+    constraint fk_account_id_upload_session
+        foreign key (account_id)
+            references accounts (id)
+            on delete cascade
+);
+
+create index idx_upload_sessions_updated_on on upload_sessions (updated_on);
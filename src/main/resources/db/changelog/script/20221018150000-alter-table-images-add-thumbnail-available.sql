@@ -0,0 +1,4 @@
+alter table images
+    add column thumbnail_available boolean default false not null;
+
+create index idx_images_content_hash on images (content_hash);
@@ -0,0 +1,2 @@
+alter table images
+    add column perceptual_hash bigint;
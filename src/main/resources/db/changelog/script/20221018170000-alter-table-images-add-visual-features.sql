@@ -0,0 +1,2 @@
+alter table images
+    add column visual_features varbinary(288);
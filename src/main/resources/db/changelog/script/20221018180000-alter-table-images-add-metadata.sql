@@ -0,0 +1,20 @@
+alter table images
+    add column width integer;
+alter table images
+    add column height integer;
+alter table images
+    add column orientation smallint;
+alter table images
+    add column captured_on timestamp;
+alter table images
+    add column camera_model varchar(255);
+alter table images
+    add column latitude double precision;
+alter table images
+    add column longitude double precision;
+
+create index idx_images_width on images (width);
+create index idx_images_height on images (height);
+create index idx_images_captured_on on images (captured_on);
+create index idx_images_camera_model on images (camera_model);
+create index idx_images_latitude_longitude on images (latitude, longitude);
@@ -0,0 +1,2 @@
+alter table images
+    add column placeholder varchar(64);
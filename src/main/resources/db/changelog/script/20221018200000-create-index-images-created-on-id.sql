@@ -0,0 +1 @@
+create index idx_images_created_on_id on images (created_on, id);
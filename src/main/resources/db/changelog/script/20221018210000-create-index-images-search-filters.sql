@@ -0,0 +1,6 @@
+create index idx_images_account_id_created_on_id on images (account_id, created_on, id);
+create index idx_images_account_id_updated_on on images (account_id, updated_on);
+create index idx_images_account_id_size on images (account_id, size);
+create index idx_images_updated_on on images (updated_on);
+create index idx_images_size on images (size);
+create index idx_images_tags_tag_id_image_id on images_tags (tag_id, image_id);
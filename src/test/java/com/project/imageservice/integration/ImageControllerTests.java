@@ -4,22 +4,44 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.project.imageservice.dto.image.CreateImageDto;
 import com.project.imageservice.dto.image.ImageDto;
 import com.project.imageservice.dto.image.UpdateImageDto;
+import com.project.imageservice.dto.image.UploadResultDto;
+import com.project.imageservice.dto.image.UploadStatus;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class ImageControllerTests extends BaseIntegrationTest {
 
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] AVIF_HEADER = {0, 0, 0, 0x1C, 'f', 't', 'y', 'p', 'a', 'v', 'i', 'f', 0, 0, 0, 0};
+    private static final byte[] ZIP_HEADER = {'P', 'K', 3, 4, 20, 0, 0, 0};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @Test
     @Sql(statements = """
@@ -27,8 +49,8 @@ public class ImageControllerTests extends BaseIntegrationTest {
             (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
             insert into accounts_roles(account_id, role_id) values 
             (1, 1);
-            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
-            (1, 'imageOriginalName', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+            insert into images(id, original_name, content_type, size, placeholder, account_id, created_on, updated_on) values 
+            (1, 'imageOriginalName', 'imageContentType', 10, 'LEHV6nWB2yk8pyo0adR*.7kCMdnj', 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
             insert into  images_tags(image_id, tag_id) values 
             (1, 1),
             (1, 2);
@@ -50,6 +72,7 @@ public class ImageControllerTests extends BaseIntegrationTest {
         assertThat(imageDto.getOriginalName()).isEqualTo("imageOriginalName");
         assertThat(imageDto.getContentType()).isEqualTo("imageContentType");
         assertThat(imageDto.getSize()).isEqualTo(10);
+        assertThat(imageDto.getPlaceholder()).isEqualTo("LEHV6nWB2yk8pyo0adR*.7kCMdnj");
         assertThat(imageDto.getAccountId()).isEqualTo(1);
     }
 
@@ -155,6 +178,9 @@ public class ImageControllerTests extends BaseIntegrationTest {
     }
 
     @Test
+    // uploads in other tests consume the identity and rolling back their rows does not give the ids back
+    @Sql(statements = "alter table images alter column id restart with 1",
+            config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED))
     @Sql(statements = """
             insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
             (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
@@ -190,6 +216,279 @@ public class ImageControllerTests extends BaseIntegrationTest {
         assertThat(imageDto.getAccountId()).isEqualTo(1);
     }
 
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatUploadImageIsSuccess() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "imageOriginalName.png", "image/png", png("imageContent"));
+
+        MvcResult mvcResult = mockMvc.perform(multipart("/api/accounts/{accountId}/images", 1)
+                        .file(file)
+                        .param("tagsIds", "1", "2")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String json = mvcResult.getResponse().getContentAsString();
+        ImageDto imageDto = objectMapper.readValue(json, ImageDto.class);
+
+        assertThat(imageDto.getOriginalName()).isEqualTo("imageOriginalName.png");
+        assertThat(imageDto.getContentType()).isEqualTo("image/png");
+        assertThat(imageDto.getSize()).isEqualTo(20);
+        assertThat(imageDto.getContentHash())
+                .isEqualTo("10e9b50bbddad70b590adf0fa937581edf530ecef57d6fccb2faa67dbb9a9ae7");
+        assertThat(imageDto.getAccountId()).isEqualTo(1);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatUploadImageWithOctetStreamUsesDetectedContentType() throws Exception {
+        ImageDto imageDto = uploadImage(png("imageContent"), MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+        assertThat(imageDto.getContentType()).isEqualTo("image/png");
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatUploadImageWithMismatchedContentReturn415() throws Exception {
+        MockMultipartFile archive = new MockMultipartFile(
+                "file", "imageOriginalName.png", "image/png", ZIP_HEADER);
+        MockMultipartFile avif = new MockMultipartFile(
+                "file", "imageOriginalName.png", "image/png", AVIF_HEADER);
+
+        mockMvc.perform(multipart("/api/accounts/{accountId}/images", 1)
+                        .file(archive)
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isUnsupportedMediaType());
+        mockMvc.perform(multipart("/api/accounts/{accountId}/images", 1)
+                        .file(avif)
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from content_blobs", Integer.class)).isEqualTo(0);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatGetImageContentReturnsWholeContent() throws Exception {
+        ImageDto imageDto = uploadImage("imageContent");
+
+        mockMvc.perform(get("/api/accounts/{accountId}/images/{imageId}/content", 1, imageDto.getId())
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("ETag", "\"" + imageDto.getContentHash() + "\""))
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(png("imageContent")));
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatGetImageContentWithRangeReturnsPartialContent() throws Exception {
+        ImageDto imageDto = uploadImage("imageContent");
+
+        mockMvc.perform(get("/api/accounts/{accountId}/images/{imageId}/content", 1, imageDto.getId())
+                        .header("Range", "bytes=13-19")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 13-19/20"))
+                .andExpect(content().string("Content"));
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatGetImageContentWithMultipleRangesReturnsByteranges() throws Exception {
+        ImageDto imageDto = uploadImage("imageContent");
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/accounts/{accountId}/images/{imageId}/content", 1, imageDto.getId())
+                        .header("Range", "bytes=8-12,13-19")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isPartialContent())
+                .andReturn();
+
+        String body = mvcResult.getResponse().getContentAsString();
+        assertThat(mvcResult.getResponse().getContentType()).startsWith("multipart/byteranges; boundary=");
+        assertThat(body).contains("Content-Range: bytes 8-12/20");
+        assertThat(body).contains("Content-Range: bytes 13-19/20");
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatGetImageContentWithUnsatisfiableRangeReturn416() throws Exception {
+        ImageDto imageDto = uploadImage("imageContent");
+
+        mockMvc.perform(get("/api/accounts/{accountId}/images/{imageId}/content", 1, imageDto.getId())
+                        .header("Range", "bytes=100-200")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */20"));
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatGetImageContentWithUnparsableRangeReturnsWholeContent() throws Exception {
+        ImageDto imageDto = uploadImage("imageContent");
+
+        for (String range : List.of("bytes=abc", "bytes=19-13", "items=0-5")) {
+            mockMvc.perform(get("/api/accounts/{accountId}/images/{imageId}/content", 1, imageDto.getId())
+                            .header("Range", range)
+                            .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Content-Range"))
+                    .andExpect(content().bytes(png("imageContent")));
+        }
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatGetImageContentWithMatchingEtagReturn304() throws Exception {
+        ImageDto imageDto = uploadImage("imageContent");
+
+        mockMvc.perform(get("/api/accounts/{accountId}/images/{imageId}/content", 1, imageDto.getId())
+                        .header("If-None-Match", "\"" + imageDto.getContentHash() + "\"")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'imageOriginalName', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+              """)
+    public void verifyThatGetImageContentWithoutStoredContentReturn404() throws Exception {
+        mockMvc.perform(get("/api/accounts/{accountId}/images/{imageId}/content", 1, 1)
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatUploadImagesBatchReturnsStatusPerFile() throws Exception {
+        MockMultipartFile first = new MockMultipartFile(
+                "files", "first.png", "image/png", png("firstContent"));
+        MockMultipartFile second = new MockMultipartFile(
+                "files", "second.png", "image/png", png("secondContent"));
+
+        MvcResult mvcResult = mockMvc.perform(multipart("/api/accounts/{accountId}/images/batch", 1)
+                        .file(first)
+                        .file(second)
+                        .param("tagsIds", "1")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String json = mvcResult.getResponse().getContentAsString();
+        List<UploadResultDto> results = objectMapper.readValue(json, new TypeReference<>() {
+        });
+
+        assertThat(results.size()).isEqualTo(2);
+        assertThat(results.get(0).getStatus()).isEqualTo(UploadStatus.CREATED);
+        assertThat(results.get(0).getImage().getOriginalName()).isEqualTo("first.png");
+        assertThat(results.get(0).getImage().getSize()).isEqualTo(20);
+        assertThat(results.get(0).getImage().getTags().size()).isEqualTo(1);
+        assertThat(results.get(1).getStatus()).isEqualTo(UploadStatus.CREATED);
+        assertThat(results.get(1).getImage().getOriginalName()).isEqualTo("second.png");
+        assertThat(results.get(1).getImage().getSize()).isEqualTo(21);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatUploadImagesBatchRejectsUnrecognizedContentPerFile() throws Exception {
+        MockMultipartFile image = new MockMultipartFile(
+                "files", "first.png", "image/png", png("firstContent"));
+        MockMultipartFile archive = new MockMultipartFile(
+                "files", "second.png", "image/png", ZIP_HEADER);
+
+        MvcResult mvcResult = mockMvc.perform(multipart("/api/accounts/{accountId}/images/batch", 1)
+                        .file(image)
+                        .file(archive)
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<UploadResultDto> results = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        assertThat(results.get(0).getStatus()).isEqualTo(UploadStatus.CREATED);
+        assertThat(results.get(1).getStatus()).isEqualTo(UploadStatus.FAILED);
+        assertThat(results.get(1).getImage()).isNull();
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatUploadImagesBatchWithUnknownTagReturn404() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "files", "first.png", "image/png", png("firstContent"));
+
+        mockMvc.perform(multipart("/api/accounts/{accountId}/images/batch", 1)
+                        .file(file)
+                        .param("tagsIds", "100")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void verifyThatCreateImageBeingUnauthorizedShouldReturn401() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders
@@ -636,6 +935,129 @@ public class ImageControllerTests extends BaseIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatIdenticalUploadsShareOneReferenceCountedBlob() throws Exception {
+        ImageDto first = uploadImage("imageContent");
+        ImageDto second = uploadImage("imageContent");
+
+        assertThat(second.getContentHash()).isEqualTo(first.getContentHash());
+        assertThat(refCount(first.getContentHash())).isEqualTo(2);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .delete("/api/accounts/{accountId}/images/{imageId}", 1, first.getId())
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isOk());
+
+        assertThat(refCount(first.getContentHash())).isEqualTo(1);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatGetImageThumbnailBeforeGenerationReturn404() throws Exception {
+        ImageDto imageDto = uploadImage("imageContent");
+
+        assertThat(imageDto.getThumbnailAvailable()).isFalse();
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/accounts/{accountId}/images/{imageId}/thumbnail", 1, imageDto.getId())
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatGetImageContentWithSizeReturnsResizedRendition() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB), "png", png);
+        ImageDto imageDto = uploadImage(png.toByteArray());
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/accounts/{accountId}/images/{imageId}/content", 1, imageDto.getId())
+                        .param("w", "50")
+                        .param("format", "png")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+
+        BufferedImage rendition = ImageIO.read(new ByteArrayInputStream(mvcResult.getResponse().getContentAsByteArray()));
+        assertThat(rendition.getWidth()).isEqualTo(50);
+        assertThat(rendition.getHeight()).isEqualTo(25);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatGetImageContentWithUnknownFitReturn400() throws Exception {
+        ImageDto imageDto = uploadImage("imageContent");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/accounts/{accountId}/images/{imageId}/content", 1, imageDto.getId())
+                        .param("w", "50")
+                        .param("fit", "stretch")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatResizeUndecodableContentReturn415() throws Exception {
+        ImageDto imageDto = uploadImage(AVIF_HEADER, "image/avif");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/accounts/{accountId}/images/{imageId}/content", 1, imageDto.getId())
+                        .param("w", "50")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatGetTilesOfSmallImageReturn404() throws Exception {
+        ImageDto imageDto = uploadImage("imageContent");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/accounts/{accountId}/images/{imageId}/tiles", 1, imageDto.getId())
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/accounts/{accountId}/images/{imageId}/tiles/{level}/{x}/{y}", 1, imageDto.getId(), 0, 0, 0)
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void verifyThatDeleteImageByIdBeingUnauthorizedShouldReturn401() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders
@@ -643,4 +1065,35 @@ public class ImageControllerTests extends BaseIntegrationTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    private ImageDto uploadImage(String content) throws Exception {
+        return uploadImage(png(content));
+    }
+
+    private ImageDto uploadImage(byte[] content) throws Exception {
+        return uploadImage(content, "image/png");
+    }
+
+    private ImageDto uploadImage(byte[] content, String contentType) throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "imageOriginalName.png", contentType, content);
+
+        MvcResult mvcResult = mockMvc.perform(multipart("/api/accounts/{accountId}/images", 1)
+                        .file(file)
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(mvcResult.getResponse().getContentAsString(), ImageDto.class);
+    }
+
+    private byte[] png(String content) {
+        byte[] bytes = content.getBytes();
+        byte[] png = Arrays.copyOf(PNG_SIGNATURE, PNG_SIGNATURE.length + bytes.length);
+        System.arraycopy(bytes, 0, png, PNG_SIGNATURE.length, bytes.length);
+        return png;
+    }
+
+    private Integer refCount(String contentHash) {
+        return jdbcTemplate.queryForObject(
+                "select ref_count from content_blobs where content_hash = ?", Integer.class, contentHash);
+    }
 }
@@ -1,19 +1,51 @@
 package com.project.imageservice.integration;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.domain.Image;
+import com.project.imageservice.dto.image.ImageCursorPageDto;
 import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.dto.image.ImageFacetedPageDto;
+import com.project.imageservice.dto.image.ImageSliceDto;
+import com.project.imageservice.dto.image.SimilarImageDto;
+import com.project.imageservice.dto.image.VisuallySimilarImageDto;
 import com.project.imageservice.integration.dto.PageDto;
+import com.project.imageservice.search.VisualFeatures;
+import com.project.imageservice.service.FullTextIndexService;
+import com.project.imageservice.service.NameIndexService;
+import com.project.imageservice.service.SimilarImageService;
+import com.project.imageservice.service.TagIndexService;
+import com.project.imageservice.service.VisualSearchService;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class ImageSearchControllerTests extends BaseIntegrationTest {
 
+    @Autowired
+    private SimilarImageService similarImageService;
+    @Autowired
+    private VisualSearchService visualSearchService;
+    @Autowired
+    private TagIndexService tagIndexService;
+    @Autowired
+    private NameIndexService nameIndexService;
+    @Autowired
+    private FullTextIndexService fullTextIndexService;
+    @Autowired
+    private ImageRepository imageRepository;
+
     @Test
     @Sql(statements = """
             insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
@@ -178,7 +210,7 @@ public class ImageSearchControllerTests extends BaseIntegrationTest {
               """)
     public void verifyThatFindAllImagesBySizeShouldReturnPageOfImages() throws Exception {
         MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders
-                        .get("/search?size=10"))
+                        .get("/search?fileSize=10"))
                 .andExpect(status().isOk())
                 .andReturn();
 
@@ -203,7 +235,7 @@ public class ImageSearchControllerTests extends BaseIntegrationTest {
               """)
     public void verifyThatFindAllImagesBySizeNotInDbShouldReturnEmptyPage() throws Exception {
         MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders
-                        .get("/search?size=20"))
+                        .get("/search?fileSize=20"))
                 .andExpect(status().isOk())
                 .andReturn();
 
@@ -263,4 +295,622 @@ public class ImageSearchControllerTests extends BaseIntegrationTest {
 
         assertThat(imageDtoPage.getTotalElements()).isEqualTo(0);
     }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, perceptual_hash, account_id, created_on, updated_on) values 
+            (1, 'imageOriginalName', 'imageContentType', 10, 255, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'imageOriginalName2', 'imageContentType', 10, 254, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (3, 'imageOriginalName3', 'imageContentType', 10, 15, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (4, 'imageOriginalName4', 'imageContentType', 10, -1, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+              """)
+    public void verifyThatFindSimilarImagesShouldReturnImagesOrderedByDistance() throws Exception {
+        similarImageService.rebuild();
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search/similar?imageId=1&maxDistance=4"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String json = mvcResult.getResponse().getContentAsString();
+        List<SimilarImageDto> similarImages = objectMapper.readValue(json, new TypeReference<List<SimilarImageDto>>() {
+        });
+
+        assertThat(similarImages.size()).isEqualTo(2);
+        assertThat(similarImages.get(0).getImage().getId()).isEqualTo(2);
+        assertThat(similarImages.get(0).getDistance()).isEqualTo(1);
+        assertThat(similarImages.get(1).getImage().getId()).isEqualTo(3);
+        assertThat(similarImages.get(1).getDistance()).isEqualTo(4);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'imageOriginalName', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+              """)
+    public void verifyThatFindSimilarImagesWithoutPerceptualHashShouldReturnNotFound() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search/similar?imageId=1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'imageOriginalName', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'imageOriginalName2', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (3, 'imageOriginalName3', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+              """)
+    public void verifyThatFindVisuallySimilarImagesShouldReturnNearestImagesFirst() throws Exception {
+        float[] features = new float[VisualFeatures.DIMENSIONS];
+        for (int imageId = 1; imageId <= 3; imageId++) {
+            features[0] = imageId * imageId;
+            Image image = imageRepository.findById(imageId).orElseThrow();
+            image.setVisualFeatures(VisualFeatures.toBytes(features));
+            imageRepository.saveAndFlush(image);
+        }
+        visualSearchService.rebuild();
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search/visual?imageId=1&limit=5"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String json = mvcResult.getResponse().getContentAsString();
+        List<VisuallySimilarImageDto> similarImages = objectMapper.readValue(json, new TypeReference<List<VisuallySimilarImageDto>>() {
+        });
+
+        assertThat(similarImages.size()).isEqualTo(2);
+        assertThat(similarImages.get(0).getImage().getId()).isEqualTo(2);
+        assertThat(similarImages.get(0).getDistance()).isEqualTo(3f);
+        assertThat(similarImages.get(1).getImage().getId()).isEqualTo(3);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, width, height, captured_on, camera_model, latitude, longitude, account_id, created_on, updated_on) values 
+            (1, 'imageOriginalName', 'imageContentType', 10, 4000, 3000, '2021-07-04 12:30:45', 'cameraModel', 52.5, 13.4, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'imageOriginalName2', 'imageContentType', 10, 800, 600, '2019-01-01 00:00:00', 'cameraModel', 48.8, 2.3, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (3, 'imageOriginalName3', 'imageContentType', 10, 5000, 4000, null, null, null, null, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+              """)
+    public void verifyThatFindAllImagesByMetadataShouldReturnPageOfImages() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?minWidth=1000&cameraModel=cameraModel&capturedFrom=2021-01-01T00:00:00"
+                                + "&minLatitude=50&maxLatitude=55&minLongitude=10&maxLongitude=15"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String json = mvcResult.getResponse().getContentAsString();
+        Page<ImageDto> imageDtoPage = objectMapper.readValue(json, new TypeReference<PageDto<ImageDto>>() {
+        });
+
+        assertThat(imageDtoPage.getTotalElements()).isEqualTo(1);
+        assertThat(imageDtoPage.getContent().get(0).getId()).isEqualTo(1);
+        assertThat(imageDtoPage.getContent().get(0).getWidth()).isEqualTo(4000);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'first', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'second', 'imageContentType', 10, 1, '2022-05-13 21:35:49.174691300 +00:00', '2022-05-13 21:35:49.174691300 +00:00'),
+            (3, 'third', 'imageContentType', 10, 1, '2022-05-13 21:35:49.174691300 +00:00', '2022-05-13 21:35:49.174691300 +00:00');
+            insert into  images_tags(image_id, tag_id) values 
+            (1, 1),
+            (1, 2),
+            (2, 1),
+            (3, 2);
+              """)
+    public void verifyThatFindAllImagesAfterCursorShouldReturnNewestFirstWithNextCursor() throws Exception {
+        MvcResult firstResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?accountId=1&tagsIds=1,2&after=&limit=2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        ImageCursorPageDto firstPage = objectMapper.readValue(
+                firstResult.getResponse().getContentAsString(), ImageCursorPageDto.class);
+
+        assertThat(firstPage.getContent().stream().map(ImageDto::getId).collect(Collectors.toList()))
+                .isEqualTo(List.of(3, 2));
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        MvcResult secondResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search")
+                        .param("accountId", "1")
+                        .param("tagsIds", "1", "2")
+                        .param("after", firstPage.getNextCursor())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        ImageCursorPageDto secondPage = objectMapper.readValue(
+                secondResult.getResponse().getContentAsString(), ImageCursorPageDto.class);
+
+        assertThat(secondPage.getContent().stream().map(ImageDto::getId).collect(Collectors.toList()))
+                .isEqualTo(List.of(1));
+        assertThat(secondPage.getContent().get(0).getTags().size()).isEqualTo(2);
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'image01', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'image02', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (3, 'image03', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (4, 'image04', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (5, 'image05', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (6, 'image06', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (7, 'image07', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (8, 'image08', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (9, 'image09', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (10, 'image10', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (11, 'image11', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (12, 'image12', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+            insert into  images_tags(image_id, tag_id) values 
+            (1, 1),
+            (1, 2),
+            (2, 1),
+            (2, 2),
+            (3, 1),
+            (3, 2),
+            (4, 1),
+            (4, 2),
+            (5, 1),
+            (5, 2),
+            (6, 1),
+            (6, 2),
+            (7, 1),
+            (7, 2),
+            (8, 1),
+            (8, 2),
+            (9, 1),
+            (9, 2),
+            (10, 1),
+            (10, 2),
+            (11, 1),
+            (11, 2),
+            (12, 1),
+            (12, 2);
+              """)
+    public void verifyThatFindAllImagesPageShouldLimitRowsInDatabase() throws Exception {
+        SqlStatementRecorder.clear();
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?accountId=1&tagsIds=1,2&page=1&size=5&sort=originalName"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String json = mvcResult.getResponse().getContentAsString();
+        Page<ImageDto> imageDtoPage = objectMapper.readValue(json, new TypeReference<PageDto<ImageDto>>() {
+        });
+
+        assertThat(imageDtoPage.getTotalElements()).isEqualTo(12);
+        assertThat(imageDtoPage.getContent().stream().map(ImageDto::getId).collect(Collectors.toList()))
+                .isEqualTo(List.of(6, 7, 8, 9, 10));
+        assertThat(imageDtoPage.getContent().get(0).getTags().size()).isEqualTo(2);
+
+        List<String> statements = SqlStatementRecorder.statements().stream()
+                .map(String::toLowerCase)
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from images "))
+                .collect(Collectors.toList());
+        List<String> pagedStatements = statements.stream()
+                .filter(sql -> sql.contains(" order by "))
+                .collect(Collectors.toList());
+        assertThat(pagedStatements.size()).isEqualTo(1);
+        assertThat(pagedStatements.get(0).contains(" limit ")).isTrue();
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'first', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'second', 'imageContentType', 10, 1, '2022-05-13 21:35:49.174691300 +00:00', '2022-05-13 21:35:49.174691300 +00:00'),
+            (3, 'third', 'imageContentType', 10, 1, '2022-05-13 21:35:49.174691300 +00:00', '2022-05-13 21:35:49.174691300 +00:00');
+              """)
+    public void verifyThatFindImageSliceShouldReturnHasNextWithoutCount() throws Exception {
+        SqlStatementRecorder.clear();
+
+        MvcResult firstResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?accountId=1&slice=true&page=0&size=2&sort=originalName"))
+                .andExpect(status().isOk())
+                .andReturn();
+        ImageSliceDto firstSlice = objectMapper.readValue(
+                firstResult.getResponse().getContentAsString(), ImageSliceDto.class);
+
+        assertThat(firstSlice.getContent().stream().map(ImageDto::getId).collect(Collectors.toList()))
+                .isEqualTo(List.of(1, 2));
+        assertThat(firstSlice.isHasNext()).isTrue();
+        assertThat(firstSlice.getApproximateTotal()).isNull();
+        assertThat(SqlStatementRecorder.statements().stream().noneMatch(sql -> sql.contains("count(")))
+                .isTrue();
+
+        MvcResult secondResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?accountId=1&slice=true&page=1&size=2&sort=originalName&approximateTotal=true"))
+                .andExpect(status().isOk())
+                .andReturn();
+        ImageSliceDto secondSlice = objectMapper.readValue(
+                secondResult.getResponse().getContentAsString(), ImageSliceDto.class);
+
+        assertThat(secondSlice.getContent().stream().map(ImageDto::getId).collect(Collectors.toList()))
+                .isEqualTo(List.of(3));
+        assertThat(secondSlice.isHasNext()).isFalse();
+        assertThat(secondSlice.getApproximateTotal()).isEqualTo(3L);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'first', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'second', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (3, 'third', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (4, 'fourth', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+            insert into  images_tags(image_id, tag_id) values 
+            (1, 1),
+            (1, 2),
+            (2, 1),
+            (3, 2),
+            (4, 3);
+              """)
+    public void verifyThatFindAllImagesByTagExpressionShouldUseAllAnyAndNotTags() throws Exception {
+        tagIndexService.rebuild();
+
+        assertThat(findImageIds("/search?allTags=1,2&sort=id")).isEqualTo(List.of(1));
+        assertThat(findImageIds("/search?anyTags=1,2&notTags=2&sort=id")).isEqualTo(List.of(2));
+        assertThat(findImageIds("/search?anyTags=1,2,3&sort=id")).isEqualTo(List.of(1, 2, 3, 4));
+        assertThat(findImageIds("/search?notTags=1&sort=id")).isEqualTo(List.of(3, 4));
+        assertThat(findImageIds("/search?allTags=1,3&sort=id")).isEqualTo(List.of());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on)
+            select x, 'image' || x, 'imageContentType', 10, 1, timestamp '2022-05-12 10:00:00', timestamp '2022-05-12 10:00:00'
+            from system_range(1, 1500);
+            insert into images_tags(image_id, tag_id)
+            select x, 1 from system_range(1, 1500);
+            insert into images_tags(image_id, tag_id)
+            select x, 2 from system_range(1, 1200);
+            insert into images_tags(image_id, tag_id)
+            select x, 3 from system_range(1401, 1500);
+              """)
+    public void verifyThatFindAllImagesByTagExpressionMatchingManyImagesShouldNotBindEveryId() throws Exception {
+        tagIndexService.rebuild();
+        SqlStatementRecorder.clear();
+
+        assertThat(findTotalElements("/search?allTags=1,2")).isEqualTo(1200);
+        assertThat(findTotalElements("/search?anyTags=2,3&notTags=3")).isEqualTo(1200);
+        assertThat(findTotalElements("/search?notTags=2")).isEqualTo(300);
+        assertThat(findTotalElements("/search?allTags=1,3")).isEqualTo(100);
+        assertThat(SqlStatementRecorder.statements())
+                .noneMatch(sql -> sql.chars().filter(c -> c == '?').count() > 1000);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'first', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'second', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (3, 'third', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (4, 'fourth', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+            insert into  images_tags(image_id, tag_id) values 
+            (1, 1),
+            (1, 2),
+            (2, 1),
+            (3, 2),
+            (4, 3);
+              """)
+    public void verifyThatFindAllImagesByTagMatchShouldReturnDistinctImagesRankedByMatchedTags() throws Exception {
+        assertThat(findImageIds("/search?tagsIds=1,2&tagMatch=all&sort=id")).isEqualTo(List.of(1));
+        assertThat(findImageIds("/search?tagsIds=1,2&tagMatch=any&sort=id")).isEqualTo(List.of(1, 2, 3));
+        assertThat(findImageIds("/search?tagsIds=1,2&sort=matchedTags,desc&sort=id,desc")).isEqualTo(List.of(1, 3, 2));
+        assertThat(findImageIds("/search?tagsIds=1,2&sort=matchedTags,desc&page=1&size=2")).isEqualTo(List.of(3));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?tagsIds=1,2&tagMatch=most"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?sort=matchedTags,desc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'Sunset_Beach.jpg', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'mountain.png', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (3, 'IMG_2022_sunset.jpg', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+              """)
+    public void verifyThatFindAllImagesByNameSubstringOrPrefixShouldUseNameIndex() throws Exception {
+        nameIndexService.rebuild();
+
+        assertThat(findImageIds("/search?nameContains=sunset&sort=id")).isEqualTo(List.of(1, 3));
+        assertThat(findImageIds("/search?namePrefix=img_&sort=id")).isEqualTo(List.of(3));
+        assertThat(findImageIds("/search?nameContains=.jpg&namePrefix=s&sort=id")).isEqualTo(List.of(1));
+        assertThat(findImageIds("/search?nameContains=river&sort=id")).isEqualTo(List.of());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?nameContains=su"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on)
+            select x, 'Image_' || x || '.jpg', 'imageContentType', 10, 1, timestamp '2022-05-12 10:00:00', timestamp '2022-05-12 10:00:00'
+            from system_range(1, 1500);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1501, 'imagex1.jpg', 'imageContentType', 10, 1, '2022-05-12 10:00:00', '2022-05-12 10:00:00');
+              """)
+    public void verifyThatFindAllImagesByNameMatchingManyImagesShouldNotBindEveryId() throws Exception {
+        nameIndexService.rebuild();
+        SqlStatementRecorder.clear();
+
+        assertThat(findTotalElements("/search?nameContains=ge_")).isEqualTo(1500);
+        assertThat(findTotalElements("/search?namePrefix=IMAGE_")).isEqualTo(1500);
+        assertThat(findTotalElements("/search?namePrefix=image_1")).isEqualTo(612);
+        assertThat(SqlStatementRecorder.statements())
+                .noneMatch(sql -> sql.chars().filter(c -> c == '?').count() > 1000);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00'),
+            (2, 'accountName2', 'username2', 'email2', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1),
+            (2, 1);
+            insert into images(id, original_name, content_type, size, account_id, camera_model, created_on, updated_on) values 
+            (1, 'Sunset_Beach.jpg', 'imageContentType', 10, 1, null, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'beach_party_beach.png', 'imageContentType', 10, 2, 'Canon EOS', '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (3, 'mountain.png', 'imageContentType', 10, 1, 'Canon EOS', '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (4, 'IMG_2022.jpg', 'imageContentType', 10, 1, null, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+            insert into  images_tags(image_id, tag_id) values 
+            (1, 3),
+            (3, 3);
+              """)
+    public void verifyThatFindAllImagesByTextShouldRankImagesByRelevance() throws Exception {
+        fullTextIndexService.rebuild();
+
+        assertThat(findImageIds("/search?text=beach")).isEqualTo(List.of(2, 1));
+        assertThat(findImageIds("/search?text=NATURE")).isEqualTo(List.of(1, 3));
+        assertThat(findImageIds("/search?text=canon&accountId=1")).isEqualTo(List.of(3));
+        assertThat(findImageIds("/search?text=beach&page=1&size=1")).isEqualTo(List.of(1));
+        assertThat(findImageIds("/search?text=river")).isEqualTo(List.of());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?text=..."))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?text=beach&sort=originalName"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00'),
+            (2, 'accountName2', 'username2', 'email2', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1),
+            (2, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on)
+            select x, 'photo_' || x || '.jpg', 'image/jpeg', 10, case when x <= 1200 then 1 else 2 end,
+                   dateadd('MINUTE', x, timestamp '2022-05-12 10:00:00'), timestamp '2022-05-12 10:00:00'
+            from system_range(1, 1500);
+              """)
+    public void verifyThatSearchesByTextMatchingManyImagesShouldNotBindEveryId() throws Exception {
+        fullTextIndexService.rebuild();
+        SqlStatementRecorder.clear();
+
+        assertThat(findTotalElements("/search?text=photo&accountId=1&size=5")).isEqualTo(1200);
+
+        ImageSliceDto slice = objectMapper.readValue(mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?text=photo&accountId=1&slice=true&approximateTotal=true&size=5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), ImageSliceDto.class);
+        assertThat(slice.getContent()).hasSize(5);
+        assertThat(slice.isHasNext()).isTrue();
+        assertThat(slice.getApproximateTotal()).isEqualTo(1200L);
+
+        ImageCursorPageDto cursorPage = objectMapper.readValue(mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?text=photo&accountId=1&after=&limit=3"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), ImageCursorPageDto.class);
+        assertThat(cursorPage.getContent().stream().map(ImageDto::getId).collect(Collectors.toList()))
+                .isEqualTo(List.of(1200, 1199, 1198));
+
+        String export = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search/export?text=photo&accountId=1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] exportLines = export.split("\n");
+        assertThat(exportLines).hasSize(1200);
+        assertThat(objectMapper.readValue(exportLines[1000], ImageDto.class).getId()).isEqualTo(1001);
+
+        ImageFacetedPageDto facetedPage = findFacetedPage("/search?text=photo&accountId=1&facets=contentType&size=1");
+        assertThat(facetedPage.getFacets().get("contentType")).isEqualTo(Map.of("image/jpeg", 1200L));
+
+        assertThat(SqlStatementRecorder.statements())
+                .noneMatch(sql -> sql.chars().filter(c -> c == '?').count() > 1000);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'first', 'imageContentType', 10, 1, '2022-05-12 10:00:00', '2022-05-20 10:00:00'),
+            (2, 'second', 'imageContentType', 20, 1, '2022-05-13 10:00:00', '2022-05-13 10:00:00'),
+            (3, 'third', 'imageContentType', 30, 1, '2022-05-14 10:00:00', '2022-05-14 10:00:00');
+              """)
+    public void verifyThatFindAllImagesBySizeAndTimestampRangesShouldReturnImagesWithinRanges() throws Exception {
+        assertThat(findImageIds("/search?accountId=1&minSize=15&sort=id")).isEqualTo(List.of(2, 3));
+        assertThat(findImageIds("/search?accountId=1&minSize=10&maxSize=20&sort=id")).isEqualTo(List.of(1, 2));
+        assertThat(findImageIds("/search?accountId=1&createdFrom=2022-05-13T00:00:00&sort=id")).isEqualTo(List.of(2, 3));
+        assertThat(findImageIds("/search?accountId=1&createdTo=2022-05-13T10:00:00&sort=id")).isEqualTo(List.of(1, 2));
+        assertThat(findImageIds("/search?accountId=1&updatedFrom=2022-05-14T00:00:00&updatedTo=2022-05-31T00:00:00&sort=id"))
+                .isEqualTo(List.of(1, 3));
+        assertThat(findImageIds("/search?accountId=1&fileSize=20")).isEqualTo(List.of(2));
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'first', 'image/png', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'second', 'image/jpeg', 200000, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (3, 'third', 'image/png', 2000000, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+            insert into  images_tags(image_id, tag_id) values 
+            (1, 1),
+            (1, 2),
+            (2, 1),
+            (3, 3);
+              """)
+    public void verifyThatFindAllImagesWithFacetsShouldReturnCountsForFilter() throws Exception {
+        tagIndexService.rebuild();
+
+        ImageFacetedPageDto page = findFacetedPage("/search?accountId=1&facets=tags,contentType,sizeBucket&size=1&sort=id");
+        assertThat(page.getContent().size()).isEqualTo(1);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getFacets().get("tags")).isEqualTo(Map.of("1", 2L, "2", 1L, "3", 1L));
+        assertThat(page.getFacets().get("contentType")).isEqualTo(Map.of("image/png", 2L, "image/jpeg", 1L));
+        assertThat(page.getFacets().get("sizeBucket"))
+                .isEqualTo(Map.of("small", 1L, "medium", 1L, "large", 1L, "huge", 0L));
+
+        ImageFacetedPageDto tagged = findFacetedPage("/search?anyTags=1&facets=tags&sort=id");
+        assertThat(tagged.getTotalElements()).isEqualTo(2);
+        assertThat(tagged.getFacets().get("tags")).isEqualTo(Map.of("1", 2L, "2", 1L));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?facets=color"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00'),
+            (2, 'accountName2', 'username2', 'email2', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1),
+            (2, 1);
+            insert into images(id, original_name, content_type, size, account_id, created_on, updated_on) values 
+            (1, 'first', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (2, 'second', 'imageContentType', 10, 2, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (3, 'third', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00'),
+            (4, 'fourth', 'imageContentType', 10, 1, '2022-05-12 21:35:49.174691300 +00:00', '2022-05-12 21:35:49.174691300 +00:00');
+            insert into  images_tags(image_id, tag_id) values 
+            (1, 1),
+            (1, 2),
+            (4, 3);
+              """)
+    public void verifyThatExportImagesShouldStreamOneJsonLinePerMatchingImage() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search/export?accountId=1"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentType()).startsWith("application/x-ndjson");
+        List<ImageDto> imageDtos = new ArrayList<>();
+        for (String line : mvcResult.getResponse().getContentAsString().split("\n")) {
+            imageDtos.add(objectMapper.readValue(line, ImageDto.class));
+        }
+        assertThat(imageDtos.stream().map(ImageDto::getId).collect(Collectors.toList())).isEqualTo(List.of(1, 3, 4));
+        assertThat(imageDtos.get(0).getTags().size()).isEqualTo(2);
+        assertThat(imageDtos.get(1).getTags().size()).isEqualTo(0);
+        assertThat(imageDtos.get(2).getTags().get(0).getId()).isEqualTo(3);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search/export?nameContains=ab"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void verifyThatFindAllImagesAfterInvalidCursorShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search?after=notACursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ImageFacetedPageDto findFacetedPage(String url) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(url))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(mvcResult.getResponse().getContentAsString(), ImageFacetedPageDto.class);
+    }
+
+    private long findTotalElements(String url) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(url))
+                .andExpect(status().isOk())
+                .andReturn();
+        Page<ImageDto> imageDtoPage = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                new TypeReference<PageDto<ImageDto>>() {
+                });
+        return imageDtoPage.getTotalElements();
+    }
+
+    private List<Integer> findImageIds(String url) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(url))
+                .andExpect(status().isOk())
+                .andReturn();
+        Page<ImageDto> imageDtoPage = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                new TypeReference<PageDto<ImageDto>>() {
+                });
+        return imageDtoPage.getContent().stream()
+                .map(ImageDto::getId)
+                .collect(Collectors.toList());
+    }
 }
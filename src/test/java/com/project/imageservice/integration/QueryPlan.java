@@ -0,0 +1,47 @@
+package com.project.imageservice.integration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Getter
+@AllArgsConstructor
+public class QueryPlan {
+
+    private static final Pattern SCAN_COUNT = Pattern.compile("/\\* scanCount: (\\d+)");
+
+    private final String sql;
+    private final String plan;
+
+    public boolean usesTableScan(String table) {
+        return plan.toUpperCase(Locale.ROOT).contains("PUBLIC." + table.toUpperCase(Locale.ROOT) + ".TABLESCAN");
+    }
+
+    // an index condition on a subquery repeats that subquery's plan in a nested comment, so only the
+    // scan counts outside of other comments are summed
+    public long scannedRows() {
+        long rows = 0;
+        int depth = 0;
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        for (int i = 0; i < plan.length() - 1; i++) {
+            if (plan.startsWith("/*", i)) {
+                if (depth++ == 0 && matcher.region(i, plan.length()).lookingAt()) {
+                    rows += Long.parseLong(matcher.group(1));
+                }
+                i++;
+            } else if (plan.startsWith("*/", i)) {
+                depth--;
+                i++;
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return plan;
+    }
+}
@@ -0,0 +1,23 @@
+package com.project.imageservice.integration;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+@TestConfiguration
+public class QueryPlanConfiguration {
+
+    @Bean
+    public static BeanPostProcessor queryPlanDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource && !(bean instanceof QueryPlanRecorder)
+                        ? new QueryPlanRecorder((DataSource) bean)
+                        : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package com.project.imageservice.integration;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class QueryPlanRecorder extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate");
+    private static final List<QueryPlan> PLANS = new CopyOnWriteArrayList<>();
+
+    private static volatile boolean recording;
+
+    public QueryPlanRecorder(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    public static void start() {
+        PLANS.clear();
+        recording = true;
+    }
+
+    public static List<QueryPlan> stop() {
+        recording = false;
+        return List.copyOf(PLANS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                QueryPlanRecorder.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (method.getName().equals("prepareStatement") && args[0] instanceof String) {
+                        return wrap(connection, (PreparedStatement) result, (String) args[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement wrap(Connection connection, PreparedStatement statement, String sql) {
+        List<Object[]> parameters = new ArrayList<>();
+        List<Method> setters = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(
+                QueryPlanRecorder.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer) {
+                        setters.add(method);
+                        parameters.add(args);
+                    } else if (method.getName().equals("clearParameters")) {
+                        setters.clear();
+                        parameters.clear();
+                    } else if (recording && EXECUTE_METHODS.contains(method.getName())
+                            && (args == null || args.length == 0)) {
+                        explain(connection, sql, setters, parameters);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static void explain(Connection connection, String sql, List<Method> setters, List<Object[]> parameters)
+            throws Exception {
+        String statement = sql.trim().toLowerCase(Locale.ROOT);
+        String explain;
+        if (statement.startsWith("select")) {
+            explain = "explain analyze ";
+        } else if (statement.startsWith("update") || statement.startsWith("delete")) {
+            // plain explain, analyzing would apply the change twice
+            explain = "explain ";
+        } else {
+            return;
+        }
+
+        try (PreparedStatement explained = connection.prepareStatement(explain + sql)) {
+            for (int i = 0; i < setters.size(); i++) {
+                setters.get(i).invoke(explained, parameters.get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = explained.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            PLANS.add(new QueryPlan(sql, plan.toString()));
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
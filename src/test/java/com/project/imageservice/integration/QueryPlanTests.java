@@ -0,0 +1,232 @@
+package com.project.imageservice.integration;
+
+import com.project.imageservice.dao.AccountRepository;
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.dao.TagRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import(QueryPlanConfiguration.class)
+// the recording data source makes this a context of its own, which must not re-run liquibase on the shared database
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:queryplan")
+@Sql(statements = """
+        insert into accounts(id, account_name, user_name, email, password, created_on, updated_on)
+        select x, 'account' || x, 'user' || x, 'email' || x, 'password', timestamp '2022-01-01 00:00:00', timestamp '2022-01-01 00:00:00'
+        from system_range(1, 200);
+        insert into images(id, original_name, content_type, size, account_id, content_hash, perceptual_hash, thumbnail_available, width, height, created_on, updated_on)
+        select x, 'image' || x || '.jpg', 'image/jpeg', mod(x * 7919, 100000), mod(x, 200) + 1, 'hash' || x, x, true, 640, 480,
+               dateadd('MINUTE', x, timestamp '2022-01-01 00:00:00'), dateadd('MINUTE', x, timestamp '2022-01-01 00:00:00')
+        from system_range(1, 20000);
+        insert into images_tags(image_id, tag_id)
+        select x, mod(x, 7) + 1 from system_range(1, 20000);
+        insert into images_tags(image_id, tag_id)
+        select x, mod(x + 3, 7) + 1 from system_range(1, 20000);
+        """)
+public class QueryPlanTests extends BaseIntegrationTest {
+
+    private static final int IMAGES = 20_000;
+    private static final int IMAGES_PER_ACCOUNT = 100;
+    private static final int TAGS = 7;
+    private static final int TAGS_PER_IMAGE = 2;
+    private static final List<String> INDEXED_TABLES = List.of("images", "images_tags", "accounts", "tags");
+
+    private static final List<Integer> IMAGE_IDS = IntStream.rangeClosed(101, 120)
+            .boxed()
+            .collect(Collectors.toList());
+
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Test
+    public void verifyThatImageLookupsByIdUsePrimaryKey() {
+        assertIndexed(10, () -> imageRepository.findById(200));
+        assertIndexed(10, () -> imageRepository.findByIdAndAccountId(1, 200));
+        assertIndexed(10, () -> imageRepository.findContentHashByIdAndAccountId(1, 200));
+    }
+
+    @Test
+    public void verifyThatImageBatchLookupsByIdsUsePrimaryKey() {
+        int bound = IMAGE_IDS.size() * 10;
+        assertIndexed(bound, () -> imageRepository.findAllWithTagsByIdIn(IMAGE_IDS));
+        assertIndexed(bound, () -> imageRepository.findPerceptualHashesByIdIn(IMAGE_IDS));
+        assertIndexed(bound, () -> imageRepository.findVisualFeaturesByIdIn(IMAGE_IDS));
+        assertIndexed(bound, () -> imageRepository.findTagIdsByImageIdIn(IMAGE_IDS));
+        assertIndexed(bound, () -> imageRepository.findOriginalNamesByIdIn(IMAGE_IDS));
+        assertIndexed(bound, () -> imageRepository.findTextsByIdIn(IMAGE_IDS));
+    }
+
+    @Test
+    public void verifyThatImageLookupsByAccountUseAccountIndex() {
+        long bound = accountImagesWithTagsReads();
+        assertIndexed(bound, () -> imageRepository.findAllByAccountId(5));
+        assertIndexed(bound, () -> imageRepository.findIdsByAccountId(5));
+        assertIndexed(bound, () -> imageRepository.countContentHashesByAccountId(5));
+    }
+
+    @Test
+    public void verifyThatImageDeletesFindRowsByIndex() {
+        // updates and deletes are only explained, not analyzed, so there are no row counts to bound
+        assertNoTableScan("images", () -> imageRepository.deleteByIdAndAccountId(1, 200));
+        assertNoTableScan("images", () -> imageRepository.deleteAllByAccountId(5));
+    }
+
+    @Test
+    public void verifyThatImageLookupsByContentHashUseContentHashIndex() {
+        assertIndexed(10, () -> imageRepository.findIdsByContentHash("hash42"));
+        assertIndexed(10, () -> imageRepository.findFirstByContentHashAndPerceptualHashNotNull("hash42"));
+        assertIndexed(10, () -> imageRepository.updateThumbnailAndFeatures("hash42", 42L, null, null));
+    }
+
+    @Test
+    public void verifyThatKeysetBatchesReadOnlyTheRequestedRange() {
+        int after = IMAGES - 50;
+        assertIndexed(500, () -> imageRepository.findTagIdsAfter(after, 0, PageRequest.of(0, 100)));
+        assertIndexed(500, () -> imageRepository.findOriginalNamesAfter(after, PageRequest.of(0, 100)));
+        assertIndexed(500, () -> imageRepository.findVisualFeaturesAfter(after, PageRequest.of(0, 100)));
+        assertIndexed(500, () -> imageRepository.findTextsAfter(after, PageRequest.of(0, 100)));
+        assertIndexed(500, () -> imageRepository.findIdsAfter(after, PageRequest.of(0, 100)));
+        assertIndexed(500, () -> imageRepository.findIdsUpdatedSince(LocalDateTime.of(2022, 1, 1, 0, 0).plusMinutes(after)));
+    }
+
+    @Test
+    public void verifyThatFullIndexRebuildsReadEachImageOnce() {
+        // these feed the in-memory indexes at startup and are expected to scan, but only once
+        assertBounded(IMAGES * 2, () -> imageRepository.findAllPerceptualHashes());
+        assertBounded(IMAGES * 2, () -> imageRepository.findContentHashesWithoutThumbnail("", PageRequest.of(0, 100)));
+    }
+
+    @Test
+    public void verifyThatAccountAndTagLookupsUseIndexes() {
+        assertIndexed(10, () -> accountRepository.findById(5));
+        assertIndexed(10, () -> accountRepository.findByUserName("user5"));
+        assertIndexed(10, () -> tagRepository.findByIdIn(List.of(1, 2)));
+    }
+
+    @Test
+    public void verifyThatSearchByAccountUsesAccountIndex() {
+        int bound = IMAGES_PER_ACCOUNT * 5;
+        assertIndexed(bound, () -> search("/search?accountId=5&sort=createdOn,desc&size=20"));
+        assertIndexed(bound, () -> search("/search?accountId=5&minSize=1000&maxSize=50000&size=20"));
+        assertIndexed(bound, () -> search("/search?accountId=5&updatedFrom=2022-01-02T00:00:00&sort=updatedOn&size=20"));
+        assertIndexed(bound, () -> search("/search?accountId=5&slice=true&size=20"));
+        assertIndexed(bound, () -> search("/search?accountId=5&after=&limit=20"));
+    }
+
+    @Test
+    public void verifyThatSearchByTimestampRangeUsesTimestampIndex() {
+        assertIndexed(500, () -> search("/search?createdFrom=2022-01-05T00:00:00&createdTo=2022-01-05T01:00:00&size=20"));
+        assertIndexed(500, () -> search("/search?updatedFrom=2022-01-05T00:00:00&updatedTo=2022-01-05T01:00:00&size=20"));
+    }
+
+    @Test
+    public void verifyThatSearchByTagsStaysBounded() {
+        // an image having both tags owns two of their links, one having either owns at least one
+        long links = taggedLinks(2);
+        long allMatches = links / 2;
+        long anyMatches = links;
+        assertBounded(tagSubqueryReads(2) + indexReads(allMatches, 1),
+                () -> search("/search?tagsIds=1,4&tagMatch=all&size=20"));
+        // ranking by matched tags joins every match with all of its own tags
+        assertBounded(tagSubqueryReads(2) + indexReads(anyMatches, 1)
+                        + indexReads(anyMatches * TAGS_PER_IMAGE, anyMatches)
+                        + indexReads(anyMatches * TAGS_PER_IMAGE, anyMatches * TAGS_PER_IMAGE),
+                () -> search("/search?tagsIds=1,4&sort=matchedTags,desc&size=20"));
+        // the subquery is not correlated with the account, so it still reads every link of the tag
+        assertBounded(tagSubqueryReads(1) + indexReads(IMAGES_PER_ACCOUNT, 1),
+                () -> search("/search?accountId=5&tagsIds=1&size=20"));
+    }
+
+    @Test
+    public void verifyThatFacetsAndExportByAccountUseAccountIndex() {
+        long bound = accountImagesWithTagsReads();
+        assertIndexed(bound, () -> search("/search?accountId=5&facets=tags,contentType,sizeBucket&size=20"));
+        assertIndexed(bound, () -> search("/search/export?accountId=5"));
+    }
+
+    // H2 counts every row an index lookup returns plus the probe that ends each lookup
+    private static long indexReads(long rows, long lookups) {
+        return rows + lookups;
+    }
+
+    private static long taggedLinks(int tags) {
+        return (long) tags * IMAGES * TAGS_PER_IMAGE / TAGS;
+    }
+
+    // the grouped subquery reads the links of the queried tags and joins each to its image
+    private static long tagSubqueryReads(int tags) {
+        long links = taggedLinks(tags);
+        return indexReads(tags, 1) + indexReads(links, tags) + indexReads(links, links);
+    }
+
+    private static long accountImagesWithTagsReads() {
+        long links = (long) IMAGES_PER_ACCOUNT * TAGS_PER_IMAGE;
+        return indexReads(IMAGES_PER_ACCOUNT, 1) + indexReads(links, IMAGES_PER_ACCOUNT) + indexReads(links, links);
+    }
+
+    private void search(String url) {
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.get(url))
+                    .andExpect(status().isOk());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void assertIndexed(long maxScannedRows, Runnable action) {
+        for (QueryPlan plan : record(action)) {
+            for (String table : INDEXED_TABLES) {
+                assertThat(plan.usesTableScan(table))
+                        .as("full scan of %s in%n%s", table, plan)
+                        .isFalse();
+            }
+            assertThat(plan.scannedRows())
+                    .as("rows scanned by%n%s", plan)
+                    .isLessThanOrEqualTo(maxScannedRows);
+        }
+    }
+
+    private void assertBounded(long maxScannedRows, Runnable action) {
+        for (QueryPlan plan : record(action)) {
+            assertThat(plan.scannedRows())
+                    .as("rows scanned by%n%s", plan)
+                    .isLessThanOrEqualTo(maxScannedRows);
+        }
+    }
+
+    private void assertNoTableScan(String table, Runnable action) {
+        for (QueryPlan plan : record(action)) {
+            assertThat(plan.usesTableScan(table))
+                    .as("full scan of %s in%n%s", table, plan)
+                    .isFalse();
+        }
+    }
+
+    private List<QueryPlan> record(Runnable action) {
+        QueryPlanRecorder.start();
+        List<QueryPlan> plans;
+        try {
+            action.run();
+        } finally {
+            plans = QueryPlanRecorder.stop();
+        }
+        assertThat(plans).as("no query was issued").isNotEmpty();
+        return plans;
+    }
+}
@@ -0,0 +1,209 @@
+package com.project.imageservice.integration;
+
+import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.dto.upload.CreateUploadSessionDto;
+import com.project.imageservice.dto.upload.UploadSessionDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class UploadControllerTests extends BaseIntegrationTest {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] ZIP_HEADER = {'P', 'K', 3, 4, 20, 0, 0, 0};
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatChunkedUploadCreatesImage() throws Exception {
+        UploadSessionDto uploadSessionDto = createUpload(15L);
+
+        mockMvc.perform(patch("/api/accounts/{accountId}/uploads/{uploadId}", 1, uploadSessionDto.getId())
+                        .header("Upload-Offset", 0)
+                        .content(PNG_SIGNATURE)
+                        .contentType("application/offset+octet-stream")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Upload-Offset", "8"));
+
+        mockMvc.perform(head("/api/accounts/{accountId}/uploads/{uploadId}", 1, uploadSessionDto.getId())
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Upload-Offset", "8"))
+                .andExpect(header().string("Upload-Length", "15"));
+
+        mockMvc.perform(patch("/api/accounts/{accountId}/uploads/{uploadId}", 1, uploadSessionDto.getId())
+                        .header("Upload-Offset", 8)
+                        .content("Content".getBytes())
+                        .contentType("application/offset+octet-stream")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Upload-Offset", "15"));
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/accounts/{accountId}/uploads/{uploadId}/finalize",
+                        1, uploadSessionDto.getId())
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isOk())
+                .andReturn();
+        ImageDto imageDto = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), ImageDto.class);
+
+        assertThat(imageDto.getOriginalName()).isEqualTo("imageOriginalName.png");
+        assertThat(imageDto.getContentType()).isEqualTo("image/png");
+        assertThat(imageDto.getSize()).isEqualTo(15);
+        assertThat(imageDto.getContentHash())
+                .isEqualTo("035187b94fb74d27f428de9a2895585c15d996f22c0392e058de32e6def50094");
+        assertThat(imageDto.getTags().size()).isEqualTo(1);
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatChunkWithWrongOffsetReturn409() throws Exception {
+        UploadSessionDto uploadSessionDto = createUpload(12L);
+
+        mockMvc.perform(patch("/api/accounts/{accountId}/uploads/{uploadId}", 1, uploadSessionDto.getId())
+                        .header("Upload-Offset", 5)
+                        .content("Content".getBytes())
+                        .contentType("application/offset+octet-stream")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatFirstChunkShorterThanSignatureIsSniffedWithTheNextChunk() throws Exception {
+        UploadSessionDto uploadSessionDto = createUpload(15L);
+
+        mockMvc.perform(patch("/api/accounts/{accountId}/uploads/{uploadId}", 1, uploadSessionDto.getId())
+                        .header("Upload-Offset", 0)
+                        .content(Arrays.copyOf(PNG_SIGNATURE, 3))
+                        .contentType("application/offset+octet-stream")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Upload-Offset", "3"));
+
+        byte[] rest = Arrays.copyOfRange(PNG_SIGNATURE, 3, 15);
+        System.arraycopy("Content".getBytes(), 0, rest, 5, 7);
+        mockMvc.perform(patch("/api/accounts/{accountId}/uploads/{uploadId}", 1, uploadSessionDto.getId())
+                        .header("Upload-Offset", 3)
+                        .content(rest)
+                        .contentType("application/offset+octet-stream")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Upload-Offset", "15"));
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatFirstChunkWithMismatchedContentReturn415AndDiscardsUpload() throws Exception {
+        UploadSessionDto uploadSessionDto = createUpload(1024L);
+
+        mockMvc.perform(patch("/api/accounts/{accountId}/uploads/{uploadId}", 1, uploadSessionDto.getId())
+                        .header("Upload-Offset", 0)
+                        .content(ZIP_HEADER)
+                        .contentType("application/offset+octet-stream")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        mockMvc.perform(head("/api/accounts/{accountId}/uploads/{uploadId}", 1, uploadSessionDto.getId())
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatCreateUploadWithUnsupportedContentTypeReturn415() throws Exception {
+        CreateUploadSessionDto createUploadSessionDto = new CreateUploadSessionDto(
+                "video.mp4", "video/mp4", 1024L, List.of(1));
+
+        mockMvc.perform(post("/api/accounts/{accountId}/uploads", 1)
+                        .content(objectMapper.writeValueAsString(createUploadSessionDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatFinalizeIncompleteUploadReturn409() throws Exception {
+        UploadSessionDto uploadSessionDto = createUpload(12L);
+
+        mockMvc.perform(post("/api/accounts/{accountId}/uploads/{uploadId}/finalize", 1, uploadSessionDto.getId())
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Sql(statements = """
+            insert into accounts(id, account_name, user_name, email, password, created_on, updated_on) values 
+            (1, 'accountName', 'username', 'email', '$2a$10$Xno4ZDR6sVvSULDwcMIEDuLQKAeoqelai2cr4lx9ONT6GN0FF3CVK', '2022-05-11 21:35:49.174691300 +00:00', '2022-05-11 21:35:49.174691300 +00:00');
+            insert into accounts_roles(account_id, role_id) values 
+            (1, 1);
+              """)
+    public void verifyThatUploadNotFoundReturn404() throws Exception {
+        mockMvc.perform(head("/api/accounts/{accountId}/uploads/{uploadId}", 1, "unknown")
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void verifyThatCreateUploadBeingUnauthorizedShouldReturn401() throws Exception {
+        mockMvc.perform(post("/api/accounts/1/uploads"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private UploadSessionDto createUpload(Long size) throws Exception {
+        CreateUploadSessionDto createUploadSessionDto = new CreateUploadSessionDto();
+        createUploadSessionDto.setOriginalName("imageOriginalName.png");
+        createUploadSessionDto.setContentType("image/png");
+        createUploadSessionDto.setSize(size);
+        createUploadSessionDto.setTagsIds(List.of(1));
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/accounts/{accountId}/uploads", 1)
+                        .content(objectMapper.writeValueAsString(createUploadSessionDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Basic dXNlcm5hbWU6MTIz"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(mvcResult.getResponse().getContentAsString(), UploadSessionDto.class);
+    }
+}
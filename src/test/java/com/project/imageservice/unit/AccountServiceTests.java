@@ -1,6 +1,8 @@
 package com.project.imageservice.unit;
 
 import com.project.imageservice.dao.AccountRepository;
+import com.project.imageservice.dao.ContentHashCount;
+import com.project.imageservice.dao.ImageRepository;
 import com.project.imageservice.dao.RoleRepository;
 import com.project.imageservice.domain.Account;
 import com.project.imageservice.domain.Role;
@@ -14,12 +16,17 @@ import com.project.imageservice.exception.type.EntityNotFoundException;
 import com.project.imageservice.exception.type.RoleNotFoundException;
 import com.project.imageservice.mapper.AccountMapper;
 import com.project.imageservice.service.AccountServiceImpl;
+import com.project.imageservice.service.ContentBlobService;
+import com.project.imageservice.service.ImagesDeletedEvent;
+import com.project.imageservice.service.SearchResultsChangedEvent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.time.LocalDateTime;
@@ -43,6 +50,8 @@ public class AccountServiceTests {
 
     private static final Integer ROLE_ID = 2;
 
+    private static final String CONTENT_HASH = "someContentHash";
+
     private static final String UPDATE_ACCOUNT_USERNAME = "someUserName2";
     private static final String UPDATE_ACCOUNT_ACCOUNT_NAME = "someAccountName2";
     private static final String UPDATE_ACCOUNT_EMAIL = "someEmail2";
@@ -53,6 +62,12 @@ public class AccountServiceTests {
     private RoleRepository roleRepository;
     @Mock
     private BCryptPasswordEncoder encoder;
+    @Mock
+    private ImageRepository imageRepository;
+    @Mock
+    private ContentBlobService contentBlobService;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
     @Spy
     private AccountMapper accountMapper;
     @InjectMocks
@@ -163,6 +178,44 @@ public class AccountServiceTests {
         verify(accountRepository, times(1)).deleteById(ACCOUNT_ID);
     }
 
+    @Test
+    public void whenDeleteAccountThenContentReferencesReleased() {
+        ContentHashCount contentHashCount = mock(ContentHashCount.class);
+        when(contentHashCount.getContentHash()).thenReturn(CONTENT_HASH);
+        when(contentHashCount.getReferenceCount()).thenReturn(2L);
+        when(imageRepository.countContentHashesByAccountId(ACCOUNT_ID)).thenReturn(List.of(contentHashCount));
+
+        accountService.deleteById(ACCOUNT_ID);
+
+        verify(contentBlobService, times(1)).release(CONTENT_HASH, 2);
+        verify(imageRepository, times(1)).deleteAllByAccountId(ACCOUNT_ID);
+        verify(accountRepository, times(1)).deleteById(ACCOUNT_ID);
+    }
+
+    @Test
+    public void whenDeleteAccountThenImagesRemovedFromSimilarityIndex() {
+        when(imageRepository.findIdsByAccountId(ACCOUNT_ID)).thenReturn(List.of(5, 6));
+
+        accountService.deleteById(ACCOUNT_ID);
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(applicationEventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(((ImagesDeletedEvent) events.getAllValues().get(0)).getImageIds()).isEqualTo(List.of(5, 6));
+    }
+
+    @Test
+    public void whenDeleteAccountThenSearchResultsOfAccountAndItsTagsInvalidated() {
+        when(imageRepository.findTagIdsByAccountId(ACCOUNT_ID)).thenReturn(List.of(3, 4));
+
+        accountService.deleteById(ACCOUNT_ID);
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(applicationEventPublisher, times(2)).publishEvent(events.capture());
+        SearchResultsChangedEvent event = (SearchResultsChangedEvent) events.getAllValues().get(1);
+        assertThat(event.getAccountId()).isEqualTo(ACCOUNT_ID);
+        assertThat(event.getTagIds()).isEqualTo(List.of(3, 4));
+    }
+
 
     private Account createAccount() {
         Account account = new Account();
@@ -0,0 +1,70 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.search.SearchProperties;
+import com.project.imageservice.service.ApproximateCountCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApproximateCountCacheTests {
+
+    @Test
+    public void whenSameFilterWithinTtlThenCountIsReused() {
+        ApproximateCountCache cache = new ApproximateCountCache(new SearchProperties());
+        AtomicLong counts = new AtomicLong();
+
+        assertThat(cache.get(filter(List.of(2, 1, 2)), counts::incrementAndGet)).isEqualTo(1);
+        assertThat(cache.get(filter(List.of(1, 2)), counts::incrementAndGet)).isEqualTo(1);
+        assertThat(counts.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenDifferentFilterThenCountedSeparately() {
+        ApproximateCountCache cache = new ApproximateCountCache(new SearchProperties());
+        AtomicLong counts = new AtomicLong();
+
+        cache.get(filter(List.of(1)), counts::incrementAndGet);
+        cache.get(filter(List.of(1, 2)), counts::incrementAndGet);
+
+        assertThat(counts.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenTtlExpiredThenCountIsRunAgain() {
+        SearchProperties searchProperties = new SearchProperties();
+        searchProperties.getCount().setCacheTtl(Duration.ZERO);
+        ApproximateCountCache cache = new ApproximateCountCache(searchProperties);
+        AtomicLong counts = new AtomicLong();
+
+        cache.get(filter(List.of(1)), counts::incrementAndGet);
+        cache.get(filter(List.of(1)), counts::incrementAndGet);
+
+        assertThat(counts.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenCacheFullThenLeastRecentlyUsedFilterIsEvicted() {
+        SearchProperties searchProperties = new SearchProperties();
+        searchProperties.getCount().setCacheSize(1);
+        ApproximateCountCache cache = new ApproximateCountCache(searchProperties);
+
+        cache.get(filter(List.of(1)), () -> 1);
+        cache.get(filter(List.of(2)), () -> 2);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(filter(List.of(1)), () -> 3)).isEqualTo(3);
+    }
+
+    private ImageSearchFilter filter(List<Integer> tagsIds) {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        filter.setAccountId(1);
+        filter.setTagsIds(tagsIds);
+        return filter;
+    }
+}
@@ -0,0 +1,56 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.storage.BlurHash;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BlurHashTests {
+
+    @Test
+    public void whenEncodeSolidImageThenAverageColourEncoded() {
+        assertThat(BlurHash.encode(solid(64, 48, Color.BLACK))).isEqualTo("L00000fQfQfQfQfQfQfQfQfQfQfQ");
+        assertThat(BlurHash.encode(solid(64, 48, Color.WHITE)).substring(2, 6)).isEqualTo("TSUA");
+    }
+
+    @Test
+    public void whenEncodePortraitImageThenMoreVerticalComponents() {
+        String landscape = BlurHash.encode(solid(64, 48, Color.RED));
+        String portrait = BlurHash.encode(solid(48, 64, Color.RED));
+
+        assertThat(landscape.charAt(0)).isEqualTo('L');
+        assertThat(portrait.charAt(0)).isEqualTo('T');
+        assertThat(portrait.substring(2, 6)).isEqualTo(landscape.substring(2, 6));
+    }
+
+    @Test
+    public void whenEncodeGradientThenAcComponentsDifferFromSolid() {
+        BufferedImage image = new BufferedImage(256, 128, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, new Color(x, x, x).getRGB());
+            }
+        }
+
+        String hash = BlurHash.encode(image);
+
+        assertThat(hash).hasSize(28);
+        assertThat(hash.substring(6)).isNotEqualTo("fQfQfQfQfQfQfQfQfQfQfQ");
+    }
+
+    private BufferedImage solid(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(color);
+            graphics.fillRect(0, 0, width, height);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+}
@@ -0,0 +1,110 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.exception.type.UnsupportedImageFormatException;
+import com.project.imageservice.storage.ContentSniffer;
+import com.project.imageservice.storage.ImageFormat;
+import com.project.imageservice.storage.StorageProperties;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class ContentSnifferTests {
+
+    private static final byte[] MP4_HEADER = {0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'i', 's', 'o', 'm'};
+    private static final byte[] AVIF_HEADER = {0, 0, 0, 0x1C, 'f', 't', 'y', 'p', 'a', 'v', 'i', 'f'};
+    private static final byte[] ZIP_HEADER = {'P', 'K', 3, 4, 20, 0, 0, 0};
+
+    private final StorageProperties storageProperties = new StorageProperties();
+    private final ContentSniffer contentSniffer = new ContentSniffer(storageProperties);
+
+    @Test
+    public void whenDetectThenFormatTakenFromSignature() throws IOException {
+        assertThat(detect(encode("png"))).isEqualTo(ImageFormat.PNG);
+        assertThat(detect(encode("jpg"))).isEqualTo(ImageFormat.JPEG);
+        assertThat(detect(encode("gif"))).isEqualTo(ImageFormat.GIF);
+        assertThat(detect(encode("bmp"))).isEqualTo(ImageFormat.BMP);
+        assertThat(detect("RIFF\0\0\0\0WEBPVP8 ".getBytes())).isEqualTo(ImageFormat.WEBP);
+        assertThat(detect(new byte[]{'I', 'I', 42, 0})).isEqualTo(ImageFormat.TIFF);
+        assertThat(detect(AVIF_HEADER)).isEqualTo(ImageFormat.AVIF);
+    }
+
+    @Test
+    public void whenDetectUnknownOrTruncatedContentThenNull() {
+        assertThat(detect(MP4_HEADER)).isNull();
+        assertThat(detect(ZIP_HEADER)).isNull();
+        assertThat(detect("RIFF\0\0\0\0AVI LIST".getBytes())).isNull();
+        assertThat(detect("BM is not a bitmap".getBytes())).isNull();
+        assertThat(detect(new byte[]{(byte) 0x89, 'P', 'N', 'G'})).isNull();
+        assertThat(ImageFormat.detect(new byte[64], 0)).isNull();
+    }
+
+    @Test
+    public void whenSniffDeclaredAliasThenCanonicalFormat() throws IOException {
+        byte[] jpeg = encode("jpg");
+
+        assertThat(contentSniffer.sniff("image/jpg", jpeg, jpeg.length)).isEqualTo(ImageFormat.JPEG);
+        assertThat(contentSniffer.sniff("application/octet-stream", jpeg, jpeg.length)).isEqualTo(ImageFormat.JPEG);
+    }
+
+    @Test
+    public void whenContentTypeHasCaseParametersOrPaddingThenMediaTypeStillMatches() {
+        assertThat(ImageFormat.fromContentType("Image/PNG")).isEqualTo(ImageFormat.PNG);
+        assertThat(ImageFormat.fromContentType(" image/x-png ; charset=binary")).isEqualTo(ImageFormat.PNG);
+        assertThat(ImageFormat.fromContentType("IMAGE/JPG;q=1")).isEqualTo(ImageFormat.JPEG);
+        assertThat(ImageFormat.fromContentType("image/pngx")).isNull();
+        assertThat(ImageFormat.fromContentType(" ; image/png")).isNull();
+        assertThat(ImageFormat.fromContentType("")).isNull();
+    }
+
+    @Test
+    public void whenSniffMismatchedOrUnknownContentThenUnsupportedImageFormatException() throws IOException {
+        byte[] png = encode("png");
+
+        assertThatExceptionOfType(UnsupportedImageFormatException.class)
+                .isThrownBy(() -> contentSniffer.sniff("image/jpeg", png, png.length));
+        assertThatExceptionOfType(UnsupportedImageFormatException.class)
+                .isThrownBy(() -> contentSniffer.sniff("image/png", MP4_HEADER, MP4_HEADER.length));
+        assertThatExceptionOfType(UnsupportedImageFormatException.class)
+                .isThrownBy(() -> contentSniffer.checkDeclared("video/mp4"));
+    }
+
+    @Test
+    public void whenSniffIncompleteContentShorterThanSignatureThenUndecided() {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+        assertThat(contentSniffer.sniff("image/png", png, 3, false)).isNull();
+        assertThat(contentSniffer.sniff("image/png", "RIFF\0\0".getBytes(), 6, false)).isNull();
+        assertThat(contentSniffer.sniff("image/png", png, png.length, false)).isEqualTo(ImageFormat.PNG);
+        assertThatExceptionOfType(UnsupportedImageFormatException.class)
+                .isThrownBy(() -> contentSniffer.sniff("image/png", ZIP_HEADER, ZIP_HEADER.length, false));
+        assertThatExceptionOfType(UnsupportedImageFormatException.class)
+                .isThrownBy(() -> contentSniffer.sniff("image/png", png, 3, true));
+    }
+
+    @Test
+    public void whenFormatNotAllowedThenUnsupportedImageFormatException() {
+        storageProperties.setAllowedFormats(EnumSet.of(ImageFormat.JPEG, ImageFormat.PNG));
+
+        assertThatExceptionOfType(UnsupportedImageFormatException.class)
+                .isThrownBy(() -> contentSniffer.checkDeclared("image/avif"));
+        assertThatExceptionOfType(UnsupportedImageFormatException.class)
+                .isThrownBy(() -> contentSniffer.sniff("application/octet-stream", AVIF_HEADER, AVIF_HEADER.length));
+    }
+
+    private ImageFormat detect(byte[] content) {
+        return ImageFormat.detect(content, content.length);
+    }
+
+    private byte[] encode(String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,92 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.search.FullTextIndex;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class FullTextIndexTests {
+
+    @Test
+    public void whenTokenizeThenSplitOnNonAlphanumericsAndLowercased() {
+        assertThat(FullTextIndex.tokenize("Sunset_Beach.JPG Canon-EOS 5D"))
+                .containsExactly("sunset", "beach", "jpg", "canon", "eos", "5d");
+        assertThat(FullTextIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    public void whenSearchThenRankedByTermFrequencyAndDocumentLength() {
+        FullTextIndex index = index();
+
+        assertThat(index.search("beach")).containsExactly(2, 1);
+        assertThat(index.search("png")).containsExactly(3, 2);
+        assertThat(index.search("sunset beach")).containsExactly(1, 2);
+        assertThat(index.search("river")).isEmpty();
+    }
+
+    @Test
+    public void whenUpdatedOrRemovedThenOldTextNoLongerMatches() {
+        FullTextIndex index = index();
+
+        index.put(2, "renamed.png");
+        index.remove(3);
+
+        assertThat(index.search("beach")).containsExactly(1);
+        assertThat(index.search("png")).containsExactly(2);
+        assertThat(index.imageIds()).containsExactly(1, 2, 4);
+    }
+
+    @Test
+    public void whenMostDocsReplacedThenCompactedWithoutLosingMatches() {
+        FullTextIndex index = new FullTextIndex();
+        for (int id = 1; id <= 3000; id++) {
+            index.put(id, "photo odd");
+        }
+        for (int id = 2; id <= 3000; id += 2) {
+            index.put(id, "photo even");
+        }
+        index.optimize();
+
+        assertThat(index.size()).isEqualTo(3000);
+        assertThat(index.search("odd")).hasSize(1500);
+        assertThat(index.search("even")).hasSize(1500).startsWith(2, 4, 6);
+    }
+
+    @Test
+    public void whenWrittenAndReadThenSameRanking() throws IOException {
+        FullTextIndex index = index();
+        index.remove(4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(new DataOutputStream(out));
+
+        FullTextIndex loaded = new FullTextIndex();
+        loaded.read(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+        loaded.put(5, "beach");
+
+        assertThat(loaded.size()).isEqualTo(4);
+        assertThat(loaded.search("png nikon")).containsExactly(3, 2);
+        assertThat(loaded.search("beach")).containsExactly(5, 2, 1);
+    }
+
+    @Test
+    public void whenQueryHasNoWordsThenIllegalArgumentException() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> index().search("..."));
+    }
+
+    private FullTextIndex index() {
+        FullTextIndex index = new FullTextIndex();
+        index.put(1, "Sunset_Beach.jpg nature");
+        index.put(2, "beach_party_beach.png Canon EOS");
+        index.put(3, "mountain.png landscape");
+        index.put(4, "IMG_2022.jpg Nikon");
+        return index;
+    }
+}
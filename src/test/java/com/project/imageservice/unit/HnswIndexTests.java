@@ -0,0 +1,125 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.search.HnswIndex;
+import com.project.imageservice.search.NearestNeighbor;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class HnswIndexTests {
+
+    private static final int DIMENSIONS = 16;
+
+    @Test
+    public void whenSearchThenNearestNeighboursOrderedByDistance() {
+        HnswIndex index = new HnswIndex(2);
+        index.put(1, new float[]{0, 0});
+        index.put(2, new float[]{1, 0});
+        index.put(3, new float[]{3, 4});
+        index.put(4, new float[]{10, 10});
+
+        List<NearestNeighbor> neighbors = index.search(new float[]{0, 0}, 3, 10, id -> true);
+
+        assertThat(neighbors.stream().map(NearestNeighbor::getId).collect(Collectors.toList())).containsExactly(1, 2, 3);
+        assertThat(neighbors.get(2).getDistance()).isEqualTo(5f);
+    }
+
+    @Test
+    public void whenSearchThenRecallCloseToExactSearch() {
+        Random random = new Random(42);
+        float[][] vectors = new float[5000][DIMENSIONS];
+        HnswIndex index = new HnswIndex(DIMENSIONS);
+        for (int id = 0; id < vectors.length; id++) {
+            for (int i = 0; i < DIMENSIONS; i++) {
+                vectors[id][i] = random.nextFloat();
+            }
+            index.put(id, vectors[id]);
+        }
+
+        int found = 0;
+        for (int query = 0; query < 50; query++) {
+            float[] vector = vectors[random.nextInt(vectors.length)];
+            Set<Integer> exact = IntStream.range(0, vectors.length).boxed()
+                    .sorted(Comparator.comparingDouble(id -> distance(vector, vectors[id])))
+                    .limit(10)
+                    .collect(Collectors.toSet());
+            found += (int) index.search(vector, 10, 64, id -> true).stream()
+                    .filter(neighbor -> exact.contains(neighbor.getId()))
+                    .count();
+        }
+
+        assertThat(found / 500.0).isGreaterThan(0.9);
+    }
+
+    @Test
+    public void whenRemovedOrFilteredThenNotReturned() {
+        HnswIndex index = new HnswIndex(2);
+        index.put(1, new float[]{0, 0});
+        index.put(2, new float[]{1, 1});
+        index.put(3, new float[]{2, 2});
+
+        index.remove(2);
+
+        assertThat(index.search(new float[]{1, 1}, 3, 10, id -> id != 3))
+                .extracting(NearestNeighbor::getId)
+                .containsExactly(1);
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.deletedSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenMostNodesRemovedThenCompactedWithoutLosingNeighbours() {
+        Random random = new Random(42);
+        float[][] vectors = new float[3000][DIMENSIONS];
+        HnswIndex index = new HnswIndex(DIMENSIONS);
+        for (int id = 0; id < vectors.length; id++) {
+            for (int i = 0; i < DIMENSIONS; i++) {
+                vectors[id][i] = random.nextFloat();
+            }
+            index.put(id, vectors[id]);
+        }
+        for (int id = 1; id < vectors.length; id += 2) {
+            index.remove(id);
+        }
+
+        assertThat(index.size()).isEqualTo(1500);
+        assertThat(index.deletedSize()).isEqualTo(0);
+        for (int id = 0; id < vectors.length; id += 100) {
+            assertThat(index.search(vectors[id], 1, 32, candidate -> true).get(0).getId()).isEqualTo(id);
+        }
+    }
+
+    @Test
+    public void whenPutAgainThenVectorReplaced() {
+        HnswIndex index = new HnswIndex(2);
+        index.put(1, new float[]{0, 0});
+        index.put(2, new float[]{5, 5});
+        index.put(1, new float[]{6, 6});
+
+        assertThat(index.search(new float[]{6, 6}, 1, 10, id -> true).get(0).getId()).isEqualTo(1);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenDimensionsDoNotMatchThenIllegalArgumentException() {
+        HnswIndex index = new HnswIndex(2);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> index.put(1, new float[3]));
+    }
+
+    private static double distance(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += (a[i] - b[i]) * (a[i] - b[i]);
+        }
+        return sum;
+    }
+}
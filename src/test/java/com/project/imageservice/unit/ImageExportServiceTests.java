@@ -0,0 +1,121 @@
+package com.project.imageservice.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.dao.ImageSearchRepository;
+import com.project.imageservice.dao.ImageTagId;
+import com.project.imageservice.dao.TagRepository;
+import com.project.imageservice.domain.Account;
+import com.project.imageservice.domain.Image;
+import com.project.imageservice.domain.Tag;
+import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.mapper.ImageMapper;
+import com.project.imageservice.search.SearchProperties;
+import com.project.imageservice.service.ImageExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ImageExportServiceTests {
+
+    private static final Integer ACCOUNT_ID = 1;
+    private static final Integer TAG_ID = 3;
+
+    @Mock
+    private ImageSearchRepository imageSearchRepository;
+    @Mock
+    private ImageRepository imageRepository;
+    @Mock
+    private TagRepository tagRepository;
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ImageExportService imageExportService;
+
+    @BeforeEach
+    public void setUp() {
+        SearchProperties searchProperties = new SearchProperties();
+        searchProperties.getExport().setBatchSize(2);
+        imageExportService = new ImageExportService(
+                imageSearchRepository,
+                imageRepository,
+                tagRepository,
+                new ImageMapper(),
+                objectMapper,
+                entityManager,
+                searchProperties);
+    }
+
+    @Test
+    public void whenExportThenOneJsonLinePerImageAndContextClearedPerBatch() throws IOException {
+        Specification<Image> specification = Specification.where(null);
+        Tag tag = new Tag();
+        tag.setId(TAG_ID);
+        tag.setTagName("someTagName");
+        ImageTagId imageTagId = mock(ImageTagId.class);
+        when(imageTagId.getImageId()).thenReturn(2);
+        when(imageTagId.getTagId()).thenReturn(TAG_ID);
+
+        when(tagRepository.findAll()).thenReturn(List.of(tag));
+        when(imageSearchRepository.stream(specification, 2))
+                .thenReturn(Stream.of(createImage(1), createImage(2), createImage(3)));
+        when(imageRepository.findTagIdsByImageIdIn(List.of(1, 2))).thenReturn(List.of(imageTagId));
+        when(imageRepository.findTagIdsByImageIdIn(List.of(3))).thenReturn(List.of());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = imageExportService.export(List.of(specification), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        ImageDto second = objectMapper.readValue(lines[1], ImageDto.class);
+        assertThat(second.getId()).isEqualTo(2);
+        assertThat(second.getAccountId()).isEqualTo(ACCOUNT_ID);
+        assertThat(second.getTags().get(0).getId()).isEqualTo(TAG_ID);
+        assertThat(objectMapper.readValue(lines[2], ImageDto.class).getTags()).isEmpty();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    public void whenNothingMatchesThenEmptyOutput() throws IOException {
+        Specification<Image> specification = Specification.where(null);
+        when(imageSearchRepository.stream(specification, 2)).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(imageExportService.export(List.of(specification), out)).isEqualTo(0);
+        assertThat(out.size()).isEqualTo(0);
+        verifyNoInteractions(imageRepository, entityManager);
+    }
+
+    private Image createImage(Integer id) {
+        Account account = new Account();
+        account.setId(ACCOUNT_ID);
+
+        Image image = new Image();
+        image.setId(id);
+        image.setOriginalName("image" + id);
+        image.setContentType("image/png");
+        image.setSize(10);
+        image.setCreatedOn(LocalDateTime.now());
+        image.setUpdatedOn(LocalDateTime.now());
+        image.setAccount(account);
+        return image;
+    }
+}
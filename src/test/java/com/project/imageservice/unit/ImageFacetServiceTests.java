@@ -0,0 +1,110 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.dao.ImageSearchRepository;
+import com.project.imageservice.domain.Image;
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.exception.type.InvalidSearchException;
+import com.project.imageservice.service.ImageFacetService;
+import com.project.imageservice.service.ImageSpecificationCreator;
+import com.project.imageservice.service.TagIndexService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ImageFacetServiceTests {
+
+    @Mock
+    private ImageSearchRepository imageSearchRepository;
+    @Mock
+    private ImageSpecificationCreator imageSpecificationCreator;
+    @Mock
+    private TagIndexService tagIndexService;
+    @InjectMocks
+    private ImageFacetService imageFacetService;
+
+    @Test
+    public void whenFilterOnlyUsesTagExpressionThenTagFacetComesFromIndex() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        filter.setAllTags(List.of(1));
+        when(tagIndexService.countImagesByTag(List.of(1), null, null)).thenReturn(Map.of(1, 2, 2, 5));
+
+        Map<String, Map<String, Long>> facets = imageFacetService.countFacets(filter, List.of("tags"));
+
+        assertThat(facets.get("tags")).containsExactly(Map.entry("2", 5L), Map.entry("1", 2L));
+        verifyNoInteractions(imageSearchRepository, imageSpecificationCreator);
+    }
+
+    @Test
+    public void whenFilterHasOtherCriteriaThenTagFacetIsGroupedInDatabase() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        filter.setAccountId(1);
+        Specification<Image> specification = Specification.where(null);
+        when(imageSpecificationCreator.getImageWindows(filter)).thenReturn(List.of(specification));
+        when(imageSearchRepository.countByTag(specification)).thenReturn(Map.of(3, 1L));
+
+        Map<String, Map<String, Long>> facets = imageFacetService.countFacets(filter, List.of("tags"));
+
+        assertThat(facets.get("tags")).containsExactly(Map.entry("3", 1L));
+        verifyNoInteractions(tagIndexService);
+    }
+
+    @Test
+    public void whenTextMatchIsSplitIntoWindowsThenTheirCountsAreAdded() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        filter.setText("beach");
+        Specification<Image> firstWindow = Specification.where(null);
+        Specification<Image> secondWindow = Specification.not(null);
+        when(imageSpecificationCreator.getImageWindows(filter)).thenReturn(List.of(firstWindow, secondWindow));
+        when(imageSearchRepository.countByTag(firstWindow)).thenReturn(Map.of(3, 1L, 4, 2L));
+        when(imageSearchRepository.countByTag(secondWindow)).thenReturn(Map.of(3, 2L));
+        when(imageSearchRepository.countByContentTypeAndSize(eq(firstWindow), any())).thenReturn(Map.of(
+                "image/png", new long[]{3, 3, 1, 2, 3}));
+        when(imageSearchRepository.countByContentTypeAndSize(eq(secondWindow), any())).thenReturn(Map.of(
+                "image/png", new long[]{2, 2, 0, 2, 2}));
+
+        Map<String, Map<String, Long>> facets = imageFacetService.countFacets(filter, List.of("tags", "contentType"));
+
+        assertThat(facets.get("tags")).containsExactly(Map.entry("3", 3L), Map.entry("4", 2L));
+        assertThat(facets.get("contentType")).containsExactly(Map.entry("image/png", 5L));
+    }
+
+    @Test
+    public void whenContentTypeAndSizeBucketThenBothComeFromOneQuery() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        filter.setAccountId(1);
+        Specification<Image> specification = Specification.where(null);
+        when(imageSpecificationCreator.getImageWindows(filter)).thenReturn(List.of(specification));
+        when(imageSearchRepository.countByContentTypeAndSize(eq(specification), any())).thenReturn(Map.of(
+                "image/png", new long[]{3, 3, 1, 2, 3},
+                "image/jpeg", new long[]{5, 4, 0, 4, 4}));
+
+        Map<String, Map<String, Long>> facets = imageFacetService.countFacets(
+                filter, List.of("sizeBucket", "contentType"));
+
+        assertThat(new ArrayList<>(facets.keySet())).containsExactly("contentType", "sizeBucket");
+        assertThat(facets.get("contentType")).containsExactly(Map.entry("image/jpeg", 5L), Map.entry("image/png", 3L));
+        assertThat(facets.get("sizeBucket")).containsExactly(
+                Map.entry("small", 1L), Map.entry("medium", 5L), Map.entry("large", 1L), Map.entry("huge", 0L));
+        verify(imageSearchRepository, times(1)).countByContentTypeAndSize(eq(specification), any());
+        verify(imageSearchRepository, never()).countByTag(any());
+    }
+
+    @Test
+    public void whenUnknownFacetThenInvalidSearchException() {
+        assertThatExceptionOfType(InvalidSearchException.class)
+                .isThrownBy(() -> imageFacetService.countFacets(new ImageSearchFilter(), List.of("color")));
+    }
+}
@@ -0,0 +1,178 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.metadata.ImageMetadata;
+import com.project.imageservice.metadata.ImageMetadataReader;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class ImageMetadataReaderTests {
+
+    private static final String CAMERA_MODEL = "someCameraModel";
+    private static final String CAPTURED_ON = "2021:07:04 12:30:45";
+
+    private final ImageMetadataReader imageMetadataReader = new ImageMetadataReader();
+
+    @Test
+    public void whenReadJpegWithExifThenAllFieldsExtracted() throws IOException {
+        byte[] jpeg = withExif(image("jpg", 120, 80, false));
+
+        ImageMetadata metadata = imageMetadataReader.read(new ByteArrayInputStream(jpeg));
+
+        assertThat(metadata.getWidth()).isEqualTo(120);
+        assertThat(metadata.getHeight()).isEqualTo(80);
+        assertThat(metadata.getOrientation()).isEqualTo(6);
+        assertThat(metadata.getCameraModel()).isEqualTo(CAMERA_MODEL);
+        assertThat(metadata.getCapturedOn()).isEqualTo(LocalDateTime.of(2021, 7, 4, 12, 30, 45));
+        assertThat(metadata.getLatitude()).isCloseTo(52.5, within(1e-9));
+        assertThat(metadata.getLongitude()).isCloseTo(-13.41, within(1e-9));
+    }
+
+    @Test
+    public void whenReadPngThenDimensionsExtracted() throws IOException {
+        ImageMetadata metadata = imageMetadataReader.read(new ByteArrayInputStream(image("png", 30, 20, false)));
+
+        assertThat(metadata.getWidth()).isEqualTo(30);
+        assertThat(metadata.getHeight()).isEqualTo(20);
+        assertThat(metadata.getCapturedOn()).isNull();
+    }
+
+    @Test
+    public void whenReadLargeJpegThenPixelDataNotRead() throws IOException {
+        byte[] jpeg = withExif(image("jpg", 2000, 2000, true));
+        CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(jpeg));
+
+        ImageMetadata metadata = imageMetadataReader.read(in);
+
+        assertThat(metadata.getWidth()).isEqualTo(2000);
+        assertThat(in.count).isLessThan(32 * 1024L);
+        assertThat((long) jpeg.length).isGreaterThan(in.count * 10);
+    }
+
+    @Test
+    public void whenReadUnknownContentThenEmptyMetadata() {
+        ImageMetadata metadata = imageMetadataReader.read(new ByteArrayInputStream("imageContent".getBytes()));
+
+        assertThat(metadata.getWidth()).isNull();
+        assertThat(metadata.getCameraModel()).isNull();
+    }
+
+    private static byte[] image(String format, int width, int height, boolean noise) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        if (noise) {
+            Random random = new Random(42);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    image.setRGB(x, y, random.nextInt());
+                }
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] withExif(byte[] jpeg) {
+        byte[] tiff = tiff();
+        ByteBuffer app1 = ByteBuffer.allocate(4 + 6 + tiff.length);
+        app1.put((byte) 0xFF).put((byte) 0xE1).putShort((short) (2 + 6 + tiff.length));
+        app1.put("Exif\0\0".getBytes(StandardCharsets.US_ASCII)).put(tiff);
+
+        ByteBuffer result = ByteBuffer.allocate(jpeg.length + app1.capacity());
+        result.put(jpeg, 0, 2).put(app1.array()).put(jpeg, 2, jpeg.length - 2);
+        return result.array();
+    }
+
+    private static byte[] tiff() {
+        int exifIfd = 100;
+        int gpsIfd = 140;
+        int model = 200;
+        int capturedOn = 220;
+        int latitude = 260;
+        int longitude = 284;
+
+        ByteBuffer tiff = ByteBuffer.allocate(320);
+        tiff.put("MM".getBytes(StandardCharsets.US_ASCII)).putShort((short) 42).putInt(8);
+        tiff.putShort((short) 4);
+        entry(tiff, 0x0110, 2, CAMERA_MODEL.length() + 1, model);
+        entry(tiff, 0x0112, 3, 1, 6 << 16);
+        entry(tiff, 0x8769, 4, 1, exifIfd);
+        entry(tiff, 0x8825, 4, 1, gpsIfd);
+        tiff.putInt(0);
+
+        tiff.position(exifIfd);
+        tiff.putShort((short) 1);
+        entry(tiff, 0x9003, 2, CAPTURED_ON.length() + 1, capturedOn);
+        tiff.putInt(0);
+
+        tiff.position(gpsIfd);
+        tiff.putShort((short) 4);
+        entry(tiff, 0x0001, 2, 2, 'N' << 24);
+        entry(tiff, 0x0002, 5, 3, latitude);
+        entry(tiff, 0x0003, 2, 2, 'W' << 24);
+        entry(tiff, 0x0004, 5, 3, longitude);
+        tiff.putInt(0);
+
+        tiff.position(model);
+        tiff.put(CAMERA_MODEL.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+        tiff.position(capturedOn);
+        tiff.put(CAPTURED_ON.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+        tiff.position(latitude);
+        tiff.putInt(52).putInt(1).putInt(30).putInt(1).putInt(0).putInt(1);
+        tiff.position(longitude);
+        tiff.putInt(13).putInt(1).putInt(24).putInt(1).putInt(36).putInt(1);
+        return Arrays.copyOf(tiff.array(), tiff.capacity());
+    }
+
+    private static void entry(ByteBuffer tiff, int tag, int type, int count, int value) {
+        tiff.putShort((short) tag).putShort((short) type).putInt(count).putInt(value);
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -1,35 +1,88 @@
 package com.project.imageservice.unit;
 
 import com.project.imageservice.dao.AccountRepository;
+import com.project.imageservice.dao.ImageFeatures;
+import com.project.imageservice.dao.ImageJdbcRepository;
+import com.project.imageservice.dao.ImageKey;
 import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.dao.ImageSearchRepository;
+import com.project.imageservice.dao.ImageTagId;
 import com.project.imageservice.dao.TagRepository;
 import com.project.imageservice.domain.Account;
 import com.project.imageservice.domain.Image;
 import com.project.imageservice.domain.Tag;
 import com.project.imageservice.dto.image.CreateImageDto;
+import com.project.imageservice.dto.image.ImageCursorPageDto;
 import com.project.imageservice.dto.image.ImageDto;
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.dto.image.ImageSliceDto;
 import com.project.imageservice.dto.image.UpdateImageDto;
+import com.project.imageservice.dto.image.UploadImageDto;
+import com.project.imageservice.dto.image.UploadResultDto;
+import com.project.imageservice.dto.image.UploadStatus;
 import com.project.imageservice.exception.type.AccountNotFoundException;
 import com.project.imageservice.exception.type.ImageNotFoundException;
+import com.project.imageservice.exception.type.InvalidSearchException;
 import com.project.imageservice.exception.type.TagNotFoundException;
+import com.project.imageservice.exception.type.UnsupportedImageFormatException;
 import com.project.imageservice.mapper.ImageMapper;
+import com.project.imageservice.metadata.ImageMetadata;
+import com.project.imageservice.metadata.ImageMetadataReader;
+import com.project.imageservice.search.VisualFeatures;
+import com.project.imageservice.service.ApproximateCountCache;
+import com.project.imageservice.service.ContentBlobService;
+import com.project.imageservice.service.ContentStoredEvent;
+import com.project.imageservice.service.FullTextIndexService;
+import com.project.imageservice.service.ImageCursor;
+import com.project.imageservice.service.ImagesSavedEvent;
 import com.project.imageservice.service.ImageServiceImpl;
+import com.project.imageservice.service.ImageSpecificationCreator;
+import com.project.imageservice.service.SearchResultCache;
+import com.project.imageservice.service.SearchResultsChangedEvent;
+import com.project.imageservice.storage.BlobStore;
+import com.project.imageservice.storage.ContentSniffer;
+import com.project.imageservice.storage.StoredBlob;
+import com.project.imageservice.storage.ThumbnailStore;
+import com.project.imageservice.storage.TileStore;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,6 +104,14 @@ public class ImageServiceTests {
     private static final String UPDATE_IMAGE_CONTENT_TYPE = "someContentType2";
     private static final Integer UPDATE_IMAGE_SIZE = 11;
 
+    private static final String IMAGE_CONTENT_HASH = "someContentHash";
+    private static final long IMAGE_STORED_SIZE = 12L;
+    private static final Long IMAGE_PERCEPTUAL_HASH = 0x0f0f0f0f0f0f0f0fL;
+    private static final String IMAGE_PLACEHOLDER = "LEHV6nWB2yk8pyo0adR*.7kCMdnj";
+    private static final Integer IMAGE_WIDTH = 640;
+    private static final Integer IMAGE_HEIGHT = 480;
+    private static final String IMAGE_CAMERA_MODEL = "someCameraModel";
+
     private static final Integer TAG_ID = 3;
     private static final String TAG_NAME = "someTagName";
 
@@ -60,9 +121,39 @@ public class ImageServiceTests {
     @Mock
     private ImageRepository imageRepository;
     @Mock
+    private ImageSearchRepository imageSearchRepository;
+    @Mock
+    private ImageSpecificationCreator imageSpecificationCreator;
+    @Mock
+    private ApproximateCountCache approximateCountCache;
+    @Mock
+    private SearchResultCache searchResultCache;
+    @Mock
+    private FullTextIndexService fullTextIndexService;
+    @Mock
     private AccountRepository accountRepository;
     @Mock
     private TagRepository tagRepository;
+    @Mock
+    private BlobStore blobStore;
+    @Mock
+    private ContentBlobService contentBlobService;
+    @Mock
+    private ThumbnailStore thumbnailStore;
+    @Mock
+    private TileStore tileStore;
+    @Mock
+    private ImageMetadataReader imageMetadataReader;
+    @Mock
+    private ContentSniffer contentSniffer;
+    @Mock
+    private ImageJdbcRepository imageJdbcRepository;
+    @Mock
+    private ThreadPoolTaskExecutor uploadExecutor;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
     @Spy
     private ImageMapper imageMapper;
     @InjectMocks
@@ -162,6 +253,7 @@ public class ImageServiceTests {
 
     @Test
     public void whenCreateImageThenSuccess() {
+        mockSaveAssigningId();
         Account account = createAccount();
         when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(account));
 
@@ -175,6 +267,7 @@ public class ImageServiceTests {
 
         ImageDto imageDto = imageService.create(createImageDto, ACCOUNT_ID);
 
+        assertThat(imageDto.getId()).isEqualTo(IMAGE_ID);
         assertThat(imageDto.getOriginalName()).isEqualTo(IMAGE_ORIGINAL_NAME);
         assertThat(imageDto.getContentType()).isEqualTo(IMAGE_CONTENT_TYPE);
         assertThat(imageDto.getSize()).isEqualTo(IMAGE_SIZE);
@@ -182,6 +275,165 @@ public class ImageServiceTests {
         verify(imageRepository, times(1)).save(any(Image.class));
     }
 
+    @Test
+    public void whenUploadImageTagIdNotFoundThenTagNotFoundAndNothingStored() {
+        Account account = createAccount();
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(account));
+
+        UploadImageDto uploadImageDto = uploadImageDto(List.of(TAG_ID));
+        when(tagRepository.findByIdIn(uploadImageDto.getTagsIds())).thenReturn(List.of());
+
+        InputStream content = new ByteArrayInputStream(new byte[0]);
+        assertThatExceptionOfType(TagNotFoundException.class)
+                .isThrownBy(() -> imageService.upload(uploadImageDto, content, ACCOUNT_ID));
+        verifyNoInteractions(blobStore);
+    }
+
+    @Test
+    public void whenUploadImageThenSizeAndHashTakenFromStoredContent() {
+        mockSaveAssigningId();
+        Account account = createAccount();
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(account));
+
+        List<Tag> tags = createTags();
+        List<Integer> tagIds = tags.stream()
+                .map(Tag::getId)
+                .collect(Collectors.toList());
+        when(tagRepository.findByIdIn(tagIds)).thenReturn(tags);
+
+        InputStream content = new ByteArrayInputStream(new byte[0]);
+        StoredBlob storedBlob = new StoredBlob(IMAGE_CONTENT_HASH, IMAGE_STORED_SIZE);
+        when(blobStore.store(eq(content), any())).thenReturn(storedBlob);
+        ImageMetadata imageMetadata = new ImageMetadata();
+        imageMetadata.setWidth(IMAGE_WIDTH);
+        imageMetadata.setHeight(IMAGE_HEIGHT);
+        imageMetadata.setCameraModel(IMAGE_CAMERA_MODEL);
+        when(imageMetadataReader.read((Path) any())).thenReturn(imageMetadata);
+
+        ImageDto imageDto = imageService.upload(uploadImageDto(tagIds), content, ACCOUNT_ID);
+
+        assertThat(imageDto.getOriginalName()).isEqualTo(IMAGE_ORIGINAL_NAME);
+        assertThat(imageDto.getContentType()).isEqualTo(IMAGE_CONTENT_TYPE);
+        assertThat(imageDto.getSize()).isEqualTo((int) IMAGE_STORED_SIZE);
+        assertThat(imageDto.getContentHash()).isEqualTo(IMAGE_CONTENT_HASH);
+        assertThat(imageDto.getWidth()).isEqualTo(IMAGE_WIDTH);
+        assertThat(imageDto.getHeight()).isEqualTo(IMAGE_HEIGHT);
+        assertThat(imageDto.getCameraModel()).isEqualTo(IMAGE_CAMERA_MODEL);
+
+        verify(imageRepository, times(1)).save(any(Image.class));
+        verify(contentBlobService, times(1)).acquire(storedBlob, 1);
+    }
+
+    @Test
+    public void whenUploadImageWithoutThumbnailThenThumbnailRequested() {
+        mockSaveAssigningId();
+        Account account = createAccount();
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(account));
+        when(tagRepository.findByIdIn(List.of())).thenReturn(List.of());
+
+        InputStream content = new ByteArrayInputStream(new byte[0]);
+        when(blobStore.store(eq(content), any())).thenReturn(new StoredBlob(IMAGE_CONTENT_HASH, IMAGE_STORED_SIZE));
+        when(imageMetadataReader.read((Path) any())).thenReturn(new ImageMetadata());
+        when(thumbnailStore.exists(IMAGE_CONTENT_HASH)).thenReturn(false);
+
+        ImageDto imageDto = imageService.upload(uploadImageDto(List.of()), content, ACCOUNT_ID);
+
+        assertThat(imageDto.getThumbnailAvailable()).isFalse();
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ContentStoredEvent.class));
+    }
+
+    @Test
+    public void whenUploadImageWithExistingThumbnailThenThumbnailNotRequested() {
+        mockSaveAssigningId();
+        Account account = createAccount();
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(account));
+        when(tagRepository.findByIdIn(List.of())).thenReturn(List.of());
+
+        InputStream content = new ByteArrayInputStream(new byte[0]);
+        when(blobStore.store(eq(content), any())).thenReturn(new StoredBlob(IMAGE_CONTENT_HASH, IMAGE_STORED_SIZE));
+        when(imageMetadataReader.read((Path) any())).thenReturn(new ImageMetadata());
+        when(thumbnailStore.exists(IMAGE_CONTENT_HASH)).thenReturn(true);
+        ImageFeatures imageFeatures = mock(ImageFeatures.class);
+        when(imageFeatures.getPerceptualHash()).thenReturn(IMAGE_PERCEPTUAL_HASH);
+        when(imageFeatures.getVisualFeatures()).thenReturn(new byte[VisualFeatures.DIMENSIONS * Float.BYTES]);
+        when(imageFeatures.getPlaceholder()).thenReturn(IMAGE_PLACEHOLDER);
+        when(imageRepository.findFirstByContentHashAndPerceptualHashNotNull(IMAGE_CONTENT_HASH))
+                .thenReturn(Optional.of(imageFeatures));
+
+        ImageDto imageDto = imageService.upload(uploadImageDto(List.of()), content, ACCOUNT_ID);
+
+        assertThat(imageDto.getThumbnailAvailable()).isTrue();
+        assertThat(imageDto.getPlaceholder()).isEqualTo(IMAGE_PLACEHOLDER);
+        verify(applicationEventPublisher, never()).publishEvent(any(ContentStoredEvent.class));
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ImagesSavedEvent.class));
+    }
+
+    @Test
+    public void whenBatchFileDeclaresUnsupportedTypeThenItFailsBeforeContentIsStored() {
+        mockBatchUpload();
+        UploadImageDto unsupported = uploadImageDto(List.of());
+        unsupported.setContentType("text/plain");
+        when(contentSniffer.checkDeclared(IMAGE_CONTENT_TYPE)).thenReturn(null);
+        when(contentSniffer.checkDeclared("text/plain"))
+                .thenThrow(new UnsupportedImageFormatException("Content type text/plain is not supported"));
+        StoredBlob storedBlob = new StoredBlob(IMAGE_CONTENT_HASH, IMAGE_STORED_SIZE);
+        when(blobStore.store(any(), any())).thenReturn(storedBlob);
+        when(imageMetadataReader.read((Path) any())).thenReturn(new ImageMetadata());
+
+        List<ByteArrayResource> contents = List.of(new ByteArrayResource(new byte[0]), new ByteArrayResource(new byte[0]));
+        List<UploadResultDto> results = imageService.uploadBatch(
+                List.of(uploadImageDto(List.of()), unsupported), contents, ACCOUNT_ID);
+
+        assertThat(results.get(0).getStatus()).isEqualTo(UploadStatus.CREATED);
+        assertThat(results.get(1).getStatus()).isEqualTo(UploadStatus.FAILED);
+        assertThat(results.get(1).getError()).isEqualTo("Content type text/plain is not supported");
+        verify(blobStore, times(1)).store(any(), any());
+        verify(contentBlobService, times(1)).acquire(storedBlob, 1);
+    }
+
+    @Test
+    public void whenBatchFileFailsAfterItsContentIsStoredThenItsBlobIsAbandoned() {
+        mockBatchUpload();
+        StoredBlob storedBlob = new StoredBlob(IMAGE_CONTENT_HASH, IMAGE_STORED_SIZE);
+        StoredBlob failedBlob = new StoredBlob("someFailedContentHash", IMAGE_STORED_SIZE);
+        when(blobStore.store(any(), any())).thenReturn(storedBlob, failedBlob);
+        Path failedPath = Path.of("someFailedPath");
+        when(blobStore.resolve(IMAGE_CONTENT_HASH)).thenReturn(Path.of("somePath"));
+        when(blobStore.resolve("someFailedContentHash")).thenReturn(failedPath);
+        when(imageMetadataReader.read((Path) any())).thenAnswer(invocation -> {
+            if (failedPath.equals(invocation.getArgument(0))) {
+                throw new IllegalStateException("someFailure");
+            }
+            return new ImageMetadata();
+        });
+
+        List<ByteArrayResource> contents = List.of(new ByteArrayResource(new byte[0]), new ByteArrayResource(new byte[0]));
+        List<UploadResultDto> results = imageService.uploadBatch(
+                List.of(uploadImageDto(List.of()), uploadImageDto(List.of())), contents, ACCOUNT_ID);
+
+        assertThat(results.get(0).getStatus()).isEqualTo(UploadStatus.CREATED);
+        assertThat(results.get(1).getStatus()).isEqualTo(UploadStatus.FAILED);
+        verify(contentBlobService, times(1)).acquire(storedBlob, 1);
+        verify(contentBlobService, times(1)).abandon(failedBlob);
+        verify(contentBlobService, never()).abandon(storedBlob);
+    }
+
+    @Test
+    public void whenBatchCommitFailsThenStoredBlobsAreAbandoned() {
+        mockBatchUpload();
+        StoredBlob storedBlob = new StoredBlob(IMAGE_CONTENT_HASH, IMAGE_STORED_SIZE);
+        when(blobStore.store(any(), any())).thenReturn(storedBlob);
+        when(imageMetadataReader.read((Path) any())).thenReturn(new ImageMetadata());
+        doThrow(new QueryTimeoutException("someTimeout")).when(imageJdbcRepository).insertAll(any());
+
+        List<UploadImageDto> uploadImageDtos = List.of(uploadImageDto(List.of()), uploadImageDto(List.of()));
+        List<ByteArrayResource> contents = List.of(new ByteArrayResource(new byte[0]), new ByteArrayResource(new byte[0]));
+        assertThatExceptionOfType(QueryTimeoutException.class)
+                .isThrownBy(() -> imageService.uploadBatch(uploadImageDtos, contents, ACCOUNT_ID));
+        verify(contentBlobService, never()).acquire(any(), anyInt());
+        verify(contentBlobService, times(1)).abandon(storedBlob);
+    }
+
     @Test
     public void whenUpdateImageAccountIdNotFoundThenAccountNotFoundException() {
         UpdateImageDto updateImageDto = updateImageDto(List.of(TAG_ID));
@@ -217,6 +469,7 @@ public class ImageServiceTests {
 
     @Test
     public void whenUpdateImageThenSuccess() {
+        mockSaveAssigningId();
         Account account = createAccount();
         List<Tag> tags = createTagsForUpdate();
         List<Integer> tagsIds = tags.stream()
@@ -237,12 +490,262 @@ public class ImageServiceTests {
         verify(imageRepository, times(1)).save(any(Image.class));
     }
 
+    @Test
+    public void whenUpdateImageThenSearchResultsOfOldAndNewTagsInvalidated() {
+        mockSaveAssigningId();
+        Account account = createAccount();
+        List<Tag> tags = createTagsForUpdate();
+        List<Integer> tagsIds = List.of(UPDATE_TAG_ID);
+        Image image = createImage(account, createTags());
+
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(account));
+        when(imageRepository.findByIdAndAccountId(ACCOUNT_ID, IMAGE_ID)).thenReturn(Optional.of(image));
+        when(tagRepository.findByIdIn(tagsIds)).thenReturn(tags);
+
+        imageService.update(ACCOUNT_ID, IMAGE_ID, updateImageDto(tagsIds));
+
+        SearchResultsChangedEvent event = searchResultsChangedEvent();
+        assertThat(event.getAccountId()).isEqualTo(ACCOUNT_ID);
+        assertThat(new HashSet<>(event.getTagIds())).isEqualTo(Set.of(TAG_ID, UPDATE_TAG_ID));
+    }
+
     @Test
     public void whenDeleteImageThenSuccess() {
         imageService.delete(ACCOUNT_ID, IMAGE_ID);
         verify(imageRepository, times(1)).deleteByIdAndAccountId(ACCOUNT_ID, IMAGE_ID);
     }
 
+    @Test
+    public void whenDeleteImageWithContentThenContentReferenceReleased() {
+        when(imageRepository.findContentHashByIdAndAccountId(ACCOUNT_ID, IMAGE_ID))
+                .thenReturn(Optional.of(IMAGE_CONTENT_HASH));
+
+        imageService.delete(ACCOUNT_ID, IMAGE_ID);
+
+        verify(contentBlobService, times(1)).release(IMAGE_CONTENT_HASH, 1);
+        verify(imageRepository, times(1)).deleteByIdAndAccountId(ACCOUNT_ID, IMAGE_ID);
+    }
+
+    @Test
+    public void whenDeleteImageThenSearchResultsOfItsTagsInvalidated() {
+        ImageTagId imageTagId = mock(ImageTagId.class);
+        when(imageTagId.getTagId()).thenReturn(TAG_ID);
+        when(imageRepository.findTagIdsByImageIdIn(List.of(IMAGE_ID))).thenReturn(List.of(imageTagId));
+
+        imageService.delete(ACCOUNT_ID, IMAGE_ID);
+
+        SearchResultsChangedEvent event = searchResultsChangedEvent();
+        assertThat(event.getAccountId()).isEqualTo(ACCOUNT_ID);
+        assertThat(event.getTagIds()).isEqualTo(List.of(TAG_ID));
+    }
+
+    @Test
+    public void whenFindByFilterThenIdsComeFromSearchResultCache() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        PageRequest pageable = PageRequest.of(0, 1);
+        when(searchResultCache.get(eq(filter), eq(pageable), any()))
+                .thenReturn(new PageImpl<>(List.of(IMAGE_ID), pageable, 7));
+        when(imageRepository.findAllWithTagsByIdIn(List.of(IMAGE_ID)))
+                .thenReturn(List.of(createImage(createAccount(), createTags())));
+
+        Page<ImageDto> page = imageService.findByFilter(filter, pageable);
+
+        assertThat(page.getContent().get(0).getId()).isEqualTo(IMAGE_ID);
+        assertThat(page.getTotalElements()).isEqualTo(7);
+        verifyNoInteractions(imageSearchRepository, imageSpecificationCreator);
+    }
+
+    @Test
+    public void whenFindByFilterWithTextThenRankingIsNarrowedByOtherCriteria() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        filter.setText("beach");
+        filter.setAccountId(ACCOUNT_ID);
+        ImageSearchFilter rest = new ImageSearchFilter();
+        rest.setAccountId(ACCOUNT_ID);
+        PageRequest pageable = PageRequest.of(0, 1);
+        Specification<Image> specification = Specification.where(null);
+        when(searchResultCache.get(eq(filter), eq(pageable), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Page<Integer>>>getArgument(2).get());
+        when(fullTextIndexService.search("beach")).thenReturn(new int[]{5, IMAGE_ID, 7});
+        when(imageSpecificationCreator.getImages(rest)).thenReturn(specification);
+        when(imageSpecificationCreator.getImagesByIdIn(any())).thenReturn(specification);
+        when(imageSearchRepository.findIds(any(), eq(Pageable.unpaged()), isNull()))
+                .thenReturn(new PageImpl<>(List.of(7, IMAGE_ID)));
+        when(imageRepository.findAllWithTagsByIdIn(List.of(IMAGE_ID)))
+                .thenReturn(List.of(createImage(createAccount(), createTags())));
+
+        Page<ImageDto> page = imageService.findByFilter(filter, pageable);
+
+        assertThat(page.getContent().size()).isEqualTo(1);
+        assertThat(page.getContent().get(0).getId()).isEqualTo(IMAGE_ID);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenFindByFilterWithTextThenOnlyWindowsUpToThePageAreNarrowed() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        filter.setText("beach");
+        filter.setAccountId(ACCOUNT_ID);
+        PageRequest pageable = PageRequest.of(0, 1);
+        Specification<Image> specification = Specification.where(null);
+        int[] ranked = IntStream.rangeClosed(IMAGE_ID, 2500 + IMAGE_ID).toArray();
+        when(searchResultCache.get(eq(filter), eq(pageable), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Page<Integer>>>getArgument(2).get());
+        when(fullTextIndexService.search("beach")).thenReturn(ranked);
+        when(imageSpecificationCreator.getImages(any())).thenReturn(specification);
+        when(imageSpecificationCreator.getImagesByIdIn(any())).thenReturn(specification);
+        when(imageSearchRepository.findIds(any(), eq(Pageable.unpaged()), isNull()))
+                .thenReturn(new PageImpl<>(List.of(IMAGE_ID)));
+        when(imageSearchRepository.count(any())).thenReturn(3L);
+        when(imageRepository.findAllWithTagsByIdIn(List.of(IMAGE_ID)))
+                .thenReturn(List.of(createImage(createAccount(), createTags())));
+
+        Page<ImageDto> page = imageService.findByFilter(filter, pageable);
+
+        assertThat(page.getContent().get(0).getId()).isEqualTo(IMAGE_ID);
+        assertThat(page.getTotalElements()).isEqualTo(7);
+        verify(imageSearchRepository, times(1)).findIds(any(), any(), any());
+        verify(imageSearchRepository, times(2)).count(any());
+    }
+
+    @Test
+    public void whenFindByFilterWithTextAndSortThenInvalidSearchException() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        filter.setText("beach");
+        PageRequest pageable = PageRequest.of(0, 1, Sort.by("originalName"));
+
+        assertThatExceptionOfType(InvalidSearchException.class)
+                .isThrownBy(() -> imageService.findByFilter(filter, pageable));
+        verifyNoInteractions(fullTextIndexService);
+    }
+
+    @Test
+    public void whenFindAfterCursorWithMoreRowsThenNextCursorPointsAtLastReturnedImage() {
+        ImageKey after = new ImageKey(IMAGE_ID + 2, NOW.plusDays(1));
+        ImageKey returned = new ImageKey(IMAGE_ID, NOW);
+        ImageKey extra = new ImageKey(IMAGE_ID - 1, NOW.minusDays(1));
+        Specification<Image> specification = Specification.where(null);
+        when(imageSearchRepository.findKeysAfter(eq(specification), any(ImageKey.class), eq(2)))
+                .thenReturn(List.of(returned, extra));
+        when(imageRepository.findAllWithTagsByIdIn(List.of(IMAGE_ID)))
+                .thenReturn(List.of(createImage(createAccount(), createTags())));
+
+        ImageCursorPageDto page = imageService.findBySpecification(List.of(specification), ImageCursor.encode(after), 1);
+
+        assertThat(page.getContent().size()).isEqualTo(1);
+        assertThat(page.getContent().get(0).getId()).isEqualTo(IMAGE_ID);
+        assertThat(ImageCursor.decode(page.getNextCursor()).getId()).isEqualTo(IMAGE_ID);
+        assertThat(ImageCursor.decode(page.getNextCursor()).getCreatedOn()).isEqualTo(NOW);
+    }
+
+    @Test
+    public void whenFindAfterCursorOverWindowsThenKeysAreMergedNewestFirst() {
+        Specification<Image> firstWindow = Specification.where(null);
+        Specification<Image> secondWindow = Specification.not(null);
+        when(imageSearchRepository.findKeysAfter(firstWindow, null, 3))
+                .thenReturn(List.of(new ImageKey(IMAGE_ID, NOW), new ImageKey(IMAGE_ID - 1, NOW.minusDays(2))));
+        when(imageSearchRepository.findKeysAfter(secondWindow, null, 3))
+                .thenReturn(List.of(new ImageKey(IMAGE_ID + 1, NOW.minusDays(1))));
+        when(imageRepository.findAllWithTagsByIdIn(List.of(IMAGE_ID, IMAGE_ID + 1))).thenReturn(List.of());
+
+        ImageCursorPageDto page = imageService.findBySpecification(List.of(firstWindow, secondWindow), null, 2);
+
+        assertThat(ImageCursor.decode(page.getNextCursor()).getId()).isEqualTo(IMAGE_ID + 1);
+        verify(imageRepository).findAllWithTagsByIdIn(List.of(IMAGE_ID, IMAGE_ID + 1));
+    }
+
+    @Test
+    public void whenFindAfterMalformedCursorThenInvalidSearchException() {
+        assertThatExceptionOfType(InvalidSearchException.class)
+                .isThrownBy(() -> imageService.findBySpecification(List.of(Specification.where(null)), "bm90IGEgY3Vyc29y", 20));
+        verifyNoInteractions(imageSearchRepository);
+    }
+
+    @Test
+    public void whenFindSliceWithoutApproximateTotalThenNoCountIsRun() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        Specification<Image> specification = Specification.where(null);
+        PageRequest pageable = PageRequest.of(0, 1);
+        when(imageSpecificationCreator.getImages(filter)).thenReturn(specification);
+        when(imageSearchRepository.findIdSlice(specification, pageable, null))
+                .thenReturn(new SliceImpl<>(List.of(IMAGE_ID), pageable, true));
+        when(imageRepository.findAllWithTagsByIdIn(List.of(IMAGE_ID)))
+                .thenReturn(List.of(createImage(createAccount(), createTags())));
+
+        ImageSliceDto slice = imageService.findSlice(filter, pageable, false);
+
+        assertThat(slice.getContent().get(0).getId()).isEqualTo(IMAGE_ID);
+        assertThat(slice.isHasNext()).isTrue();
+        assertThat(slice.getApproximateTotal()).isNull();
+        verify(imageSearchRepository, never()).count(any());
+        verifyNoInteractions(approximateCountCache);
+    }
+
+    @Test
+    public void whenFindSliceWithApproximateTotalThenTotalComesFromCache() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        Specification<Image> specification = Specification.where(null);
+        PageRequest pageable = PageRequest.of(0, 1);
+        when(imageSpecificationCreator.getImages(filter)).thenReturn(specification);
+        when(imageSearchRepository.findIdSlice(specification, pageable, null))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(approximateCountCache.get(eq(filter), any())).thenReturn(42L);
+
+        ImageSliceDto slice = imageService.findSlice(filter, pageable, true);
+
+        assertThat(slice.getContent().size()).isEqualTo(0);
+        assertThat(slice.isHasNext()).isFalse();
+        assertThat(slice.getApproximateTotal()).isEqualTo(42L);
+    }
+
+    @Test
+    public void whenFindSliceWithTextThenRankedMatchesAreSlicedWithoutCount() {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        filter.setText("beach");
+        PageRequest pageable = PageRequest.of(1, 1);
+        when(fullTextIndexService.search("beach")).thenReturn(new int[]{5, IMAGE_ID, 7});
+        when(imageRepository.findAllWithTagsByIdIn(List.of(IMAGE_ID)))
+                .thenReturn(List.of(createImage(createAccount(), createTags())));
+
+        ImageSliceDto slice = imageService.findSlice(filter, pageable, false);
+
+        assertThat(slice.getContent().get(0).getId()).isEqualTo(IMAGE_ID);
+        assertThat(slice.isHasNext()).isTrue();
+        verifyNoInteractions(imageSearchRepository, imageSpecificationCreator);
+    }
+
+    private SearchResultsChangedEvent searchResultsChangedEvent() {
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(applicationEventPublisher, atLeastOnce()).publishEvent(events.capture());
+        return events.getAllValues().stream()
+                .filter(SearchResultsChangedEvent.class::isInstance)
+                .map(SearchResultsChangedEvent.class::cast)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void mockBatchUpload() {
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(createAccount()));
+        when(tagRepository.findByIdIn(List.of())).thenReturn(List.of());
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(uploadExecutor).execute(any());
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private void mockSaveAssigningId() {
+        when(imageRepository.save(any(Image.class))).thenAnswer(invocation -> {
+            Image image = invocation.getArgument(0);
+            if (image.getId() == null) {
+                image.setId(IMAGE_ID);
+            }
+            return image;
+        });
+    }
 
     private Image createImage(Account account, List<Tag> tags) {
         Image image = new Image();
@@ -307,6 +810,14 @@ public class ImageServiceTests {
         return createImageDto;
     }
 
+    private UploadImageDto uploadImageDto(List<Integer> tagIds) {
+        UploadImageDto uploadImageDto = new UploadImageDto();
+        uploadImageDto.setOriginalName(IMAGE_ORIGINAL_NAME);
+        uploadImageDto.setContentType(IMAGE_CONTENT_TYPE);
+        uploadImageDto.setTagsIds(tagIds);
+        return uploadImageDto;
+    }
+
     private UpdateImageDto updateImageDto(List<Integer> tagIds) {
         UpdateImageDto updateImageDto = new UpdateImageDto();
         updateImageDto.setOriginalName(UPDATE_IMAGE_ORIGINAL_NAME);
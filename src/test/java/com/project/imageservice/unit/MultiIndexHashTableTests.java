@@ -0,0 +1,71 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.search.HammingMatch;
+import com.project.imageservice.search.MultiIndexHashTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class MultiIndexHashTableTests {
+
+    @Test
+    public void whenSearchThenMatchesWithinDistanceOrderedByDistance() {
+        MultiIndexHashTable index = new MultiIndexHashTable();
+        index.put(1, 0xffL);
+        index.put(2, 0xfeL);
+        index.put(3, 0x0fL);
+        index.put(4, -1L);
+
+        List<HammingMatch> matches = index.search(0xffL, 4);
+
+        assertThat(matches.stream().map(HammingMatch::getId).collect(Collectors.toList())).containsExactly(1, 2, 3);
+        assertThat(matches.stream().map(HammingMatch::getDistance).collect(Collectors.toList())).containsExactly(0, 1, 4);
+    }
+
+    @Test
+    public void whenSearchThenSameResultAsLinearScan() {
+        Random random = new Random(42);
+        long[] hashes = new long[5000];
+        MultiIndexHashTable index = new MultiIndexHashTable();
+        for (int id = 0; id < hashes.length; id++) {
+            hashes[id] = id % 10 == 0 ? random.nextLong() : hashes[id - id % 10] ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+            index.put(id, hashes[id]);
+        }
+
+        for (int maxDistance : new int[]{0, 3, 8, 16}) {
+            long query = hashes[random.nextInt(hashes.length)];
+            long expected = Arrays.stream(hashes)
+                    .filter(hash -> Long.bitCount(hash ^ query) <= maxDistance)
+                    .count();
+            assertThat(index.search(query, maxDistance)).hasSize((int) expected);
+        }
+    }
+
+    @Test
+    public void whenPutAgainOrRemoveThenIndexUpdated() {
+        MultiIndexHashTable index = new MultiIndexHashTable();
+        index.put(1, 0L);
+        index.put(1, -1L);
+
+        assertThat(index.search(0L, 0)).isEmpty();
+        assertThat(index.search(-1L, 0)).hasSize(1);
+
+        index.remove(1);
+
+        assertThat(index.search(-1L, 0)).isEmpty();
+        assertThat(index.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void whenDistanceOutOfRangeThenIllegalArgumentException() {
+        MultiIndexHashTable index = new MultiIndexHashTable();
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> index.search(0L, MultiIndexHashTable.MAX_DISTANCE + 1));
+    }
+}
@@ -0,0 +1,188 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.exception.type.InvalidRenditionException;
+import com.project.imageservice.exception.type.UnsupportedImageFormatException;
+import com.project.imageservice.service.RenditionService;
+import com.project.imageservice.storage.ImageContent;
+import com.project.imageservice.storage.ImageResizer;
+import com.project.imageservice.storage.Rendition;
+import com.project.imageservice.storage.RenditionFit;
+import com.project.imageservice.storage.RenditionFormat;
+import com.project.imageservice.storage.RenditionKey;
+import com.project.imageservice.storage.StorageProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RenditionServiceTests {
+
+    private static final String CONTENT_HASH = "3824b485e03510a8005027254714469d272bcecf1d4194b43930c4f0ae992762";
+
+    @TempDir
+    Path root;
+
+    @Mock
+    private ImageResizer imageResizer;
+
+    private StorageProperties storageProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private RenditionService renditionService;
+    private ImageContent content;
+
+    @BeforeEach
+    public void setUp() {
+        storageProperties = new StorageProperties();
+        storageProperties.setRoot(root);
+        meterRegistry = new SimpleMeterRegistry();
+        renditionService = new RenditionService(imageResizer, storageProperties, meterRegistry);
+        content = new ImageContent(root.resolve("original"), CONTENT_HASH, "image/png");
+    }
+
+    @Test
+    public void whenRenderTwiceThenSecondServedFromMemory() {
+        when(imageResizer.resize(any(), anyInt(), anyInt(), any(), anyBoolean())).thenReturn(image());
+        RenditionKey key = renditionService.resolveKey(CONTENT_HASH, 10, null, null, "png");
+
+        Rendition first = renditionService.render(content, key);
+        Rendition second = renditionService.render(content, key);
+
+        assertThat(second.getContent()).isEqualTo(first.getContent());
+        assertThat(second.getContentType()).isEqualTo("image/png");
+        assertThat(meterRegistry.counter("image.rendition.cache.hits", "tier", "memory").count()).isEqualTo(1.0);
+        verify(imageResizer, times(1)).resize(content.getPath(), 10, 0, RenditionFit.CONTAIN, false);
+    }
+
+    @Test
+    public void whenRenderedBeforeRestartThenServedFromDisk() {
+        when(imageResizer.resize(any(), anyInt(), anyInt(), any(), anyBoolean())).thenReturn(image());
+        RenditionKey key = renditionService.resolveKey(CONTENT_HASH, 10, 10, "cover", null);
+        Rendition first = renditionService.render(content, key);
+
+        RenditionService restarted = new RenditionService(imageResizer, storageProperties, new SimpleMeterRegistry());
+        Rendition second = restarted.render(content, key);
+
+        assertThat(second.getContent()).isEqualTo(first.getContent());
+        assertThat(second.getContentType()).isEqualTo("image/jpeg");
+        verify(imageResizer, times(1)).resize(any(), anyInt(), anyInt(), any(), anyBoolean());
+    }
+
+    @Test
+    public void whenConcurrentRequestsForSameRenditionThenRenderedOnce() throws Exception {
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(imageResizer.resize(any(), anyInt(), anyInt(), any(), anyBoolean())).thenAnswer(invocation -> {
+            rendering.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return image();
+        });
+        RenditionKey key = renditionService.resolveKey(CONTENT_HASH, 10, 10, null, null);
+
+        CompletableFuture<Rendition> first = CompletableFuture.supplyAsync(() -> renditionService.render(content, key));
+        assertThat(rendering.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Rendition> second = CompletableFuture.supplyAsync(() -> renditionService.render(content, key));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.counter("image.rendition.render.shared").count() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS).getContent()).isEqualTo(first.get(5, TimeUnit.SECONDS).getContent());
+        verify(imageResizer, times(1)).resize(any(), anyInt(), anyInt(), any(), anyBoolean());
+    }
+
+    @Test
+    public void whenSameRenditionFinishesBeforeInFlightIsClaimedThenNotRenderedAgain() {
+        when(imageResizer.resize(any(), anyInt(), anyInt(), any(), anyBoolean())).thenReturn(image());
+        RenditionService other = new RenditionService(imageResizer, storageProperties, new SimpleMeterRegistry());
+        RenditionKey key = renditionService.resolveKey(CONTENT_HASH, 10, 10, null, null);
+        // the miss is counted after both cache lookups and before inFlight is claimed
+        RenditionService racing = new RenditionService(imageResizer, storageProperties, new SimpleMeterRegistry() {
+            @Override
+            protected Counter newCounter(Meter.Id id) {
+                Counter counter = super.newCounter(id);
+                if (!"image.rendition.cache.misses".equals(id.getName())) {
+                    return counter;
+                }
+                return new Counter() {
+                    @Override
+                    public void increment(double amount) {
+                        counter.increment(amount);
+                        other.render(content, key);
+                    }
+
+                    @Override
+                    public double count() {
+                        return counter.count();
+                    }
+
+                    @Override
+                    public Meter.Id getId() {
+                        return counter.getId();
+                    }
+                };
+            }
+        });
+
+        Rendition rendition = racing.render(content, key);
+
+        assertThat(rendition.getContent()).isEqualTo(other.render(content, key).getContent());
+        verify(imageResizer, times(1)).resize(any(), anyInt(), anyInt(), any(), anyBoolean());
+    }
+
+    @Test
+    public void whenContentCanNotBeDecodedThenUnsupportedImageFormatException() {
+        when(imageResizer.resize(any(), anyInt(), anyInt(), any(), anyBoolean())).thenReturn(null);
+        RenditionKey key = renditionService.resolveKey(CONTENT_HASH, 10, null, null, null);
+
+        assertThatExceptionOfType(UnsupportedImageFormatException.class)
+                .isThrownBy(() -> renditionService.render(content, key));
+    }
+
+    @Test
+    public void whenResolveKeyThenDefaultsApplied() {
+        RenditionKey key = renditionService.resolveKey(CONTENT_HASH, null, 20, null, null);
+
+        assertThat(key.getWidth()).isEqualTo(0);
+        assertThat(key.getHeight()).isEqualTo(20);
+        assertThat(key.getFit()).isEqualTo(RenditionFit.CONTAIN);
+        assertThat(key.getFormat()).isEqualTo(RenditionFormat.JPEG);
+    }
+
+    @Test
+    public void whenResolveKeyWithInvalidParametersThenInvalidRenditionException() {
+        assertThatExceptionOfType(InvalidRenditionException.class)
+                .isThrownBy(() -> renditionService.resolveKey(CONTENT_HASH, 0, null, null, null));
+        assertThatExceptionOfType(InvalidRenditionException.class)
+                .isThrownBy(() -> renditionService.resolveKey(CONTENT_HASH, null, 100_000, null, null));
+        assertThatExceptionOfType(InvalidRenditionException.class)
+                .isThrownBy(() -> renditionService.resolveKey(CONTENT_HASH, 10, null, "stretch", null));
+        assertThatExceptionOfType(InvalidRenditionException.class)
+                .isThrownBy(() -> renditionService.resolveKey(CONTENT_HASH, 10, null, null, "tiff"));
+    }
+
+    private BufferedImage image() {
+        return new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+    }
+}
@@ -0,0 +1,110 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.search.RoaringBitmap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RoaringBitmapTests {
+
+    @Test
+    public void whenAddAndRemoveThenValuesReturnedInOrder() {
+        RoaringBitmap bitmap = RoaringBitmap.of(70_000, 3, 1, 65_536, 3);
+        bitmap.remove(65_536);
+        bitmap.remove(42);
+
+        assertThat(bitmap.toArray()).containsExactly(1, 3, 70_000);
+        assertThat(bitmap.cardinality()).isEqualTo(3);
+        assertThat(bitmap.contains(3)).isTrue();
+        assertThat(bitmap.contains(65_536)).isFalse();
+    }
+
+    @Test
+    public void whenSetOperationsThenMatchReferenceSets() {
+        Random random = new Random(17);
+        for (int round = 0; round < 50; round++) {
+            TreeSet<Integer> left = new TreeSet<>();
+            TreeSet<Integer> right = new TreeSet<>();
+            RoaringBitmap leftBitmap = randomBitmap(random, left);
+            RoaringBitmap rightBitmap = randomBitmap(random, right);
+
+            TreeSet<Integer> and = new TreeSet<>(left);
+            and.retainAll(right);
+            TreeSet<Integer> or = new TreeSet<>(left);
+            or.addAll(right);
+            TreeSet<Integer> andNot = new TreeSet<>(left);
+            andNot.removeAll(right);
+
+            assertThat(leftBitmap.toArray()).containsExactly(toArray(left));
+            assertThat(RoaringBitmap.and(leftBitmap, rightBitmap).toArray()).containsExactly(toArray(and));
+            assertThat(RoaringBitmap.or(leftBitmap, rightBitmap).toArray()).containsExactly(toArray(or));
+            assertThat(RoaringBitmap.andNot(leftBitmap, rightBitmap).toArray()).containsExactly(toArray(andNot));
+        }
+    }
+
+    @Test
+    public void whenRunOptimizedThenContentUnchangedAndStillMutable() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value = 10; value < 20_000; value++) {
+            bitmap.add(value);
+        }
+        bitmap.runOptimize();
+
+        assertThat(bitmap.cardinality()).isEqualTo(19_990);
+        assertThat(bitmap.contains(10)).isTrue();
+        assertThat(bitmap.contains(20_000)).isFalse();
+
+        bitmap.remove(500);
+        bitmap.add(30_000);
+
+        assertThat(bitmap.cardinality()).isEqualTo(19_990);
+        assertThat(bitmap.contains(500)).isFalse();
+        assertThat(bitmap.contains(30_000)).isTrue();
+    }
+
+    @Test
+    public void whenResultModifiedThenOperandsUnchanged() {
+        RoaringBitmap left = RoaringBitmap.of(1, 2, 3);
+        RoaringBitmap right = RoaringBitmap.of(100_000);
+
+        RoaringBitmap or = RoaringBitmap.or(left, right);
+        or.add(4);
+        or.remove(100_000);
+
+        assertThat(left.toArray()).containsExactly(1, 2, 3);
+        assertThat(right.toArray()).containsExactly(100_000);
+    }
+
+    private RoaringBitmap randomBitmap(Random random, TreeSet<Integer> reference) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        int count = random.nextInt(12_000);
+        for (int i = 0; i < count; i++) {
+            int value = random.nextBoolean()
+                    ? random.nextInt(200_000)
+                    : 65_536 + random.nextInt(6_000);
+            bitmap.add(value);
+            reference.add(value);
+        }
+        int start = random.nextInt(131_072);
+        for (int value = start; value < start + random.nextInt(3_000); value++) {
+            bitmap.add(value);
+            reference.add(value);
+        }
+        if (random.nextBoolean()) {
+            bitmap.runOptimize();
+        }
+        for (int i = 0; i < count / 4; i++) {
+            int value = random.nextInt(200_000);
+            bitmap.remove(value);
+            reference.remove(value);
+        }
+        return bitmap;
+    }
+
+    private int[] toArray(TreeSet<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,126 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.dto.image.ImageSearchFilter;
+import com.project.imageservice.search.SearchProperties;
+import com.project.imageservice.service.SearchResultCache;
+import com.project.imageservice.service.SearchResultsChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchResultCacheTests {
+
+    private final SearchResultCache cache = new SearchResultCache(new SearchProperties());
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @Test
+    public void whenSameFilterAndPageThenResultIsReused() {
+        cache.get(filter(1, List.of(2, 1)), PageRequest.of(0, 10), this::search);
+        cache.get(filter(1, List.of(1, 2)), PageRequest.of(0, 10), this::search);
+
+        assertThat(searches.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenDifferentPageThenSearchedSeparately() {
+        cache.get(filter(1, null), PageRequest.of(0, 10), this::search);
+        cache.get(filter(1, null), PageRequest.of(1, 10), this::search);
+
+        assertThat(searches.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenAccountChangedThenOnlyItsResultsAreSearchedAgain() {
+        cache.get(filter(1, null), PageRequest.of(0, 10), this::search);
+        cache.get(filter(2, null), PageRequest.of(0, 10), this::search);
+
+        cache.onSearchResultsChanged(new SearchResultsChangedEvent(1, List.of(3)));
+
+        cache.get(filter(1, null), PageRequest.of(0, 10), this::search);
+        cache.get(filter(2, null), PageRequest.of(0, 10), this::search);
+        assertThat(searches.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void whenTagChangedThenOnlyResultsDependingOnItAreSearchedAgain() {
+        cache.get(filter(null, List.of(3)), PageRequest.of(0, 10), this::search);
+        cache.get(filter(null, List.of(4, 5)), PageRequest.of(0, 10), this::search);
+
+        cache.onSearchResultsChanged(new SearchResultsChangedEvent(1, List.of(5)));
+
+        cache.get(filter(null, List.of(3)), PageRequest.of(0, 10), this::search);
+        cache.get(filter(null, List.of(4, 5)), PageRequest.of(0, 10), this::search);
+        assertThat(searches.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void whenAnyImageChangedThenUnscopedResultsAreSearchedAgain() {
+        cache.get(filter(null, null), PageRequest.of(0, 10), this::search);
+
+        cache.onSearchResultsChanged(new SearchResultsChangedEvent(7, List.of()));
+
+        cache.get(filter(null, null), PageRequest.of(0, 10), this::search);
+        assertThat(searches.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenChangedWhileSearchingThenResultIsNotReused() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Supplier<Page<Integer>> racingSearch = () -> {
+            cache.onSearchResultsChanged(new SearchResultsChangedEvent(1, List.of()));
+            return search();
+        };
+
+        cache.get(filter(1, null), pageable, racingSearch);
+        cache.get(filter(1, null), pageable, this::search);
+
+        assertThat(searches.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenCacheFullThenLeastRecentlyUsedResultIsEvicted() {
+        SearchProperties searchProperties = new SearchProperties();
+        searchProperties.getResult().setCacheSize(1);
+        SearchResultCache cache = new SearchResultCache(searchProperties);
+
+        cache.get(filter(1, null), PageRequest.of(0, 10), this::search);
+        cache.get(filter(2, null), PageRequest.of(0, 10), this::search);
+        cache.get(filter(1, null), PageRequest.of(0, 10), this::search);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(searches.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void whenCacheDisabledThenAlwaysSearched() {
+        SearchProperties searchProperties = new SearchProperties();
+        searchProperties.getResult().setCacheEnabled(false);
+        SearchResultCache cache = new SearchResultCache(searchProperties);
+
+        cache.get(filter(1, null), PageRequest.of(0, 10), this::search);
+        cache.get(filter(1, null), PageRequest.of(0, 10), this::search);
+
+        assertThat(searches.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    private Page<Integer> search() {
+        return new PageImpl<>(List.of(searches.incrementAndGet()), PageRequest.of(0, 10), 1);
+    }
+
+    private ImageSearchFilter filter(Integer accountId, List<Integer> tagsIds) {
+        ImageSearchFilter filter = new ImageSearchFilter();
+        filter.setAccountId(accountId);
+        filter.setTagsIds(tagsIds);
+        return filter;
+    }
+}
@@ -0,0 +1,69 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.search.RoaringBitmap;
+import com.project.imageservice.search.TagBitmapIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TagBitmapIndexTests {
+
+    @Test
+    public void whenAllThenImagesHavingEveryTag() {
+        TagBitmapIndex index = index();
+
+        assertThat(index.all(List.of(1, 2)).toArray()).containsExactly(1, 3);
+        assertThat(index.all(List.of(1, 4)).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void whenAnyThenImagesHavingAtLeastOneTagOnce() {
+        TagBitmapIndex index = index();
+
+        assertThat(index.any(List.of(2, 3)).toArray()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void whenImageRetaggedOrRemovedThenOldTagsNoLongerMatch() {
+        TagBitmapIndex index = index();
+
+        index.put(1, new int[]{3});
+        index.remove(3);
+
+        assertThat(index.any(List.of(1, 2)).toArray()).containsExactly(2);
+        assertThat(index.any(List.of(3)).toArray()).containsExactly(1, 2);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenAllResultModifiedThenIndexUnchanged() {
+        TagBitmapIndex index = index();
+
+        RoaringBitmap images = index.all(List.of(1));
+        images.add(100);
+
+        assertThat(index.all(List.of(1)).toArray()).containsExactly(1, 3);
+    }
+
+    @Test
+    public void whenCountsThenImagesPerTagWithinAndOutsideExcluded() {
+        TagBitmapIndex index = index();
+
+        assertThat(index.counts(null, null)).isEqualTo(Map.of(1, 2, 2, 3, 3, 1));
+        assertThat(index.counts(RoaringBitmap.of(1, 2), null)).isEqualTo(Map.of(1, 1, 2, 2, 3, 1));
+        assertThat(index.counts(null, RoaringBitmap.of(2))).isEqualTo(Map.of(1, 2, 2, 2));
+    }
+
+    private TagBitmapIndex index() {
+        TagBitmapIndex index = new TagBitmapIndex();
+        index.put(1, new int[]{1, 2});
+        index.put(2, new int[]{2, 3});
+        index.add(3, 1);
+        index.add(3, 2);
+        index.optimize();
+        return index;
+    }
+}
@@ -0,0 +1,116 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.dao.ImageRepository;
+import com.project.imageservice.service.ImagesSavedEvent;
+import com.project.imageservice.service.ThumbnailService;
+import com.project.imageservice.storage.ImageResizer;
+import com.project.imageservice.storage.LocalBlobStore;
+import com.project.imageservice.storage.StorageProperties;
+import com.project.imageservice.storage.StoredBlob;
+import com.project.imageservice.storage.ThumbnailStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ThumbnailServiceTests {
+
+    private static final int THUMBNAIL_SIZE = 64;
+
+    @TempDir
+    Path root;
+
+    @Mock
+    private ImageRepository imageRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private LocalBlobStore blobStore;
+    private ThumbnailStore thumbnailStore;
+    private ThumbnailService thumbnailService;
+
+    @BeforeEach
+    public void setUp() {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setRoot(root);
+        storageProperties.getThumbnail().setSize(THUMBNAIL_SIZE);
+
+        blobStore = new LocalBlobStore(storageProperties);
+        thumbnailStore = new ThumbnailStore(storageProperties);
+        thumbnailService = new ThumbnailService(
+                blobStore,
+                new ImageResizer(),
+                thumbnailStore,
+                imageRepository,
+                new TransactionTemplate(transactionManager),
+                applicationEventPublisher,
+                storageProperties,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        thumbnailService.shutdown();
+    }
+
+    @Test
+    public void whenGenerateThumbnailThenScaledToFitAndMarkedAvailable() throws IOException {
+        StoredBlob storedBlob = blobStore.store(new ByteArrayInputStream(png(1000, 500)));
+
+        assertThat(thumbnailService.generate(storedBlob.getContentHash())).isTrue();
+
+        BufferedImage thumbnail = ImageIO.read(thumbnailStore.resolve(storedBlob.getContentHash()).toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(THUMBNAIL_SIZE);
+        assertThat(thumbnail.getHeight()).isEqualTo(THUMBNAIL_SIZE / 2);
+        verify(imageRepository, times(1)).updateThumbnailAndFeatures(
+                eq(storedBlob.getContentHash()), anyLong(), any(byte[].class), argThat(placeholder -> placeholder.length() == 28));
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ImagesSavedEvent.class));
+    }
+
+    @Test
+    public void whenGenerateThumbnailForSmallImageThenNotUpscaled() throws IOException {
+        StoredBlob storedBlob = blobStore.store(new ByteArrayInputStream(png(20, 10)));
+
+        assertThat(thumbnailService.generate(storedBlob.getContentHash())).isTrue();
+
+        BufferedImage thumbnail = ImageIO.read(thumbnailStore.resolve(storedBlob.getContentHash()).toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(20);
+        assertThat(thumbnail.getHeight()).isEqualTo(10);
+    }
+
+    @Test
+    public void whenGenerateThumbnailForUnknownFormatThenNothingStored() {
+        StoredBlob storedBlob = blobStore.store(new ByteArrayInputStream("imageContent".getBytes()));
+
+        assertThat(thumbnailService.generate(storedBlob.getContentHash())).isFalse();
+
+        assertThat(thumbnailStore.exists(storedBlob.getContentHash())).isFalse();
+        verifyNoInteractions(imageRepository);
+    }
+
+    private byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,148 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.service.TilePyramidService;
+import com.project.imageservice.storage.LocalBlobStore;
+import com.project.imageservice.storage.StorageProperties;
+import com.project.imageservice.storage.StoredBlob;
+import com.project.imageservice.storage.TilePyramid;
+import com.project.imageservice.storage.TileStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class TilePyramidServiceTests {
+
+    private static final int TILE_SIZE = 64;
+
+    @TempDir
+    Path root;
+
+    private LocalBlobStore blobStore;
+    private TileStore tileStore;
+    private TilePyramidService tilePyramidService;
+
+    @BeforeEach
+    public void setUp() {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setRoot(root);
+        storageProperties.getTiles().setTileSize(TILE_SIZE);
+        storageProperties.getTiles().setMinDimension(TILE_SIZE);
+        storageProperties.getTiles().setThreads(2);
+
+        blobStore = new LocalBlobStore(storageProperties);
+        tileStore = new TileStore(storageProperties);
+        tilePyramidService = new TilePyramidService(blobStore, tileStore, storageProperties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tilePyramidService.shutdown();
+    }
+
+    @Test
+    public void whenGenerateThenEveryLevelTiledUntilOneTileRemains() throws IOException {
+        StoredBlob storedBlob = blobStore.store(new ByteArrayInputStream(png(300, 200)));
+        String contentHash = storedBlob.getContentHash();
+
+        TilePyramid tilePyramid = tilePyramidService.generate(contentHash);
+
+        assertThat(tilePyramid.getLevels()).isEqualTo(4);
+        assertThat(tileStore.findPyramid(contentHash).getLevels()).isEqualTo(4);
+        assertThat(tileStore.exists(contentHash, 0, 4, 3)).isTrue();
+        assertThat(tileStore.exists(contentHash, 0, 5, 0)).isFalse();
+
+        BufferedImage edgeTile = tileStore.read(contentHash, 0, 4, 3);
+        assertThat(edgeTile.getWidth()).isEqualTo(300 - 4 * TILE_SIZE);
+        assertThat(edgeTile.getHeight()).isEqualTo(200 - 3 * TILE_SIZE);
+
+        BufferedImage topTile = tileStore.read(contentHash, 3, 0, 0);
+        assertThat(topTile.getWidth()).isEqualTo(38);
+        assertThat(topTile.getHeight()).isEqualTo(25);
+    }
+
+    @Test
+    public void whenGenerationInterruptedThenResumeKeepsExistingTiles() throws IOException {
+        StoredBlob storedBlob = blobStore.store(new ByteArrayInputStream(png(300, 200)));
+        String contentHash = storedBlob.getContentHash();
+        tilePyramidService.generate(contentHash);
+
+        Path pyramidMarker = tileStore.resolve(contentHash, 0, 0, 0).getParent().getParent().resolve("pyramid.properties");
+        Files.delete(pyramidMarker);
+        Files.delete(tileStore.resolve(contentHash, 0, 2, 2));
+        Files.delete(tileStore.resolve(contentHash, 3, 0, 0));
+        FileTime untouched = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(tileStore.resolve(contentHash, 0, 0, 0), untouched);
+
+        assertThat(tileStore.findIncomplete()).isEqualTo(List.of(contentHash));
+
+        tilePyramidService.generate(contentHash);
+
+        assertThat(tileStore.exists(contentHash, 0, 2, 2)).isTrue();
+        assertThat(tileStore.exists(contentHash, 3, 0, 0)).isTrue();
+        assertThat(Files.getLastModifiedTime(tileStore.resolve(contentHash, 0, 0, 0))).isEqualTo(untouched);
+        assertThat(tileStore.findIncomplete().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void whenBaseSplitIntoStripsThenTilesMatchTheSource() throws IOException {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setRoot(root);
+        storageProperties.getTiles().setTileSize(TILE_SIZE);
+        storageProperties.getTiles().setMinDimension(TILE_SIZE);
+        storageProperties.getTiles().setThreads(2);
+        storageProperties.getTiles().setStripPixels(300L * TILE_SIZE * 2);
+        TilePyramidService stripService = new TilePyramidService(blobStore, tileStore, storageProperties, new SimpleMeterRegistry());
+
+        // the second strip starts at tile row 2, which is the only white part of the source
+        BufferedImage source = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        for (int y = 2 * TILE_SIZE; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                source.setRGB(x, y, 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(source, "png", out);
+        String contentHash = blobStore.store(new ByteArrayInputStream(out.toByteArray())).getContentHash();
+
+        try {
+            stripService.generate(contentHash);
+        } finally {
+            stripService.shutdown();
+        }
+
+        assertThat(tileStore.read(contentHash, 0, 3, 1).getRGB(5, 7) & 0xFF).isLessThan(32);
+        assertThat(tileStore.read(contentHash, 0, 3, 2).getRGB(5, 7) & 0xFF).isGreaterThan(224);
+        BufferedImage cornerTile = tileStore.read(contentHash, 0, 4, 3);
+        assertThat(cornerTile.getWidth()).isEqualTo(300 - 4 * TILE_SIZE);
+        assertThat(cornerTile.getHeight()).isEqualTo(200 - 3 * TILE_SIZE);
+        assertThat(cornerTile.getRGB(0, 0) & 0xFF).isGreaterThan(224);
+    }
+
+    @Test
+    public void whenImageBelowMinDimensionThenNoTiles() throws IOException {
+        StoredBlob storedBlob = blobStore.store(new ByteArrayInputStream(png(TILE_SIZE - 1, 10)));
+
+        assertThat(tilePyramidService.generate(storedBlob.getContentHash())).isNull();
+        assertThat(tileStore.findIncomplete().isEmpty()).isTrue();
+    }
+
+    private byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.search.TrigramIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class TrigramIndexTests {
+
+    @Test
+    public void whenFindContainingThenSubstringMatchedIgnoringCase() {
+        TrigramIndex index = index();
+
+        assertThat(index.findContaining("SUNSET")).containsExactly(1, 3);
+        assertThat(index.findContaining("set_b")).containsExactly(1);
+        assertThat(index.findContaining("xyz")).isEmpty();
+    }
+
+    @Test
+    public void whenGramsOccurApartThenCandidateRejectedByVerify() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "abcxbcd");
+
+        assertThat(index.findContaining("bcd")).containsExactly(1);
+        assertThat(index.findContaining("abcd")).isEmpty();
+    }
+
+    @Test
+    public void whenFindStartingWithThenOnlyPrefixesMatch() {
+        TrigramIndex index = index();
+
+        assertThat(index.findStartingWith("s")).containsExactly(1);
+        assertThat(index.findStartingWith("mo")).containsExactly(2);
+        assertThat(index.findStartingWith("img_")).containsExactly(3);
+        assertThat(index.findStartingWith("beach")).isEmpty();
+    }
+
+    @Test
+    public void whenRenamedOrRemovedThenOldNameNoLongerMatches() {
+        TrigramIndex index = index();
+
+        index.put(1, "night");
+        index.remove(3);
+
+        assertThat(index.findContaining("sunset")).isEmpty();
+        assertThat(index.findStartingWith("nig")).containsExactly(1);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenSubstringTooShortThenIllegalArgumentException() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> index().findContaining("ab"));
+    }
+
+    private TrigramIndex index() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Sunset_Beach.jpg");
+        index.put(2, "mountain.png");
+        index.put(3, "IMG_2022_sunset.jpg");
+        index.optimize();
+        return index;
+    }
+}
@@ -0,0 +1,182 @@
+package com.project.imageservice.unit;
+
+import com.project.imageservice.dao.AccountRepository;
+import com.project.imageservice.dao.TagRepository;
+import com.project.imageservice.dao.UploadSessionRepository;
+import com.project.imageservice.domain.Account;
+import com.project.imageservice.domain.UploadSession;
+import com.project.imageservice.dto.upload.CreateUploadSessionDto;
+import com.project.imageservice.exception.type.TagNotFoundException;
+import com.project.imageservice.exception.type.UploadConflictException;
+import com.project.imageservice.exception.type.UploadSessionNotFoundException;
+import com.project.imageservice.mapper.UploadSessionMapper;
+import com.project.imageservice.service.ImageService;
+import com.project.imageservice.service.UploadSessionServiceImpl;
+import com.project.imageservice.storage.BlobStore;
+import com.project.imageservice.storage.ChunkedUploadStore;
+import com.project.imageservice.storage.ContentSniffer;
+import com.project.imageservice.storage.StoredBlob;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UploadSessionServiceTests {
+
+    private static final Integer ACCOUNT_ID = 1;
+    private static final String UPLOAD_ID = "someUploadId";
+    private static final Long UPLOAD_SIZE = 12L;
+    private static final Integer TAG_ID = 3;
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private TagRepository tagRepository;
+    @Mock
+    private ChunkedUploadStore chunkedUploadStore;
+    @Mock
+    private BlobStore blobStore;
+    @Mock
+    private ContentSniffer contentSniffer;
+    @Mock
+    private ImageService imageService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Spy
+    private UploadSessionMapper uploadSessionMapper;
+    @InjectMocks
+    private UploadSessionServiceImpl uploadSessionService;
+
+    @Test
+    public void whenCreateUploadWithTagIdNotFoundThenTagNotFoundException() {
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(createAccount()));
+        when(tagRepository.findByIdIn(List.of(TAG_ID))).thenReturn(List.of());
+
+        CreateUploadSessionDto createUploadSessionDto = new CreateUploadSessionDto(
+                "someOriginalName", "someContentType", UPLOAD_SIZE, List.of(TAG_ID));
+
+        assertThatExceptionOfType(TagNotFoundException.class)
+                .isThrownBy(() -> uploadSessionService.create(createUploadSessionDto, ACCOUNT_ID));
+        verify(chunkedUploadStore, never()).create(anyString(), anyLong());
+    }
+
+    @Test
+    public void whenAppendChunkToUnknownUploadThenUploadSessionNotFoundException() {
+        when(uploadSessionRepository.findByIdAndAccountId(ACCOUNT_ID, UPLOAD_ID)).thenReturn(Optional.empty());
+
+        InputStream chunk = new ByteArrayInputStream(new byte[0]);
+        assertThatExceptionOfType(UploadSessionNotFoundException.class)
+                .isThrownBy(() -> uploadSessionService.appendChunk(ACCOUNT_ID, UPLOAD_ID, 0, chunk));
+    }
+
+    @Test
+    public void whenAppendChunkAtWrongOffsetThenUploadConflictAndNothingWritten() {
+        when(uploadSessionRepository.findByIdAndAccountId(ACCOUNT_ID, UPLOAD_ID))
+                .thenReturn(Optional.of(createUploadSession(5L)));
+
+        InputStream chunk = new ByteArrayInputStream(new byte[0]);
+        assertThatExceptionOfType(UploadConflictException.class)
+                .isThrownBy(() -> uploadSessionService.appendChunk(ACCOUNT_ID, UPLOAD_ID, 0, chunk));
+        verifyNoInteractions(chunkedUploadStore);
+    }
+
+    @Test
+    public void whenChunkForSameOffsetArrivesDuringWriteThenUploadConflictBeforeSessionIsRead() {
+        when(uploadSessionRepository.findByIdAndAccountId(ACCOUNT_ID, UPLOAD_ID))
+                .thenReturn(Optional.of(createUploadSession(0L)));
+        doReturn(1).when(transactionTemplate).execute(any());
+        InputStream racingChunk = new ByteArrayInputStream(new byte[0]);
+        when(chunkedUploadStore.write(eq(UPLOAD_ID), eq(0L), eq(UPLOAD_SIZE), any(), any())).thenAnswer(invocation -> {
+            assertThatExceptionOfType(UploadConflictException.class)
+                    .isThrownBy(() -> uploadSessionService.appendChunk(ACCOUNT_ID, UPLOAD_ID, 0, racingChunk));
+            return UPLOAD_SIZE;
+        });
+
+        uploadSessionService.appendChunk(ACCOUNT_ID, UPLOAD_ID, 0, new ByteArrayInputStream(new byte[0]));
+
+        verify(uploadSessionRepository, times(1)).findByIdAndAccountId(ACCOUNT_ID, UPLOAD_ID);
+        verify(chunkedUploadStore, times(1)).write(anyString(), anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    public void whenCompleteIncompleteUploadThenUploadConflictAndNothingImported() {
+        when(uploadSessionRepository.findByIdAndAccountId(ACCOUNT_ID, UPLOAD_ID))
+                .thenReturn(Optional.of(createUploadSession(5L)));
+
+        assertThatExceptionOfType(UploadConflictException.class)
+                .isThrownBy(() -> uploadSessionService.complete(ACCOUNT_ID, UPLOAD_ID));
+        verifyNoInteractions(blobStore);
+    }
+
+    @Test
+    public void whenCompleteFailsTransientlyThenSessionAndPartFileAreKeptForRetry() {
+        mockCompletableUpload();
+        when(transactionTemplate.execute(any())).thenThrow(new QueryTimeoutException("someTimeout"));
+
+        assertThatExceptionOfType(QueryTimeoutException.class)
+                .isThrownBy(() -> uploadSessionService.complete(ACCOUNT_ID, UPLOAD_ID));
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        verify(chunkedUploadStore, never()).delete(UPLOAD_ID);
+    }
+
+    @Test
+    public void whenCompleteConflictsThenSessionAndPartFileAreDeleted() {
+        mockCompletableUpload();
+        when(transactionTemplate.execute(any())).thenThrow(new UploadConflictException("someConflict"));
+
+        assertThatExceptionOfType(UploadConflictException.class)
+                .isThrownBy(() -> uploadSessionService.complete(ACCOUNT_ID, UPLOAD_ID));
+        verify(transactionTemplate).executeWithoutResult(any());
+        verify(chunkedUploadStore).delete(UPLOAD_ID);
+    }
+
+    private void mockCompletableUpload() {
+        Path partFile = Path.of("somePartFile");
+        when(uploadSessionRepository.findByIdAndAccountId(ACCOUNT_ID, UPLOAD_ID))
+                .thenReturn(Optional.of(createUploadSession(UPLOAD_SIZE)));
+        when(chunkedUploadStore.resolve(UPLOAD_ID)).thenReturn(partFile);
+        when(blobStore.importFile(partFile)).thenReturn(new StoredBlob("someContentHash", UPLOAD_SIZE));
+    }
+
+    private UploadSession createUploadSession(Long committedOffset) {
+        UploadSession uploadSession = new UploadSession();
+        uploadSession.setId(UPLOAD_ID);
+        uploadSession.setAccount(createAccount());
+        uploadSession.setOriginalName("someOriginalName");
+        uploadSession.setContentType("someContentType");
+        uploadSession.setTagsIds(String.valueOf(TAG_ID));
+        uploadSession.setTotalSize(UPLOAD_SIZE);
+        uploadSession.setCommittedOffset(committedOffset);
+        uploadSession.setCreatedOn(NOW);
+        uploadSession.setUpdatedOn(NOW);
+        return uploadSession;
+    }
+
+    private Account createAccount() {
+        Account account = new Account();
+        account.setId(ACCOUNT_ID);
+        return account;
+    }
+}